@@ -0,0 +1,416 @@
+package hello.aop.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * @Trace/@Retry 메서드가 있는 클래스마다 데코레이터 하위 클래스(원래이름_Decorated)를 생성
+ * - 재정의한 메서드 안에 trace/retry 코드를 직접 쓰고 super.메서드() 를 호출한다. (프록시, JoinPoint, 인자 배열 없음)
+ * - 실행 코드: hello.aop.decorator.DecoratedMethod, 빈 교체: hello.aop.decorator.DecoratorConfig
+ * - 원래 클래스=데코레이터 목록: META-INF/hello-aop/decorators.properties
+ *
+ * 생성하지 않는 경우 (프록시로 계속 처리, NOTE 로 이유 출력)
+ * - final/private/abstract/제네릭 클래스, non-static 내부 클래스, 접근 가능한 생성자가 없는 클래스
+ * - final/private/static/제네릭 메서드, CompletionStage 를 반환하는 @Retry 메서드 (비동기 재시도)
+ * - @FaultInjection, @Batched 가 같이 있는 메서드: 프록시에서 @Retry/@Trace 보다 안쪽에서 실행되어야 한다.
+ *   (데코레이터로 만들면 복사된 어노테이션이 재시도 바깥이 되어 시도마다 장애가 다시 주입되지 않는다.)
+ *
+ * 옵션 -Adecorator.packages=a.b,c.d : 이 패키지(하위 포함)의 클래스만 생성 (테스트 컴파일 등에서 범위 제한)
+ *
+ * lombok 다음에 실행되어야 lombok 이 만든 생성자(@RequiredArgsConstructor)가 보인다. (annotationProcessor 순서)
+ */
+@SupportedAnnotationTypes({DecoratorProcessor.TRACE, DecoratorProcessor.RETRY})
+@SupportedOptions(DecoratorProcessor.PACKAGES_OPTION)
+public class DecoratorProcessor extends AbstractProcessor {
+    static final String TRACE = "hello.aop.exam.annotation.Trace";
+    static final String RETRY = "hello.aop.exam.annotation.Retry";
+    static final String PACKAGES_OPTION = "decorator.packages";
+    //프록시에서 TraceAspect/RetryAspect 보다 안쪽(LOWEST_PRECEDENCE)에서 실행되어야 하는 어드바이스
+    private static final Set<String> INNER_ADVICE = Set.of(
+            "hello.aop.fault.annotation.FaultInjection",
+            "hello.aop.batch.annotation.Batched");
+    private static final String OVERRIDE = "java.lang.Override";
+    private static final String SUFFIX = "_Decorated";
+    private static final String INDEX = "META-INF/hello-aop/decorators.properties";
+    private static final String DECORATED_METHOD = "hello.aop.decorator.DecoratedMethod";
+    private static final String DEADLINE = "hello.aop.deadline.Deadline";
+
+    private final Map<String, String> decorators = new TreeMap<>(); //원래 클래스(binary name) -> 데코레이터
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeIndex();
+            return false;
+        }
+        Set<TypeElement> types = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.METHOD) {
+                    types.add((TypeElement) element.getEnclosingElement());
+                }
+            }
+        }
+        for (TypeElement type : types) {
+            generate(type);
+        }
+        return false;
+    }
+
+    private void generate(TypeElement type) {
+        if (!included(type)) {
+            return;
+        }
+        String reason = unsupportedType(type);
+        if (reason != null) {
+            note(type, reason);
+            return;
+        }
+        List<ExecutableElement> methods = new ArrayList<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (!has(method, TRACE) && !has(method, RETRY)) {
+                continue;
+            }
+            String methodReason = unsupportedMethod(method);
+            if (methodReason != null) {
+                note(method, methodReason);
+            } else {
+                methods.add(method);
+            }
+        }
+        if (methods.isEmpty()) {
+            return;
+        }
+
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+                .replace('$', '_') + SUFFIX;
+        String decoratorName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        if (decorators.containsKey(binaryName)) {
+            return;
+        }
+
+        String source = source(type, packageName, simpleName, methods);
+        Filer filer = processingEnv.getFiler();
+        try (Writer writer = filer.createSourceFile(decoratorName, type).openWriter()) {
+            writer.write(source);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "decorator generation failed: " + e.getMessage(), type);
+            return;
+        }
+        decorators.put(binaryName, decoratorName);
+    }
+
+    private String source(TypeElement type, String packageName, String simpleName, List<ExecutableElement> methods) {
+        String typeName = type.getQualifiedName().toString();
+        StringBuilder out = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        out.append("/**\n")
+                .append(" * ").append(type.getSimpleName())
+                .append(" 의 @Trace/@Retry 를 프록시 없이 실행하는 데코레이터 (DecoratorProcessor 가 생성)\n")
+                .append(" */\n")
+                .append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n")
+                .append(type.getModifiers().contains(Modifier.PUBLIC) ? "public " : "")
+                .append("class ").append(simpleName).append(" extends ").append(typeName).append(" {\n");
+
+        List<String> fields = new ArrayList<>();
+        for (int i = 0; i < methods.size(); i++) {
+            ExecutableElement method = methods.get(i);
+            String field = method.getSimpleName().toString().toUpperCase(Locale.ROOT) + "_" + i;
+            fields.add(field);
+            StringJoiner parameterTypes = new StringJoiner(", ");
+            for (VariableElement parameter : method.getParameters()) {
+                parameterTypes.add(processingEnv.getTypeUtils().erasure(parameter.asType()) + ".class");
+            }
+            out.append("    private static final ").append(DECORATED_METHOD).append(' ').append(field)
+                    .append(" = ").append(DECORATED_METHOD).append(".of(").append(typeName).append(".class, \"")
+                    .append(method.getSimpleName()).append('"');
+            if (parameterTypes.length() > 0) {
+                out.append(", ").append(parameterTypes);
+            }
+            out.append(");\n");
+        }
+        out.append('\n');
+
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                continue;
+            }
+            annotations(out, "    ", constructor, false);
+            out.append("    ").append(visibility(constructor)).append(simpleName)
+                    .append('(').append(parameters(constructor)).append(')').append(throwsClause(constructor))
+                    .append(" {\n")
+                    .append("        super(").append(arguments(constructor)).append(");\n")
+                    .append("    }\n\n");
+        }
+
+        for (int i = 0; i < methods.size(); i++) {
+            method(out, methods.get(i), fields.get(i));
+        }
+        out.append("}\n");
+        return out.toString();
+    }
+
+    /**
+     * 재시도가 바깥, trace 가 시도마다 안쪽 (RetryAspect 가 TraceAspect 보다 바깥인 것과 같음)
+     */
+    private void method(StringBuilder out, ExecutableElement method, String field) {
+        boolean trace = has(method, TRACE);
+        boolean retry = has(method, RETRY);
+        String call = "super." + method.getSimpleName() + "(" + arguments(method) + ")";
+
+        annotations(out, "    ", method, true);
+        out.append("    @java.lang.Override\n")
+                .append("    ").append(visibility(method)).append(method.getReturnType()).append(' ')
+                .append(method.getSimpleName()).append('(').append(parameters(method)).append(')')
+                .append(throwsClause(method)).append(" {\n");
+        if (retry) {
+            out.append("        ").append(field).append(".retryBegin();\n")
+                    .append("        ").append(DEADLINE).append(" deadline$ = ").append(DEADLINE).append(".current();\n")
+                    .append("        long delay$ = 0;\n")
+                    .append("        for (int count$ = 1; ; count$++) {\n")
+                    .append("            long attempt$ = ").append(field).append(".attemptEnter(count$);\n")
+                    .append("            long start$ = System.nanoTime();\n")
+                    .append("            try {\n");
+            body(out, "                ", method, field, trace, call, field + ".attemptSuccess(attempt$);");
+            out.append("            } catch (java.lang.Throwable e$) {\n")
+                    .append("                delay$ = ").append(field)
+                    .append(".attemptFailure(attempt$, e$, count$, delay$, deadline$, start$);\n")
+                    .append("            }\n")
+                    .append("        }\n");
+        } else {
+            body(out, "        ", method, field, trace, call, null);
+        }
+        out.append("    }\n\n");
+    }
+
+    //super 호출 (trace 면 span 으로 감싼다) -> after -> return
+    private void body(StringBuilder out, String indent, ExecutableElement method, String field,
+                      boolean trace, String call, String after) {
+        boolean isVoid = method.getReturnType().getKind() == TypeKind.VOID;
+        if (trace) {
+            out.append(indent).append("long span$ = ").append(field).append(".traceEnter();\n");
+            if (!isVoid) {
+                out.append(indent).append(method.getReturnType()).append(" result$;\n");
+            }
+            out.append(indent).append("try {\n")
+                    .append(indent).append("    ").append(isVoid ? "" : "result$ = ").append(call).append(";\n")
+                    .append(indent).append("} catch (java.lang.Throwable t$) {\n")
+                    .append(indent).append("    ").append(field).append(".traceExit(span$, t$);\n")
+                    .append(indent).append("    throw t$;\n")
+                    .append(indent).append("}\n")
+                    .append(indent).append(field).append(".traceExit(span$, null);\n");
+        } else if (isVoid) {
+            out.append(indent).append(call).append(";\n");
+        } else {
+            out.append(indent).append(method.getReturnType()).append(" result$ = ").append(call).append(";\n");
+        }
+        if (after != null) {
+            out.append(indent).append(after).append('\n');
+        }
+        out.append(indent).append(isVoid ? "return;" : "return result$;").append('\n');
+    }
+
+    private String unsupportedType(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS) {
+            return "not a class";
+        }
+        Set<Modifier> modifiers = type.getModifiers();
+        if (modifiers.contains(Modifier.FINAL) || modifiers.contains(Modifier.PRIVATE)
+                || modifiers.contains(Modifier.ABSTRACT)) {
+            return "final, private or abstract class";
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            return "generic class";
+        }
+        if (type.getNestingKind() != NestingKind.TOP_LEVEL
+                && (type.getNestingKind() != NestingKind.MEMBER || !modifiers.contains(Modifier.STATIC))) {
+            return "inner, local or anonymous class";
+        }
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (!constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return null;
+            }
+        }
+        return "no accessible constructor";
+    }
+
+    private String unsupportedMethod(ExecutableElement method) {
+        Set<Modifier> modifiers = method.getModifiers();
+        if (modifiers.contains(Modifier.FINAL) || modifiers.contains(Modifier.PRIVATE)
+                || modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.ABSTRACT)) {
+            return "final, private, static or abstract method";
+        }
+        if (!method.getTypeParameters().isEmpty()) {
+            return "generic method";
+        }
+        if (has(method, RETRY) && isAsync(method.getReturnType())) {
+            return "async @Retry is left to RetryAspect";
+        }
+        for (String inner : INNER_ADVICE) {
+            if (has(method, inner)) {
+                return "@" + inner.substring(inner.lastIndexOf('.') + 1) + " must run inside @Trace/@Retry, left to the proxy";
+            }
+        }
+        return null;
+    }
+
+    private boolean included(TypeElement type) {
+        String packages = processingEnv.getOptions().get(PACKAGES_OPTION);
+        if (packages == null || packages.isBlank()) {
+            return true;
+        }
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        for (String included : packages.split(",")) {
+            String prefix = included.trim();
+            if (packageName.equals(prefix) || packageName.startsWith(prefix + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isAsync(TypeMirror returnType) {
+        if (returnType.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        TypeElement completionStage = processingEnv.getElementUtils()
+                .getTypeElement("java.util.concurrent.CompletionStage");
+        return processingEnv.getTypeUtils().isAssignable(processingEnv.getTypeUtils().erasure(returnType),
+                processingEnv.getTypeUtils().erasure(completionStage.asType()));
+    }
+
+    //@Trace, @Retry, @Override 를 뺀 어노테이션 복사 (다른 어드바이스는 프록시로 계속 적용)
+    private void annotations(StringBuilder out, String indent, Element element, boolean skipDecorated) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            String name = annotationName(annotation);
+            if (name.equals(OVERRIDE) || (skipDecorated && (name.equals(TRACE) || name.equals(RETRY)))) {
+                continue;
+            }
+            out.append(indent).append(annotation).append('\n');
+        }
+    }
+
+    private String parameters(ExecutableElement executable) {
+        StringJoiner joiner = new StringJoiner(", ");
+        List<? extends VariableElement> parameters = executable.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            VariableElement parameter = parameters.get(i);
+            StringBuilder declaration = new StringBuilder();
+            for (AnnotationMirror annotation : parameter.getAnnotationMirrors()) {
+                declaration.append(annotation).append(' ');
+            }
+            TypeMirror type = parameter.asType();
+            if (executable.isVarArgs() && i == parameters.size() - 1 && type.getKind() == TypeKind.ARRAY) {
+                declaration.append(((ArrayType) type).getComponentType()).append("...");
+            } else {
+                declaration.append(type);
+            }
+            joiner.add(declaration.append(' ').append(parameter.getSimpleName()));
+        }
+        return joiner.toString();
+    }
+
+    private static String arguments(ExecutableElement executable) {
+        StringJoiner joiner = new StringJoiner(", ");
+        for (VariableElement parameter : executable.getParameters()) {
+            joiner.add(parameter.getSimpleName());
+        }
+        return joiner.toString();
+    }
+
+    private static String throwsClause(ExecutableElement executable) {
+        if (executable.getThrownTypes().isEmpty()) {
+            return "";
+        }
+        StringJoiner joiner = new StringJoiner(", ", " throws ", "");
+        for (TypeMirror thrownType : executable.getThrownTypes()) {
+            joiner.add(thrownType.toString());
+        }
+        return joiner.toString();
+    }
+
+    private static String visibility(Element element) {
+        if (element.getModifiers().contains(Modifier.PUBLIC)) {
+            return "public ";
+        }
+        if (element.getModifiers().contains(Modifier.PROTECTED)) {
+            return "protected ";
+        }
+        return "";
+    }
+
+    private static boolean has(Element element, String annotationName) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (annotationName(annotation).equals(annotationName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String annotationName(AnnotationMirror annotation) {
+        return ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+    }
+
+    private void note(Element element, String reason) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "[decorator] skipped: " + reason, element);
+    }
+
+    private void writeIndex() {
+        if (decorators.isEmpty()) {
+            return;
+        }
+        try {
+            FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX);
+            try (Writer writer = index.openWriter()) {
+                for (Map.Entry<String, String> entry : decorators.entrySet()) {
+                    writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "decorator index generation failed: " + e.getMessage());
+        }
+    }
+}
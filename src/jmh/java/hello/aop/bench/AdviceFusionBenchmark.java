@@ -0,0 +1,41 @@
+package hello.aop.bench;
+
+import hello.aop.fusion.AdviceFusion;
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.AspectV6Advice;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.framework.Advised;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AspectV6Advice(같은 포인트컷에 어드바이스 5개) OrderService.orderItem 호출 1번 비용
+ * spring: 어드바이스마다 인터셉터, fused: AdviceFusion 으로 합친 인터셉터 하나
+ * 대상 메서드까지의 호출 깊이 비교는 AdviceFusionTest.fusedCallIsShallower
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AdviceFusionBenchmark {
+
+    @Param({"spring", "fused"})
+    String chain;
+
+    OrderService orderService;
+
+    @Setup
+    public void setUp() {
+        orderService = AopBenchmarks.proxy(new OrderService(new OrderRepository()), AspectV6Advice.class);
+        if (chain.equals("fused")) {
+            AdviceFusion.fuse((Advised) orderService);
+        }
+    }
+
+    @Benchmark
+    public void orderItem() {
+        orderService.orderItem("itemA");
+    }
+}
@@ -0,0 +1,55 @@
+package hello.aop.bench;
+
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderService.orderItem 호출 1번 비용 비교
+ * none: 프록시 없음, 나머지: AopTest 의 @Import 와 같은 조합
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AdviceOverheadBenchmark {
+
+    @Param({"none", "V1", "V2", "V3", "V4Pointcut", "V5Order", "V6Advice"})
+    String aspect;
+
+    OrderService orderService;
+
+    @Setup
+    public void setUp() {
+        orderService = AopBenchmarks.orderService(aspects(aspect));
+    }
+
+    @Benchmark
+    public void orderItem() {
+        orderService.orderItem("itemA");
+    }
+
+    static Class<?>[] aspects(String name) {
+        switch (name) {
+            case "none":
+                return new Class<?>[0];
+            case "V1":
+                return new Class<?>[]{AspectV1.class};
+            case "V2":
+                return new Class<?>[]{AspectV2.class};
+            case "V3":
+                return new Class<?>[]{AspectV3.class};
+            case "V4Pointcut":
+                return new Class<?>[]{AspectV4Pointcut.class};
+            case "V5Order":
+                return new Class<?>[]{AspectV5Order.LogAspect.class, AspectV5Order.TxAspect.class};
+            case "V6Advice":
+                return new Class<?>[]{AspectV6Advice.class};
+            default:
+                throw new IllegalArgumentException("unknown aspect=" + name);
+        }
+    }
+}
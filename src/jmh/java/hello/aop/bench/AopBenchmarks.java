@@ -0,0 +1,39 @@
+package hello.aop.bench;
+
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+/**
+ * 스프링 컨테이너 없이 @Aspect 프록시 생성
+ * 스프링처럼 적용할 어드바이저가 없으면 프록시를 만들지 않는다.
+ * aspects: @Aspect 클래스 또는 이미 만든 aspect 인스턴스
+ */
+public abstract class AopBenchmarks {
+
+    @SuppressWarnings("unchecked")
+    public static <T> T proxy(T target, Object... aspects) {
+        if (aspects.length == 0) {
+            return target;
+        }
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true); //스프링 부트 기본값 (CGLIB)
+        for (Object aspect : aspects) {
+            if (aspect instanceof Class) {
+                proxyFactory.addAspect((Class<?>) aspect);
+            } else {
+                proxyFactory.addAspect(aspect);
+            }
+        }
+        if (proxyFactory.getAdvisors().length == 0) {
+            return target;
+        }
+        return (T) proxyFactory.getProxy();
+    }
+
+    //OrderService -> OrderRepository 모두 같은 aspect 적용
+    public static OrderService orderService(Object... aspects) {
+        OrderRepository orderRepository = proxy(new OrderRepository(), aspects);
+        return proxy(new OrderService(orderRepository), aspects);
+    }
+}
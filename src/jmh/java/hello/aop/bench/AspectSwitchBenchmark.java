@@ -0,0 +1,50 @@
+package hello.aop.bench;
+
+import hello.aop.killswitch.AspectSwitchPostProcessor;
+import hello.aop.killswitch.AspectSwitchRegistry;
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.AspectV6Advice;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AspectV6Advice 를 스위치로 껐을 때 남는 비용 (OrderService.orderItem 호출 1번)
+ * none: 프록시 없음, spring: 스위치 없는 프록시, on/off: 스위치를 씌운 프록시
+ * off - none = 프록시 호출 + ExposeInvocationInterceptor + aspect 마다 volatile 읽기 1번 (어드바이스 5개여도 1번)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AspectSwitchBenchmark {
+
+    @Param({"none", "spring", "on", "off"})
+    String mode;
+
+    OrderService orderService;
+
+    @Setup
+    public void setUp() {
+        OrderRepository orderRepository = new OrderRepository();
+        if (mode.equals("none")) {
+            orderService = new OrderService(orderRepository);
+            return;
+        }
+        OrderService proxy = AopBenchmarks.proxy(new OrderService(orderRepository), AspectV6Advice.class);
+        if (mode.equals("spring")) {
+            orderService = proxy;
+            return;
+        }
+        AspectSwitchRegistry registry = new AspectSwitchRegistry(mode.equals("off") ? List.of("AspectV6Advice") : List.of());
+        orderService = (OrderService) new AspectSwitchPostProcessor(registry).postProcessAfterInitialization(proxy, "orderService");
+    }
+
+    @Benchmark
+    public void orderItem() {
+        orderService.orderItem("itemA");
+    }
+}
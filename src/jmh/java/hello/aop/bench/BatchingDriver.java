@@ -0,0 +1,129 @@
+package hello.aop.bench;
+
+import hello.aop.batch.annotation.Batched;
+import hello.aop.batch.aop.BatchPolicy;
+import hello.aop.batch.aop.BatchedAspect;
+import hello.aop.metrics.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @Batched 설정별 처리량과 추가 지연 측정 (JMH 아님, 부하 드라이버)
+ * 저장소 호출 1번 = 고정 비용(driver.call-micros) + 건당 비용(driver.item-micros) 으로 흉내낸다.
+ * 배치가 클수록 고정 비용을 나눠 내서 처리량은 늘고, 배치가 찰 때까지 기다리는 만큼 지연이 늘어난다.
+ *
+ * ./gradlew batchDriver -Pdriver.threads=64 -Pdriver.seconds=5
+ */
+public class BatchingDriver {
+    private static final long CALL_NANOS = TimeUnit.MICROSECONDS.toNanos(Long.getLong("driver.call-micros", 500));
+    private static final long ITEM_NANOS = TimeUnit.MICROSECONDS.toNanos(Long.getLong("driver.item-micros", 5));
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = Integer.getInteger("driver.threads", 64);
+        long seconds = Long.getLong("driver.seconds", 5);
+
+        System.out.printf("threads=%d seconds=%d call=%dus item=%dus%n", threads, seconds,
+                TimeUnit.NANOSECONDS.toMicros(CALL_NANOS), TimeUnit.NANOSECONDS.toMicros(ITEM_NANOS));
+        System.out.printf("%-16s %12s %10s %10s %10s %10s%n",
+                "batch", "calls/s", "avgSize", "p50(ms)", "p99(ms)", "p999(ms)");
+        run("none", null, SlowRepository::save, threads, seconds);
+        run("size=1", new BatchedAspect(), SlowRepository::save1, threads, seconds);
+        run("size=8,wait=1", new BatchedAspect(), SlowRepository::save8, threads, seconds);
+        run("size=32,wait=1", new BatchedAspect(), SlowRepository::save32, threads, seconds);
+        run("size=32,wait=5", new BatchedAspect(), SlowRepository::save32Wait5, threads, seconds);
+        run("size=128,wait=5", new BatchedAspect(), SlowRepository::save128, threads, seconds);
+    }
+
+    private interface Save {
+        String save(SlowRepository repository, String itemId);
+    }
+
+    private static void run(String name, BatchedAspect aspect, Save save, int threads, long seconds)
+            throws InterruptedException {
+        SlowRepository repository = aspect == null ? new SlowRepository() : AopBenchmarks.proxy(new SlowRepository(), aspect);
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        LongAdder calls = new LongAdder();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    save.save(repository, "item");
+                    histogram.record(System.nanoTime() - start);
+                    calls.increment();
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(seconds + 60, TimeUnit.SECONDS);
+
+        double averageSize = 1;
+        if (aspect != null) {
+            for (BatchPolicy policy : aspect.getPolicies()) {
+                averageSize = policy.getAverageBatchSize();
+            }
+        }
+        LatencyHistogram.Snapshot latency = histogram.snapshot();
+        System.out.printf("%-16s %12.1f %10.1f %10.3f %10.3f %10.3f%n",
+                name,
+                calls.sum() / (double) seconds,
+                averageSize,
+                latency.valueAt(0.5) / 1e6,
+                latency.valueAt(0.99) / 1e6,
+                latency.valueAt(0.999) / 1e6);
+    }
+
+    public static class SlowRepository {
+        public String save(String itemId) {
+            work(1);
+            return "ok";
+        }
+
+        @Batched(maxSize = 1)
+        public String save1(String itemId) {
+            return save(itemId);
+        }
+
+        @Batched(maxSize = 8, maxWaitMillis = 1)
+        public String save8(String itemId) {
+            return save(itemId);
+        }
+
+        @Batched(maxSize = 32, maxWaitMillis = 1)
+        public String save32(String itemId) {
+            return save(itemId);
+        }
+
+        @Batched(maxSize = 32, maxWaitMillis = 5)
+        public String save32Wait5(String itemId) {
+            return save(itemId);
+        }
+
+        @Batched(maxSize = 128, maxWaitMillis = 5)
+        public String save128(String itemId) {
+            return save(itemId);
+        }
+
+        public List<String> saveAll(List<String> itemIds) {
+            work(itemIds.size());
+            List<String> results = new ArrayList<>(itemIds.size());
+            for (int i = 0; i < itemIds.size(); i++) {
+                results.add("ok");
+            }
+            return results;
+        }
+
+        private static void work(int items) {
+            LockSupport.parkNanos(CALL_NANOS + ITEM_NANOS * items);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package hello.aop.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 쓰레드 수를 1, 2, 4 ... N 으로 늘려가며 벤치마크 실행
+ * 마지막에 ns/op, B/op(gc.alloc.rate.norm) 요약 출력
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = System.getProperty("jmh.include", ".*");
+        int maxThreads = Integer.getInteger("jmh.threads", Runtime.getRuntime().availableProcessors());
+        int forks = Integer.getInteger("jmh.forks", 1);
+
+        List<RunResult> results = new ArrayList<>();
+        for (int threads : threadCounts(maxThreads)) {
+            Options options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .forks(forks)
+                    .addProfiler(GCProfiler.class)
+                    .build();
+            Collection<RunResult> run = new Runner(options).run();
+            results.addAll(run);
+        }
+        printSummary(results);
+    }
+
+    static List<Integer> threadCounts(int maxThreads) {
+        List<Integer> counts = new ArrayList<>();
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            counts.add(threads);
+        }
+        counts.add(Math.max(1, maxThreads));
+        return counts;
+    }
+
+    private static void printSummary(List<RunResult> results) {
+        System.out.printf("%n%-60s %-30s %8s %14s %12s%n", "Benchmark", "Params", "Threads", "ns/op", "B/op");
+        for (RunResult result : results) {
+            String benchmark = result.getParams().getBenchmark();
+            StringBuilder params = new StringBuilder();
+            for (String key : result.getParams().getParamsKeys()) {
+                params.append(key).append('=').append(result.getParams().getParam(key)).append(' ');
+            }
+            System.out.printf("%-60s %-30s %8d %14.2f %12.1f%n",
+                    benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1),
+                    params.toString().trim(),
+                    result.getParams().getThreads(),
+                    result.getPrimaryResult().getScore(),
+                    allocatedBytesPerOp(result));
+        }
+    }
+
+    //JMH 버전에 따라 "·gc.alloc.rate.norm" / "gc.alloc.rate.norm"
+    private static double allocatedBytesPerOp(RunResult result) {
+        for (Map.Entry<String, Result> entry : result.getSecondaryResults().entrySet()) {
+            if (entry.getKey().endsWith("gc.alloc.rate.norm")) {
+                return entry.getValue().getScore();
+            }
+        }
+        return Double.NaN;
+    }
+}
@@ -0,0 +1,81 @@
+package hello.aop.bench;
+
+import hello.aop.exam.ExamRepository;
+import hello.aop.exam.aop.RetryAspect;
+import hello.aop.fault.aop.FaultInjectionAspect;
+import hello.aop.fault.aop.FaultPolicy;
+import hello.aop.metrics.LatencyHistogram;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 장애 비율에 따른 @Retry 증폭 측정 (JMH 아님, 부하 드라이버)
+ * ExamRepository.save 를 여러 쓰레드에서 계속 호출하고 실패 확률을 바꿔가며
+ * 처리량, 재시도 수(실제 호출 / 요청), 꼬리 지연을 출력한다.
+ *
+ * ./gradlew faultDriver -Pdriver.threads=8 -Pdriver.seconds=5
+ */
+public class FaultInjectionDriver {
+    private static final double[] FAILURE_RATES = {0, 0.01, 0.05, 0.1, 0.2, 0.4, 0.8};
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = Integer.getInteger("driver.threads", 8);
+        long seconds = Long.getLong("driver.seconds", 5);
+
+        System.out.printf("threads=%d seconds=%d%n", threads, seconds);
+        System.out.printf("%8s %12s %10s %10s %8s %10s %10s %10s%n",
+                "fault", "calls/s", "retries", "amplify", "errors", "p50(ms)", "p99(ms)", "p999(ms)");
+        for (double failureRate : FAILURE_RATES) {
+            run(failureRate, threads, seconds);
+        }
+    }
+
+    private static void run(double failureRate, int threads, long seconds) throws InterruptedException {
+        //장애 비율마다 새로 만들어서 재시도 예산, 서킷 상태를 초기화
+        FaultInjectionAspect faultAspect = new FaultInjectionAspect();
+        faultAspect.setFailureRateOverride(failureRate);
+        ExamRepository examRepository = AopBenchmarks.proxy(new ExamRepository(), new RetryAspect(), faultAspect);
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        LongAdder calls = new LongAdder();
+        LongAdder errors = new LongAdder();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        examRepository.save("item");
+                    } catch (RuntimeException e) {
+                        errors.increment();
+                    }
+                    histogram.record(System.nanoTime() - start);
+                    calls.increment();
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(seconds + 60, TimeUnit.SECONDS);
+
+        long attempts = 0;
+        for (FaultPolicy policy : faultAspect.getPolicies()) {
+            attempts += policy.getCalls();
+        }
+        long total = calls.sum();
+        LatencyHistogram.Snapshot latency = histogram.snapshot();
+        System.out.printf("%8.2f %12.1f %10d %10.2f %8d %10.3f %10.3f %10.3f%n",
+                failureRate,
+                total / (double) seconds,
+                attempts - total,
+                total == 0 ? 0 : attempts / (double) total,
+                errors.sum(),
+                latency.valueAt(0.5) / 1e6,
+                latency.valueAt(0.99) / 1e6,
+                latency.valueAt(0.999) / 1e6);
+    }
+}
@@ -0,0 +1,53 @@
+package hello.aop.bench;
+
+import hello.aop.hiddenproxy.HiddenClassAopProxyFactory;
+import hello.aop.member.MemberService;
+import hello.aop.member.MemberServiceImpl;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MemberService.hello 호출 1번 비용: 프록시 엔진별, 어드바이스 개수별
+ * jdk: JDK 동적 프록시, cglib: CGLIB
+ * mhTargetInterface/mhTargetClass: HiddenClassAopProxy, MethodHandle 대상 호출 프록시 (인터페이스/클래스 기반)
+ * - advices=0: 어드바이스 없는 메서드 경로, 프록시 -> 대상 호출이 MethodHandle 하나 (JDK/CGLIB 의 리플렉션/MethodProxy 와 비교)
+ * - advices>0: 체인은 CGLIB 과 같은 ReflectiveMethodInvocation 진행, 마지막 대상 호출만 MethodHandle
+ *   (체인을 MethodHandle 로 묶은 결과가 아니다. 차이는 대상 호출 한 번 비용)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ProxyDispatchBenchmark {
+
+    @Param({"jdk", "cglib", "mhTargetInterface", "mhTargetClass"})
+    String engine;
+
+    @Param({"0", "1", "3"})
+    int advices;
+
+    MemberService memberService;
+
+    @Setup
+    public void setUp() {
+        ProxyFactory proxyFactory = new ProxyFactory(new MemberServiceImpl());
+        proxyFactory.setProxyTargetClass(engine.equals("cglib") || engine.equals("mhTargetClass"));
+        if (engine.startsWith("mhTarget")) {
+            proxyFactory.setAopProxyFactory(new HiddenClassAopProxyFactory());
+        }
+        for (int i = 0; i < advices; i++) {
+            proxyFactory.addAdvice((MethodInterceptor) invocation -> invocation.proceed());
+        }
+        proxyFactory.setFrozen(true);
+        memberService = (MemberService) proxyFactory.getProxy();
+    }
+
+    @Benchmark
+    public String hello() {
+        return memberService.hello("hello");
+    }
+}
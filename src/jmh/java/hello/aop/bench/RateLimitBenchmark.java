@@ -0,0 +1,78 @@
+package hello.aop.bench;
+
+import hello.aop.ratelimit.annotation.RateLimit;
+import hello.aop.ratelimit.aop.RateLimitAspect;
+import hello.aop.ratelimit.aop.RateLimitExceededException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @RateLimit 호출 1번 비용, 쓰레드 수에 따른 확장성 (1 ~ 32 쓰레드)
+ * - method: 메서드 전체 버킷, 제한에 걸리지 않는 속도 (stripe CAS 경쟁)
+ * - perKey: 쓰레드마다 다른 키
+ * - rejected: 항상 제한에 걸리는 속도 (쓰기 없이 거절)
+ *
+ * ./gradlew jmh -Pjmh.include=RateLimit -Pjmh.threads=32
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RateLimitBenchmark {
+
+    @Param({"method", "perKey", "rejected"})
+    String limit;
+
+    LimitedTarget target;
+
+    @State(Scope.Thread)
+    public static class ThreadKey {
+        String key;
+
+        @Setup
+        public void setUp(ThreadParams threadParams) {
+            key = "key-" + threadParams.getThreadIndex();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        target = AopBenchmarks.proxy(new LimitedTarget(), new RateLimitAspect());
+    }
+
+    @Benchmark
+    public String call(ThreadKey threadKey) {
+        switch (limit) {
+            case "method":
+                return target.method(threadKey.key);
+            case "perKey":
+                return target.perKey(threadKey.key);
+            default:
+                try {
+                    return target.rejected(threadKey.key);
+                } catch (RateLimitExceededException e) {
+                    return null;
+                }
+        }
+    }
+
+    public static class LimitedTarget {
+        @RateLimit(permitsPerSecond = 1e12, burst = 1024)
+        public String method(String key) {
+            return key;
+        }
+
+        @RateLimit(permitsPerSecond = 1e12, burst = 1024, perKey = true)
+        public String perKey(String key) {
+            return key;
+        }
+
+        @RateLimit(permitsPerSecond = 1)
+        public String rejected(String key) {
+            return key;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package hello.aop.bench;
+
+import hello.aop.internalcall.CallServiceV1;
+import hello.aop.internalcall.CallServiceV2;
+import hello.aop.internalcall.CallServiceV4;
+import hello.aop.internalcall.aop.CallLogAspect;
+import hello.aop.selfproxy.SelfProxyPostProcessor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 내부 호출에 프록시 적용하는 방법별 external() 호출 1번 비용
+ * setter: CallServiceV1 (순환 참조 허용 필요), objectProvider: CallServiceV2 (호출마다 빈 조회), selfProxy: CallServiceV4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SelfProxyBenchmark {
+
+    AnnotationConfigApplicationContext context;
+    CallServiceV1 callServiceV1;
+    CallServiceV2 callServiceV2;
+    CallServiceV4 callServiceV4;
+
+    @Setup
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(AopConfig.class, CallLogAspect.class,
+                SelfProxyPostProcessor.class, CallServiceV1.class, CallServiceV2.class, CallServiceV4.class);
+        callServiceV1 = context.getBean(CallServiceV1.class);
+        callServiceV2 = context.getBean(CallServiceV2.class);
+        callServiceV4 = context.getBean(CallServiceV4.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void setter() {
+        callServiceV1.external();
+    }
+
+    @Benchmark
+    public void objectProvider() {
+        callServiceV2.external();
+    }
+
+    @Benchmark
+    public void selfProxy() {
+        callServiceV4.external();
+    }
+
+    @EnableAspectJAutoProxy(proxyTargetClass = true)
+    static class AopConfig {
+    }
+}
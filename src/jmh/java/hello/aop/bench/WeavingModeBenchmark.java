@@ -0,0 +1,69 @@
+package hello.aop.bench;
+
+import hello.aop.exam.ExamRepository;
+import hello.aop.exam.aop.RetryAspect;
+import hello.aop.exam.aop.TraceAspect;
+import hello.aop.internalcall.CallServiceV0;
+import hello.aop.internalcall.aop.CallLogAspect;
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.*;
+import org.aspectj.lang.Aspects;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 같은 aspect 조합(config/aop-ajc.xml)의 호출 1번 비용: 스프링 프록시 vs 컴파일 타임 위빙
+ * ./gradlew jmh -Pjmh.include=WeavingMode                 -> proxy
+ * ./gradlew jmh -Pjmh.include=WeavingMode -Paop.mode=ajc  -> ajc
+ *
+ * ajc 모드는 클래스에 이미 위빙되어 있으므로 프록시 없이 new 로 만든다.
+ * callExternal: 프록시 모드는 내부 호출(internal)에 어드바이스가 적용되지 않는다. (ajc 는 적용)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class WeavingModeBenchmark {
+
+    OrderService orderService;
+    ExamRepository examRepository;
+    CallServiceV0 callService;
+
+    @Setup
+    public void setUp() {
+        if (isWoven()) {
+            orderService = new OrderService(new OrderRepository());
+            examRepository = new ExamRepository();
+            callService = new CallServiceV0();
+        } else {
+            orderService = AopBenchmarks.orderService(AspectV1.class, AspectV2.class, AspectV3.class,
+                    AspectV4Pointcut.class, AspectV5Order.LogAspect.class, AspectV5Order.TxAspect.class,
+                    AspectV6Advice.class);
+            examRepository = AopBenchmarks.proxy(new ExamRepository(), new RetryAspect(), new TraceAspect());
+            callService = AopBenchmarks.proxy(new CallServiceV0(), CallLogAspect.class);
+        }
+    }
+
+    @Benchmark
+    public void orderItem() {
+        orderService.orderItem("itemA");
+    }
+
+    @Benchmark
+    public String examSave() {
+        return examRepository.save("itemA");
+    }
+
+    @Benchmark
+    public void callExternal() {
+        callService.external();
+    }
+
+    //ajc 로 위빙된 aspect 는 aspectOf() 를 가진다.
+    static boolean isWoven() {
+        return Aspects.hasAspect(AspectV1.class);
+    }
+}
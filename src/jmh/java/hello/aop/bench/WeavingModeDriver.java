@@ -0,0 +1,83 @@
+package hello.aop.bench;
+
+import hello.aop.AopApplication;
+import hello.aop.exam.ExamRepository;
+import hello.aop.exam.aop.RetryAspect;
+import hello.aop.exam.aop.TraceAspect;
+import hello.aop.internalcall.CallServiceV0;
+import hello.aop.internalcall.aop.CallLogAspect;
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.*;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+/**
+ * aop.mode 별 스프링 시작 시간과 호출 1번 지연 측정 (JMH 아님)
+ * 같은 aspect 조합(config/aop-ajc.xml)을 프록시 모드는 빈으로 등록하고, 위빙 모드는 클래스에 위빙한다.
+ * - startup: SpringApplication.run 시간, jvmUptime: 에이전트(premain) 포함 JVM 시작부터
+ * - callExternal: 프록시 모드는 내부 호출(internal)에 어드바이스가 적용되지 않는다.
+ *
+ * ./gradlew weavingDriver
+ * ./gradlew weavingDriver -Paop.mode=ltw
+ * ./gradlew weavingDriver -Paop.mode=ajc
+ */
+public class WeavingModeDriver {
+    static volatile int sink; //호출 결과를 버리지 않도록 (JIT 제거 방지)
+
+    public static void main(String[] args) {
+        String mode = System.getProperty("aop.mode", "proxy");
+        int calls = Integer.getInteger("driver.calls", 1_000_000);
+
+        SpringApplication application = "proxy".equals(mode)
+                ? new SpringApplication(AopApplication.class, ProxyAspects.class)
+                : new SpringApplication(AopApplication.class);
+        long start = System.nanoTime();
+        try (ConfigurableApplicationContext context = application.run()) {
+            long startupMillis = (System.nanoTime() - start) / 1_000_000;
+            long uptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+
+            OrderService orderService = context.getBean(OrderService.class);
+            ExamRepository examRepository = context.getBean(ExamRepository.class);
+            CallServiceV0 callService = context.getBean(CallServiceV0.class);
+
+            System.out.printf("mode=%s proxy=%s startup=%dms jvmUptime=%dms calls=%d%n",
+                    mode, AopUtils.isAopProxy(callService), startupMillis, uptimeMillis, calls);
+            System.out.printf("%-14s %10s%n", "call", "ns/op");
+            measure("orderItem", calls, () -> {
+                orderService.orderItem("itemA");
+                return null;
+            });
+            measure("examSave", calls, () -> examRepository.save("itemA"));
+            measure("callExternal", calls, () -> {
+                callService.external();
+                return null;
+            });
+        }
+    }
+
+    private static void measure(String name, int calls, Supplier<Object> call) {
+        int hash = 0;
+        for (int i = 0; i < calls; i++) { //워밍업 (JIT)
+            hash += System.identityHashCode(call.get());
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            hash += System.identityHashCode(call.get());
+        }
+        long elapsed = System.nanoTime() - start;
+        sink = hash;
+        System.out.printf("%-14s %10.1f%n", name, elapsed / (double) calls);
+    }
+
+    //프록시 모드: 위빙 모드와 같은 aspect 를 빈으로 등록 (AjcPrecedence 대신 @Order)
+    @Import({AspectV1.class, AspectV2.class, AspectV3.class, AspectV4Pointcut.class,
+            AspectV5Order.LogAspect.class, AspectV5Order.TxAspect.class, AspectV6Advice.class,
+            TraceAspect.class, RetryAspect.class, CallLogAspect.class})
+    static class ProxyAspects {
+    }
+}
@@ -0,0 +1,36 @@
+package hello.aop.batch.annotation;
+
+import hello.aop.bulkhead.aop.BulkheadFullException;
+import hello.aop.exam.aop.CircuitBreakerOpenException;
+import hello.aop.ratelimit.aop.RateLimitExceededException;
+import hello.aop.timeout.aop.CallTimeoutException;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 동시에 들어온 단건 호출을 모아서 같은 빈의 batchMethod(List) 로 한 번에 처리
+ * - 인자가 1개인 메서드에만 사용
+ * - batchMethod 는 인자 목록과 같은 순서, 같은 크기의 결과 List 를 반환해야 한다.
+ * - batchMethod 가 예외를 던지면 단건 메서드로 하나씩 다시 호출한다.
+ *   전부 반영하거나 하나도 반영하지 않아야 하고, 일부만 반영했으면 PartialBatchException 으로 실패한 항목을 알려준다.
+ * - maxSize 만큼 모이거나 첫 호출 후 maxWaitMillis 가 지나면 처리
+ * - noFallbackFor 예외(거절, 과부하)는 다시 호출하지 않고 기다리는 호출자 모두에게 그대로 전달한다.
+ *   (하나씩 다시 호출하면 bulkhead 등을 우회해서 부하가 배치 크기만큼 늘어난다.)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Batched {
+    String batchMethod() default "saveAll";
+
+    int maxSize() default 32;
+
+    long maxWaitMillis() default 5;
+
+    //batchMethod 가 이 예외를 던지면 하나씩 다시 호출하지 않는다.
+    Class<? extends Throwable>[] noFallbackFor() default {BulkheadFullException.class, RateLimitExceededException.class,
+            CircuitBreakerOpenException.class, CallTimeoutException.class, RejectedExecutionException.class};
+}
@@ -0,0 +1,81 @@
+package hello.aop.batch.aop;
+
+import hello.aop.batch.annotation.Batched;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Batched 메서드 하나의 설정 (처음 호출할 때 한 번 만든다)
+ * 같은 클래스의 빈이 여러 개면 빈마다 Batcher 를 따로 둔다.
+ */
+@Getter
+public class BatchPolicy {
+    private final String name;
+    private final Method method;
+    private final Method batchMethod;
+    private final int maxSize;
+    private final long maxWaitNanos;
+    @Getter(AccessLevel.NONE)
+    private final Class<? extends Throwable>[] noFallbackFor;
+    @Getter(AccessLevel.NONE)
+    private final Map<Object, Batcher> batchers = new ConcurrentHashMap<>();
+
+    BatchPolicy(String name, Method method, Method batchMethod, Batched batched) {
+        if (batched.maxSize() < 1 || batched.maxWaitMillis() < 0) {
+            throw new IllegalArgumentException("invalid @Batched " + name + " maxSize=" + batched.maxSize()
+                    + " maxWaitMillis=" + batched.maxWaitMillis());
+        }
+        this.name = name;
+        this.method = method;
+        this.batchMethod = batchMethod;
+        this.maxSize = batched.maxSize();
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(batched.maxWaitMillis());
+        this.noFallbackFor = batched.noFallbackFor();
+    }
+
+    //거절, 과부하, Error: 하나씩 다시 호출하지 않는다.
+    boolean isFallback(Throwable ex) {
+        if (ex instanceof Error) {
+            return false;
+        }
+        for (Class<? extends Throwable> type : noFallbackFor) {
+            if (type.isInstance(ex)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    Batcher batcher(Object proxy, Object target, ScheduledExecutorService scheduler, Executor executor) {
+        Batcher batcher = batchers.get(target);
+        if (batcher == null) {
+            batcher = batchers.computeIfAbsent(target, key -> new Batcher(this, proxy, target, scheduler, executor));
+        }
+        return batcher;
+    }
+
+    public long getBatches() {
+        return batchers.values().stream().mapToLong(Batcher::getBatches).sum();
+    }
+
+    public long getItems() {
+        return batchers.values().stream().mapToLong(Batcher::getItems).sum();
+    }
+
+    //batchMethod 실패 후 하나씩 다시 호출한 횟수
+    public long getFallbacks() {
+        return batchers.values().stream().mapToLong(Batcher::getFallbacks).sum();
+    }
+
+    public double getAverageBatchSize() {
+        long batches = getBatches();
+        return batches == 0 ? 0 : getItems() / (double) batches;
+    }
+}
@@ -0,0 +1,107 @@
+package hello.aop.batch.aop;
+
+import hello.aop.batch.annotation.Batched;
+import hello.aop.exam.aop.RetryScheduler;
+import hello.aop.offload.aop.OffloadExecutors;
+import hello.aop.support.SpecificMethods;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * @Batched: 동시에 들어온 단건 호출을 모아서 batchMethod(List) 한 번으로 처리
+ * 호출자는 자기 결과가 나올 때까지 기다린다. (CompletionStage 반환 메서드는 바로 future 반환)
+ *
+ * 단건 메서드 본문(joinPoint.proceed())은 호출되지 않는다. (batchMethod 실패 시 하나씩 다시 호출할 때만)
+ * 가장 안쪽(LOWEST_PRECEDENCE)에서 실행되어 바깥 어드바이스는 호출자마다 그대로 실행된다.
+ * 하나씩 다시 호출할 때도 프록시로 호출해서 바깥 어드바이스(@Timeout, @Timed ...)가 적용되고, 이 aspect 는 배치로 모으지 않고 바로 진행한다.
+ * (같은 쓰레드에서 진행하는 어드바이스만, 다른 쓰레드로 넘기는 @Offload 와 함께 쓰지 않는다.)
+ *
+ * - 대기 타이머: RetryScheduler 공용 스케줄러
+ * - 타이머로 처리할 때 batchMethod 실행: OffloadExecutors 공용 실행기
+ */
+@Aspect
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class BatchedAspect {
+    static final ThreadLocal<Object> FALLBACK = new ThreadLocal<>(); //Batcher 가 하나씩 다시 호출하는 대상 객체
+
+    private final ScheduledExecutorService scheduler;
+    private final Executor executor;
+    private final ConcurrentMap<Method, BatchPolicy> policies = new ConcurrentHashMap<>();
+
+    public BatchedAspect() {
+        this(RetryScheduler.shared(), OffloadExecutors.shared());
+    }
+
+    public BatchedAspect(ScheduledExecutorService scheduler, Executor executor) {
+        this.scheduler = scheduler;
+        this.executor = executor;
+    }
+
+    @Around("@annotation(hello.aop.batch.annotation.Batched)")
+    public Object doBatch(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (FALLBACK.get() == joinPoint.getTarget()) {
+            return joinPoint.proceed();
+        }
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        //구현 메서드별 설정 (같은 인터페이스 메서드의 구현체끼리 나눠 쓰지 않는다.)
+        Method method = SpecificMethods.of(signature.getMethod(), joinPoint.getTarget());
+        BatchPolicy policy = policies.get(method);
+        if (policy == null) {
+            policy = policies.computeIfAbsent(method, key -> resolve(key, AopUtils.getTargetClass(joinPoint.getTarget())));
+        }
+
+        CompletableFuture<Object> future = policy.batcher(joinPoint.getThis(), joinPoint.getTarget(), scheduler, executor)
+                .submit(joinPoint.getArgs()[0]);
+        if (CompletionStage.class.isAssignableFrom(signature.getReturnType())) {
+            return future;
+        }
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); //배치는 계속 진행, 호출자만 빠져나간다.
+            throw e;
+        }
+    }
+
+    private static BatchPolicy resolve(Method specificMethod, Class<?> targetClass) {
+        Batched batched = AnnotatedElementUtils.findMergedAnnotation(specificMethod, Batched.class);
+        String name = targetClass.getSimpleName() + "." + specificMethod.getName();
+        if (batched == null) {
+            throw new IllegalStateException("@Batched not found: " + specificMethod);
+        }
+        if (specificMethod.getParameterCount() != 1) {
+            throw new IllegalStateException("@Batched method must have exactly one parameter: " + specificMethod);
+        }
+        Method batchMethod = ReflectionUtils.findMethod(targetClass, batched.batchMethod(), List.class);
+        if (batchMethod == null || !List.class.isAssignableFrom(batchMethod.getReturnType())) {
+            throw new IllegalStateException("@Batched " + name + " needs List " + batched.batchMethod() + "(List)");
+        }
+        ReflectionUtils.makeAccessible(batchMethod);
+        ReflectionUtils.makeAccessible(specificMethod);
+        return new BatchPolicy(name, specificMethod, batchMethod, batched);
+    }
+
+    public List<BatchPolicy> getPolicies() {
+        return new ArrayList<>(policies.values());
+    }
+}
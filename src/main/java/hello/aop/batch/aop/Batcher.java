@@ -0,0 +1,251 @@
+package hello.aop.batch.aop;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 빈 하나, 메서드 하나의 배치 모으기
+ * - lock 안에서는 목록에 추가만 한다. 처리는 lock 밖에서
+ * - maxSize 를 채운 호출자가 자기 쓰레드에서 바로 처리
+ * - 첫 호출이 maxWait 타이머를 예약하고, 타이머가 끝나면 executor 에서 처리
+ * - batchMethod 가 실패하면 단건 메서드로 하나씩 다시 호출해서 호출자마다 자기 결과/예외를 받는다.
+ *   (프록시로 호출해서 단건 메서드의 다른 어드바이스가 적용된다.)
+ *   (batchMethod 는 전부 반영하거나 하나도 반영하지 않아야 한다. 다시 호출해도 중복되지 않도록)
+ * - 일부만 실패해서 PartialBatchException 을 던지면 성공한 항목은 그 결과로, 실패한 항목만 다시 호출한다.
+ * - 거절/과부하(@Batched noFallbackFor) 예외는 다시 호출하지 않고 모든 호출자에게 같은 예외를 준다.
+ */
+@Slf4j
+class Batcher {
+    private final BatchPolicy policy;
+    private final Object target;
+    private final Call singleCall;
+    private final Call batchCall;
+    private final ScheduledExecutorService scheduler;
+    private final Executor executor;
+
+    private final Object lock = new Object();
+    private List<Entry> pending;
+    private ScheduledFuture<?> timer;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder items = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    Batcher(BatchPolicy policy, Object proxy, Object target, ScheduledExecutorService scheduler, Executor executor) {
+        this.policy = policy;
+        this.target = target;
+        this.singleCall = Call.of(policy.getMethod(), proxy, target);
+        this.batchCall = Call.of(policy.getBatchMethod(), proxy, target);
+        this.scheduler = scheduler;
+        this.executor = executor;
+        this.pending = new ArrayList<>(policy.getMaxSize());
+    }
+
+    CompletableFuture<Object> submit(Object item) {
+        Entry entry = new Entry(item);
+        List<Entry> full = null;
+        synchronized (lock) {
+            List<Entry> batch = pending;
+            batch.add(entry);
+            if (batch.size() >= policy.getMaxSize()) {
+                full = drain();
+            } else if (batch.size() == 1) {
+                timer = scheduler.schedule(() -> expire(batch), policy.getMaxWaitNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return entry.future;
+    }
+
+    //lock 안에서 호출
+    private List<Entry> drain() {
+        List<Entry> batch = pending;
+        pending = new ArrayList<>(policy.getMaxSize());
+        if (timer != null) {
+            timer.cancel(false);
+            timer = null;
+        }
+        return batch;
+    }
+
+    private void expire(List<Entry> batch) {
+        synchronized (lock) {
+            if (pending != batch) {
+                return; //이미 maxSize 로 처리된 배치
+            }
+            timer = null;
+            drain();
+        }
+        try {
+            executor.execute(() -> dispatch(batch));
+        } catch (RejectedExecutionException e) {
+            failAll(batch, e);
+        }
+    }
+
+    private void dispatch(List<Entry> batch) {
+        batches.increment();
+        items.add(batch.size());
+        List<Object> arguments = new ArrayList<>(batch.size());
+        for (Entry entry : batch) {
+            arguments.add(entry.item);
+        }
+
+        List<?> results;
+        try {
+            results = (List<?>) batchCall.invoke(arguments);
+        } catch (PartialBatchException e) {
+            partial(batch, e);
+            return;
+        } catch (Throwable e) {
+            if (!policy.isFallback(e)) {
+                log.warn("[batch] {} rejected size={} ex={}", policy.getName(), batch.size(), e.toString());
+                failAll(batch, e);
+                return;
+            }
+            log.warn("[batch] {} failed, retry one by one size={} ex={}", policy.getName(), batch.size(), e.toString());
+            fallback(batch);
+            return;
+        }
+        if (!checkSize(batch, results)) {
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).future.complete(results.get(i));
+        }
+    }
+
+    //성공한 항목은 이미 반영됐으므로 다시 호출하지 않는다.
+    private void partial(List<Entry> batch, PartialBatchException e) {
+        List<?> results = e.getResults();
+        if (!checkSize(batch, results)) {
+            return;
+        }
+        List<Entry> failed = new ArrayList<>(e.getFailed().size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (e.getFailed().contains(i)) {
+                failed.add(batch.get(i));
+            } else {
+                batch.get(i).future.complete(results.get(i));
+            }
+        }
+        log.warn("[batch] {} partially failed, retry failed items one by one size={}/{}",
+                policy.getName(), failed.size(), batch.size());
+        fallback(failed);
+    }
+
+    private boolean checkSize(List<Entry> batch, List<?> results) {
+        if (results != null && results.size() == batch.size()) {
+            return true;
+        }
+        failAll(batch, new IllegalStateException(policy.getName() + " batch result size mismatch: expected="
+                + batch.size() + " actual=" + (results == null ? null : results.size())));
+        return false;
+    }
+
+    private static void failAll(List<Entry> batch, Throwable e) {
+        for (Entry entry : batch) {
+            entry.future.completeExceptionally(e);
+        }
+    }
+
+    private void fallback(List<Entry> batch) {
+        fallbacks.increment();
+        for (Entry entry : batch) {
+            try {
+                Object result = invokeSingle(entry.item);
+                if (result instanceof CompletionStage) {
+                    ((CompletionStage<?>) result).whenComplete((value, ex) -> {
+                        if (ex != null) {
+                            entry.future.completeExceptionally(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+                        } else {
+                            entry.future.complete(value);
+                        }
+                    });
+                } else {
+                    entry.future.complete(result);
+                }
+            } catch (Throwable e) {
+                entry.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    //BatchedAspect 는 이 대상 객체의 호출을 배치로 모으지 않고 단건 메서드를 바로 진행
+    private Object invokeSingle(Object item) throws Throwable {
+        BatchedAspect.FALLBACK.set(target);
+        try {
+            return singleCall.invoke(item);
+        } finally {
+            BatchedAspect.FALLBACK.remove();
+        }
+    }
+
+    long getBatches() {
+        return batches.sum();
+    }
+
+    long getItems() {
+        return items.sum();
+    }
+
+    long getFallbacks() {
+        return fallbacks.sum();
+    }
+
+    /**
+     * 다른 어드바이스(@Timed 등)가 적용되도록 프록시로 호출 (JDK 프록시면 인터페이스 메서드, 인터페이스에 없는 메서드면 대상 객체로)
+     */
+    private static final class Call {
+        private final Method method;
+        private final Object receiver;
+
+        private Call(Method method, Object receiver) {
+            this.method = method;
+            this.receiver = receiver;
+        }
+
+        static Call of(Method method, Object proxy, Object target) {
+            Method proxyMethod = ClassUtils.getInterfaceMethodIfPossible(method);
+            if (!proxyMethod.getDeclaringClass().isInstance(proxy)) {
+                return new Call(method, target);
+            }
+            ReflectionUtils.makeAccessible(proxyMethod);
+            return new Call(proxyMethod, proxy);
+        }
+
+        Object invoke(Object argument) throws Throwable {
+            try {
+                return method.invoke(receiver, argument);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+
+    private static class Entry {
+        private final Object item;
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        Entry(Object item) {
+            this.item = item;
+        }
+    }
+}
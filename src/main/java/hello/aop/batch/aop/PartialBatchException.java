@@ -0,0 +1,29 @@
+package hello.aop.batch.aop;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * batchMethod 가 일부 항목만 실패했을 때 던진다. (성공한 항목은 이미 반영된 상태)
+ * - results: 인자 목록과 같은 순서, 같은 크기 (failed 위치의 값은 사용하지 않는다.)
+ * - failed: 실패한 항목의 위치
+ * 성공한 호출자는 results 의 자기 결과를 받고, 실패한 항목만 단건 메서드로 다시 호출한다.
+ */
+public class PartialBatchException extends RuntimeException {
+    private final List<?> results;
+    private final Set<Integer> failed;
+
+    public PartialBatchException(String message, List<?> results, Set<Integer> failed) {
+        super(message);
+        this.results = results;
+        this.failed = Set.copyOf(failed);
+    }
+
+    public List<?> getResults() {
+        return results;
+    }
+
+    public Set<Integer> getFailed() {
+        return failed;
+    }
+}
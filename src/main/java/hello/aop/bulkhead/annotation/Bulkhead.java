@@ -0,0 +1,30 @@
+package hello.aop.bulkhead.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 동시 실행 수 제한
+ * - FIXED: limit 고정 (세마포어)
+ * - ADAPTIVE: limit 에서 시작해서 응답 시간을 보고 minLimit ~ maxLimit 사이로 조절 (AIMD)
+ *   응답 시간이 최소 응답 시간 * tolerance 보다 길거나 예외면 줄이고, 아니면 조금씩 늘린다.
+ *
+ * limit 을 넘으면 maxWaitMillis 까지 기다렸다가(0이면 바로) BulkheadFullException
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Bulkhead {
+    BulkheadMode mode() default BulkheadMode.FIXED;
+
+    int limit() default 16; //FIXED: 최대 동시 실행 수, ADAPTIVE: 시작 값
+
+    int minLimit() default 1;
+
+    int maxLimit() default 200;
+
+    double tolerance() default 2.0;
+
+    long maxWaitMillis() default 0;
+}
@@ -0,0 +1,5 @@
+package hello.aop.bulkhead.annotation;
+
+public enum BulkheadMode {
+    FIXED, ADAPTIVE
+}
@@ -0,0 +1,78 @@
+package hello.aop.bulkhead.aop;
+
+import hello.aop.bulkhead.annotation.Bulkhead;
+import hello.aop.support.SpecificMethods;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * @Bulkhead: 구현 메서드별 동시 실행 수 제한 (같은 인터페이스 메서드의 구현체끼리 제한을 나눠 쓰지 않는다.)
+ * 제한을 넘으면 BulkheadFullException, CompletionStage 반환 메서드는 완료될 때까지 실행 중으로 본다.
+ *
+ * @Retry(LOWEST_PRECEDENCE - 1) 보다 바깥에서 실행된다.
+ * 재시도는 처음 얻은 자리 안에서 하고, 거절된 호출은 재시도하지 않는다.
+ *
+ * 상태 조회: getStatuses() (limit, inFlight, rejected)
+ */
+@Aspect
+@Order(Ordered.LOWEST_PRECEDENCE - 2)
+public class BulkheadAspect {
+    private final ConcurrentMap<Method, ConcurrencyLimit> limits = new ConcurrentHashMap<>();
+
+    @Around("@annotation(hello.aop.bulkhead.annotation.Bulkhead)")
+    public Object doBulkhead(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = SpecificMethods.of(((MethodSignature) joinPoint.getSignature()).getMethod(), joinPoint.getTarget());
+        ConcurrencyLimit limit = limits.get(method);
+        if (limit == null) {
+            limit = limits.computeIfAbsent(method, BulkheadAspect::resolve);
+        }
+
+        if (!limit.acquire()) {
+            throw new BulkheadFullException("bulkhead full: " + limit.getName() + " limit=" + limit.getLimit());
+        }
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            limit.release(System.nanoTime() - start, true);
+            throw e;
+        }
+        if (result instanceof CompletionStage) {
+            ConcurrencyLimit acquired = limit;
+            ((CompletionStage<?>) result).whenComplete(
+                    (value, ex) -> acquired.release(System.nanoTime() - start, ex != null));
+        } else {
+            limit.release(System.nanoTime() - start, false);
+        }
+        return result;
+    }
+
+    private static ConcurrencyLimit resolve(Method specificMethod) {
+        Bulkhead bulkhead = AnnotatedElementUtils.findMergedAnnotation(specificMethod, Bulkhead.class);
+        if (bulkhead == null) {
+            throw new IllegalStateException("@Bulkhead not found: " + specificMethod);
+        }
+        return new ConcurrencyLimit(specificMethod.getDeclaringClass().getSimpleName() + "." + specificMethod.getName(), bulkhead);
+    }
+
+    public List<BulkheadStatus> getStatuses() {
+        List<BulkheadStatus> statuses = new ArrayList<>();
+        for (ConcurrencyLimit limit : limits.values()) {
+            statuses.add(limit.status());
+        }
+        return statuses;
+    }
+}
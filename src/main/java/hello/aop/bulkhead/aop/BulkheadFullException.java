@@ -0,0 +1,10 @@
+package hello.aop.bulkhead.aop;
+
+/**
+ * 동시 실행 수 제한에 걸려서 호출하지 않고 바로 실패
+ */
+public class BulkheadFullException extends RuntimeException {
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
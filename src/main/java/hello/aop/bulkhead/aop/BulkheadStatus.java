@@ -0,0 +1,32 @@
+package hello.aop.bulkhead.aop;
+
+import hello.aop.bulkhead.annotation.BulkheadMode;
+import lombok.Getter;
+
+/**
+ * 운영 조회용 스냅샷
+ */
+@Getter
+public class BulkheadStatus {
+    private final String name;
+    private final BulkheadMode mode;
+    private final int limit;
+    private final int inFlight;
+    private final long rejected;
+    private final long minLatencyNanos; //ADAPTIVE 기준 응답 시간, FIXED 는 0
+
+    public BulkheadStatus(String name, BulkheadMode mode, int limit, int inFlight, long rejected, long minLatencyNanos) {
+        this.name = name;
+        this.mode = mode;
+        this.limit = limit;
+        this.inFlight = inFlight;
+        this.rejected = rejected;
+        this.minLatencyNanos = minLatencyNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkheadStatus{name=" + name + ", mode=" + mode + ", limit=" + limit + ", inFlight=" + inFlight
+                + ", rejected=" + rejected + ", minLatencyNanos=" + minLatencyNanos + '}';
+    }
+}
@@ -0,0 +1,166 @@
+package hello.aop.bulkhead.aop;
+
+import hello.aop.bulkhead.annotation.Bulkhead;
+import hello.aop.bulkhead.annotation.BulkheadMode;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @Bulkhead 메서드 하나의 동시 실행 제한
+ * - 획득: inFlight < limit 이면 CAS 로 증가 (락 없음)
+ * - 대기: maxWait > 0 이면 lock/condition 에서 기다린다. 반환할 때 기다리는 쓰레드가 있을 때만 깨운다.
+ *
+ * ADAPTIVE (AIMD)
+ * - 최소 응답 시간(minLatency)을 부하 없는 기준으로 본다. PROBE_INTERVAL 번마다 다시 측정
+ * - 응답 시간 > minLatency * tolerance 또는 예외: limit * BACKOFF_RATIO (응답 시간 한 번에 최대 1번)
+ * - 그 외, limit 의 절반 이상 사용 중이면: limit + 1/limit (limit 만큼 호출하면 +1)
+ * - limit 갱신은 CAS 한 번만 시도한다. 실패하면 다른 쓰레드의 갱신을 따른다.
+ */
+public class ConcurrencyLimit {
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final long PROBE_INTERVAL = 1000;
+
+    private final String name;
+    private final BulkheadMode mode;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final long maxWaitNanos;
+
+    private final AtomicLong limitBits; //double
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final AtomicLong minLatency = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLong lastDecrease = new AtomicLong(System.nanoTime());
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    public ConcurrencyLimit(String name, Bulkhead bulkhead) {
+        this(name, bulkhead.mode(), bulkhead.limit(), bulkhead.minLimit(), bulkhead.maxLimit(),
+                bulkhead.tolerance(), TimeUnit.MILLISECONDS.toNanos(bulkhead.maxWaitMillis()));
+    }
+
+    public ConcurrencyLimit(String name, BulkheadMode mode, int limit, int minLimit, int maxLimit,
+                            double tolerance, long maxWaitNanos) {
+        if (limit < 1 || minLimit < 1 || minLimit > maxLimit || tolerance < 1) {
+            throw new IllegalArgumentException("invalid @Bulkhead " + name + " limit=" + limit
+                    + " minLimit=" + minLimit + " maxLimit=" + maxLimit + " tolerance=" + tolerance);
+        }
+        this.name = name;
+        this.mode = mode;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.maxWaitNanos = maxWaitNanos;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(
+                mode == BulkheadMode.FIXED ? limit : Math.max(minLimit, Math.min(maxLimit, limit))));
+    }
+
+    /**
+     * @return false: 제한 초과 (rejected 증가)
+     */
+    public boolean acquire() throws InterruptedException {
+        if (tryAcquire()) {
+            return true;
+        }
+        if (maxWaitNanos <= 0) {
+            rejected.increment();
+            return false;
+        }
+        long remaining = maxWaitNanos;
+        waiters.incrementAndGet();
+        lock.lock();
+        try {
+            while (!tryAcquire()) {
+                if (remaining <= 0) {
+                    rejected.increment();
+                    return false;
+                }
+                remaining = released.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+            waiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * @param latencyNanos 획득부터 반환까지 걸린 시간
+     */
+    public void release(long latencyNanos, boolean error) {
+        int used = inFlight.getAndDecrement();
+        if (mode == BulkheadMode.ADAPTIVE) {
+            onSample(latencyNanos, error, used);
+        }
+        if (waiters.get() > 0) {
+            lock.lock();
+            try {
+                released.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void onSample(long latencyNanos, boolean error, int used) {
+        long min;
+        if (samples.incrementAndGet() % PROBE_INTERVAL == 0) {
+            minLatency.set(latencyNanos); //기준 응답 시간 다시 측정
+            min = latencyNanos;
+        } else {
+            min = minLatency.accumulateAndGet(latencyNanos, Math::min);
+        }
+
+        long bits = limitBits.get();
+        double limit = Double.longBitsToDouble(bits);
+        double next;
+        if (error || latencyNanos > min * tolerance) {
+            long now = System.nanoTime();
+            long last = lastDecrease.get();
+            if (now - last < latencyNanos || !lastDecrease.compareAndSet(last, now)) {
+                return; //같은 혼잡으로 여러 번 줄이지 않는다.
+            }
+            next = Math.max(minLimit, limit * BACKOFF_RATIO);
+        } else if (used * 2 >= limit) {
+            next = Math.min(maxLimit, limit + 1 / limit);
+        } else {
+            return; //여유가 있을 때는 늘리지 않는다.
+        }
+        limitBits.compareAndSet(bits, Double.doubleToLongBits(next));
+    }
+
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    public BulkheadStatus status() {
+        long min = minLatency.get();
+        return new BulkheadStatus(name, mode, getLimit(), inFlight.get(), rejected.sum(),
+                mode == BulkheadMode.FIXED || min == Long.MAX_VALUE ? 0 : min);
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,37 @@
+package hello.aop.cache;
+
+import lombok.Getter;
+
+/**
+ * TinyLfuCache 통계 스냅샷 (불변)
+ */
+@Getter
+public class CacheStats {
+    private final String name;
+    private final long size;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long expirations;
+
+    public CacheStats(String name, long size, long hits, long misses, long evictions, long expirations) {
+        this.name = name;
+        this.size = size;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+    }
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : hits / (double) requests;
+    }
+
+    @Override
+    public String toString() {
+        return "[cache] " + name + " size=" + size + " hits=" + hits + " misses=" + misses
+                + " hitRate=" + String.format("%.3f", getHitRate())
+                + " evictions=" + evictions + " expirations=" + expirations;
+    }
+}
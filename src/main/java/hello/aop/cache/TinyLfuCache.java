@@ -0,0 +1,269 @@
+package hello.aop.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 크기 제한 캐시 (W-TinyLFU)
+ * - window(LRU, 1%) -> probation(20%) -> protected(80%)
+ * - window 에서 밀려난 후보는 FrequencySketch 빈도가 probation 의 희생자보다 높을 때만 남는다.
+ *   (한 번 쓰고 버리는 키가 자주 쓰는 키를 밀어내지 않는다.)
+ *   후보는 window 에서 넘어온 노드만 (protected 에서 내려온 노드는 후보가 아니라 희생자 쪽)
+ * - ttlNanos > 0 이면 저장 후 ttl 이 지난 값은 없는 것으로 본다.
+ *
+ * 조회는 ConcurrentHashMap 만 읽는다. 접근 순서 갱신은 eviction lock 을 바로 얻을 때만 한다. (경합 중이면 생략)
+ * 저장, 제거는 eviction lock 안에서 한다.
+ */
+public class TinyLfuCache<K, V> {
+    private final String name;
+    private final int maximumSize;
+    private final int windowMaximum;
+    private final int protectedMaximum;
+    private final long ttlNanos;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data;
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final AccessQueue<K, V> window = new AccessQueue<>();
+    private final AccessQueue<K, V> probation = new AccessQueue<>();
+    private final AccessQueue<K, V> protectedQueue = new AccessQueue<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public TinyLfuCache(String name, int maximumSize, long ttlNanos) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        this.name = name;
+        this.maximumSize = maximumSize;
+        this.windowMaximum = Math.max(1, maximumSize / 100);
+        this.protectedMaximum = (int) ((maximumSize - windowMaximum) * 0.8);
+        this.ttlNanos = ttlNanos;
+        this.data = new ConcurrentHashMap<>(Math.min(maximumSize, 1 << 16));
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    /**
+     * @return 없거나 만료됐으면 null
+     */
+    public V get(K key) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        if (ttlNanos > 0 && System.nanoTime() - node.expireAt >= 0) {
+            misses.increment();
+            expire(node);
+            return null;
+        }
+        hits.increment();
+        if (evictionLock.tryLock()) {
+            try {
+                sketch.increment(key.hashCode());
+                onAccess(node);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+        return node.value;
+    }
+
+    public void put(K key, V value) {
+        Node<K, V> node = new Node<>(key, value, ttlNanos > 0 ? System.nanoTime() + ttlNanos : 0);
+        evictionLock.lock();
+        try {
+            sketch.increment(key.hashCode());
+            Node<K, V> old = data.put(key, node);
+            if (old != null) {
+                unlink(old);
+            }
+            node.queue = window;
+            window.addLast(node);
+            evict();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        evictionLock.lock();
+        try {
+            for (Node<K, V> node : data.values()) {
+                node.queue = null; //조회 중인 쓰레드가 접근 순서를 갱신하지 않도록
+            }
+            data.clear();
+            window.clear();
+            probation.clear();
+            protectedQueue.clear();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public long size() {
+        return data.size();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(name, data.size(), hits.sum(), misses.sum(), evictions.sum(), expirations.sum());
+    }
+
+    private void expire(Node<K, V> node) {
+        evictionLock.lock();
+        try {
+            if (data.remove(node.key, node)) {
+                unlink(node);
+                expirations.increment();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    //lock 안에서 호출
+    private void onAccess(Node<K, V> node) {
+        if (node.queue == window) {
+            window.moveToBack(node);
+        } else if (node.queue == probation) {
+            probation.remove(node);
+            node.queue = protectedQueue;
+            protectedQueue.addLast(node);
+            if (protectedQueue.size > protectedMaximum) {
+                Node<K, V> demoted = protectedQueue.pollFirst();
+                demoted.queue = probation;
+                probation.addLast(demoted);
+            }
+        } else if (node.queue == protectedQueue) {
+            protectedQueue.moveToBack(node);
+        }
+        //queue == null: 이미 제거된 노드
+    }
+
+    //lock 안에서 호출
+    private void evict() {
+        Node<K, V> candidate = null; //이번에 window 에서 넘어온 첫 후보 (probation 뒤쪽에 차례로 붙는다.)
+        while (window.size > windowMaximum) {
+            Node<K, V> moved = window.pollFirst();
+            moved.queue = probation;
+            probation.addLast(moved);
+            if (candidate == null) {
+                candidate = moved;
+            }
+        }
+        while (window.size + probation.size + protectedQueue.size > maximumSize) {
+            Node<K, V> victim = probation.peekFirst();
+            Node<K, V> evicted;
+            if (victim == null) {
+                evicted = protectedQueue.size > 0 ? protectedQueue.peekFirst() : window.peekFirst();
+            } else if (candidate == null || victim == candidate) {
+                evicted = victim;
+            } else {
+                evicted = sketch.frequency(candidate.key.hashCode()) > sketch.frequency(victim.key.hashCode())
+                        ? victim : candidate;
+            }
+            if (candidate != null) {
+                candidate = candidate.next; //다음 후보 (unlink 전에 읽는다. 없으면 이후로는 희생자만 지운다.)
+            }
+            data.remove(evicted.key, evicted);
+            unlink(evicted);
+            evictions.increment();
+        }
+    }
+
+    private void unlink(Node<K, V> node) {
+        if (node.queue != null) {
+            node.queue.remove(node);
+            node.queue = null;
+        }
+    }
+
+    private static class Node<K, V> {
+        private final K key;
+        private final V value;
+        private final long expireAt;
+        private AccessQueue<K, V> queue;
+        private Node<K, V> prev;
+        private Node<K, V> next;
+
+        Node(K key, V value, long expireAt) {
+            this.key = key;
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+
+    /**
+     * 노드에 링크를 두는 양방향 리스트 (앞 = 오래된 노드)
+     */
+    private static class AccessQueue<K, V> {
+        private Node<K, V> first;
+        private Node<K, V> last;
+        private int size;
+
+        void addLast(Node<K, V> node) {
+            node.prev = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+            size++;
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.prev == null) {
+                first = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                last = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            size--;
+        }
+
+        void moveToBack(Node<K, V> node) {
+            if (node != last) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        Node<K, V> peekFirst() {
+            return first;
+        }
+
+        Node<K, V> peekLast() {
+            return last;
+        }
+
+        Node<K, V> pollFirst() {
+            Node<K, V> node = first;
+            if (node != null) {
+                remove(node);
+            }
+            return node;
+        }
+
+        void clear() {
+            first = null;
+            last = null;
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package hello.aop.cache.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 인자가 같으면 이전 결과를 반환 (부작용 없는 조회 메서드에만 사용)
+ * - 메서드마다 크기 제한 캐시 (W-TinyLFU)
+ * - 예외는 캐시하지 않는다. null 결과는 캐시한다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Memoize {
+    int maximumSize() default 1024;
+
+    long ttlMillis() default 0; //0이면 만료 없음
+}
@@ -0,0 +1,72 @@
+package hello.aop.cache.aop;
+
+import hello.aop.cache.CacheStats;
+import hello.aop.cache.TinyLfuCache;
+import hello.aop.cache.annotation.Memoize;
+import hello.aop.support.ArgumentsKey;
+import hello.aop.support.SpecificMethods;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Memoize: 메서드 결과 캐시
+ * 구현 메서드마다 TinyLfuCache 하나, 처음 호출할 때 만든다. (같은 인터페이스 메서드의 구현체끼리 캐시를 나눠 쓰지 않는다.)
+ * 캐시에 없으면 실행 후 저장한다. (같은 키를 동시에 실행하는 것은 막지 않는다.)
+ *
+ * 통계: getStats() (hit, miss, eviction, expiration)
+ */
+@Aspect
+public class MemoizeAspect {
+    private static final Object NULL_VALUE = new Object();
+
+    private final ConcurrentMap<Method, TinyLfuCache<Object, Object>> caches = new ConcurrentHashMap<>();
+
+    @Around("@annotation(hello.aop.cache.annotation.Memoize)")
+    public Object doMemoize(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = SpecificMethods.of(((MethodSignature) joinPoint.getSignature()).getMethod(), joinPoint.getTarget());
+        TinyLfuCache<Object, Object> cache = caches.get(method);
+        if (cache == null) {
+            cache = caches.computeIfAbsent(method, MemoizeAspect::resolve);
+        }
+
+        Object key = ArgumentsKey.of(joinPoint.getArgs());
+        Object cached = cache.get(key);
+        if (cached != null) {
+            return cached == NULL_VALUE ? null : cached;
+        }
+        Object result = joinPoint.proceed();
+        cache.put(key, result == null ? NULL_VALUE : result);
+        return result;
+    }
+
+    private static TinyLfuCache<Object, Object> resolve(Method specificMethod) {
+        Memoize memoize = AnnotatedElementUtils.findMergedAnnotation(specificMethod, Memoize.class);
+        if (memoize == null) {
+            throw new IllegalStateException("@Memoize not found: " + specificMethod);
+        }
+        String name = specificMethod.getDeclaringClass().getSimpleName() + "." + specificMethod.getName();
+        return new TinyLfuCache<>(name, memoize.maximumSize(), TimeUnit.MILLISECONDS.toNanos(memoize.ttlMillis()));
+    }
+
+    public List<CacheStats> getStats() {
+        List<CacheStats> stats = new ArrayList<>();
+        for (TinyLfuCache<Object, Object> cache : caches.values()) {
+            stats.add(cache.stats());
+        }
+        return stats;
+    }
+
+    public void invalidateAll() {
+        caches.values().forEach(TinyLfuCache::invalidateAll);
+    }
+}
@@ -0,0 +1,27 @@
+package hello.aop.chain;
+
+import org.springframework.context.annotation.Bean;
+
+/**
+ * @Import(AdvisorChainConfig.class) 로 사용
+ * 프록시 빈 메서드별 인터셉터 체인과 어드바이저별 호출 수, self 시간 조회
+ * - 코드: AdvisorChainRegistry.snapshot(), topSelfTime()
+ * - JMX: hello.aop:type=AdvisorChain
+ */
+public class AdvisorChainConfig {
+
+    @Bean
+    public static AdvisorChainRegistry advisorChainRegistry() {
+        return new AdvisorChainRegistry();
+    }
+
+    @Bean
+    public static AdvisorChainPostProcessor advisorChainPostProcessor(AdvisorChainRegistry advisorChainRegistry) {
+        return new AdvisorChainPostProcessor(advisorChainRegistry);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public AdvisorChainView advisorChainView(AdvisorChainRegistry advisorChainRegistry) {
+        return new AdvisorChainView(advisorChainRegistry);
+    }
+}
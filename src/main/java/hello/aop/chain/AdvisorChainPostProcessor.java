@@ -0,0 +1,91 @@
+package hello.aop.chain;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.PointcutAdvisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.adapter.AdvisorAdapterRegistry;
+import org.springframework.aop.framework.adapter.GlobalAdvisorAdapterRegistry;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 프록시 빈의 어드바이저마다 MeteredInterceptor 를 씌우고 AdvisorChainRegistry 에 체인을 등록
+ * - 프록시 생성(AutoProxyCreator, HIGHEST_PRECEDENCE) 이후에 실행되도록 가장 마지막 순서
+ * - @Before/@AfterReturning 처럼 인터셉터가 아닌 어드바이스는 스프링과 같은 어댑터로 인터셉터로 바꿔서 감싼다.
+ * - 체인 끝에 tail 을 붙여서 대상 메서드 시간을 마지막 어드바이저의 self 시간에서 뺀다.
+ * - frozen 프록시(HiddenProxyConfig 등)는 어드바이저를 바꿀 수 없으므로 건너뛴다.
+ * 인터셉터마다 System.nanoTime() 2번 + ThreadLocal 조회가 추가되므로 진단용으로 사용
+ */
+@Slf4j
+public class AdvisorChainPostProcessor implements BeanPostProcessor, Ordered {
+    private final AdvisorChainRegistry registry;
+    private final AdvisorAdapterRegistry adapters = GlobalAdvisorAdapterRegistry.getInstance();
+
+    public AdvisorChainPostProcessor(AdvisorChainRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (!(bean instanceof Advised) || !AopUtils.isAopProxy(bean)) {
+            return bean;
+        }
+        Advised advised = (Advised) bean;
+        if (advised.isFrozen()) {
+            log.info("[chain] skip frozen proxy bean={}", beanName);
+            return bean;
+        }
+        Advisor[] advisors = advised.getAdvisors();
+        for (Advisor advisor : advisors) {
+            if (advisor.getAdvice() instanceof MeteredInterceptor) {
+                return bean; //이미 등록
+            }
+        }
+
+        BeanChain chain = new BeanChain(beanName, AopUtils.getTargetClass(bean));
+        List<Advisor> metered = new ArrayList<>(advisors.length + 1);
+        ComposablePointcut advisedMethods = null;
+        for (Advisor advisor : advisors) {
+            if (!(advisor instanceof PointcutAdvisor)) {
+                metered.add(advisor); //IntroductionAdvisor 는 그대로
+                continue;
+            }
+            Pointcut pointcut = ((PointcutAdvisor) advisor).getPointcut();
+            for (MethodInterceptor interceptor : adapters.getInterceptors(advisor)) {
+                MeteredInterceptor entry = new MeteredInterceptor(chain, advisor, interceptor);
+                chain.add(entry);
+                metered.add(new DefaultPointcutAdvisor(pointcut, entry));
+            }
+            advisedMethods = advisedMethods == null ? new ComposablePointcut(pointcut) : advisedMethods.union(pointcut);
+        }
+        if (advisedMethods == null) {
+            return bean;
+        }
+        //어드바이저가 하나라도 적용되는 메서드에만 tail
+        metered.add(new DefaultPointcutAdvisor(advisedMethods, MeteredInterceptor.tail(chain)));
+
+        for (int i = advisors.length - 1; i >= 0; i--) {
+            advised.removeAdvisor(i);
+        }
+        for (Advisor advisor : metered) {
+            advised.addAdvisor(advisor);
+        }
+        registry.register(chain);
+        return bean;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,118 @@
+package hello.aop.chain;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.MethodMatcher;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.PointcutAdvisor;
+import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
+import org.springframework.aop.support.MethodMatchers;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 프록시 빈 메서드별 인터셉터 체인 + 어드바이저별 지표 조회 API (AdvisorChainPostProcessor 가 등록)
+ * 체인은 어드바이저 포인트컷을 메서드마다 정적으로 매칭해서 계산한다. (dynamic 항목은 호출마다 다시 매칭)
+ */
+public class AdvisorChainRegistry {
+    private static final AdvisorMetrics NOT_CALLED = new AdvisorMetrics();
+
+    private final List<BeanChain> chains = new CopyOnWriteArrayList<>();
+
+    void register(BeanChain chain) {
+        chains.add(chain);
+    }
+
+    public List<MethodChainSnapshot> snapshot() {
+        List<MethodChainSnapshot> snapshots = new ArrayList<>();
+        for (BeanChain chain : chains) {
+            snapshots.addAll(snapshot(chain));
+        }
+        snapshots.sort(Comparator.comparing(MethodChainSnapshot::getBeanName)
+                .thenComparing(MethodChainSnapshot::getMethod));
+        return snapshots;
+    }
+
+    public List<MethodChainSnapshot> snapshot(String beanName) {
+        List<MethodChainSnapshot> snapshots = new ArrayList<>();
+        for (BeanChain chain : chains) {
+            if (chain.getBeanName().equals(beanName)) {
+                snapshots.addAll(snapshot(chain));
+            }
+        }
+        snapshots.sort(Comparator.comparing(MethodChainSnapshot::getMethod));
+        return snapshots;
+    }
+
+    /**
+     * self 시간이 큰 순서 (지연시간을 가장 많이 쓰는 어드바이스 찾기)
+     */
+    public List<ChainEntrySnapshot> topSelfTime(int limit) {
+        List<ChainEntrySnapshot> entries = new ArrayList<>();
+        for (MethodChainSnapshot snapshot : snapshot()) {
+            for (ChainEntrySnapshot entry : snapshot.getEntries()) {
+                if (entry.getCalls() > 0) {
+                    entries.add(entry);
+                }
+            }
+        }
+        entries.sort(Comparator.comparingLong(ChainEntrySnapshot::getSelfNanos).reversed());
+        return entries.size() > limit ? new ArrayList<>(entries.subList(0, limit)) : entries;
+    }
+
+    public void reset() {
+        for (BeanChain chain : chains) {
+            chain.getEntries().forEach(MeteredInterceptor::reset);
+        }
+    }
+
+    private List<MethodChainSnapshot> snapshot(BeanChain chain) {
+        Class<?> targetClass = chain.getTargetClass();
+        List<MethodChainSnapshot> snapshots = new ArrayList<>();
+        for (Method method : ReflectionUtils.getUniqueDeclaredMethods(targetClass, ReflectionUtils.USER_DECLARED_METHODS)) {
+            if (Modifier.isStatic(method.getModifiers()) || Modifier.isPrivate(method.getModifiers())
+                    || method.getDeclaringClass() == Object.class) {
+                continue;
+            }
+            List<ChainEntrySnapshot> entries = new ArrayList<>();
+            boolean advised = false;
+            String methodName = methodName(targetClass, method);
+            for (MeteredInterceptor entry : chain.getEntries()) {
+                Advisor advisor = entry.getAdvisor();
+                Pointcut pointcut = ((PointcutAdvisor) advisor).getPointcut();
+                MethodMatcher methodMatcher = pointcut.getMethodMatcher();
+                if (!pointcut.getClassFilter().matches(targetClass)
+                        || !MethodMatchers.matches(methodMatcher, method, targetClass, false)) {
+                    continue;
+                }
+                advised |= advisor.getAdvice() != ExposeInvocationInterceptor.INSTANCE;
+                AdvisorMetrics metrics = entry.findMetrics(method);
+                if (metrics == null) {
+                    metrics = NOT_CALLED;
+                }
+                entries.add(new ChainEntrySnapshot(chain.getBeanName(), methodName, entries.size() + 1,
+                        entry.describe(), entry.getOrder(), methodMatcher.isRuntime(),
+                        metrics.calls(), metrics.errors(), metrics.totalNanos(), metrics.selfNanos(), metrics.maxSelfNanos()));
+            }
+            if (advised) {
+                snapshots.add(new MethodChainSnapshot(chain.getBeanName(), methodName, entries));
+            }
+        }
+        return snapshots;
+    }
+
+    //OrderService.orderItem(String)
+    private static String methodName(Class<?> targetClass, Method method) {
+        StringJoiner parameters = new StringJoiner(", ", "(", ")");
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            parameters.add(parameterType.getSimpleName());
+        }
+        return targetClass.getSimpleName() + "." + method.getName() + parameters;
+    }
+}
@@ -0,0 +1,76 @@
+package hello.aop.chain;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * AdvisorChainRegistry 를 platform MBeanServer 에 등록 (로컬 JMX)
+ * 같은 JVM 에 이미 등록된 컨텍스트가 있으면 먼저 등록한 쪽을 유지한다.
+ */
+@Slf4j
+public class AdvisorChainView implements AdvisorChainViewMBean {
+    public static final String OBJECT_NAME = "hello.aop:type=AdvisorChain";
+    private static final int TOP_LIMIT = 10;
+
+    private final AdvisorChainRegistry registry;
+    private boolean registered;
+
+    public AdvisorChainView(AdvisorChainRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void start() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(this, new ObjectName(OBJECT_NAME));
+            registered = true;
+            log.info("[chain] jmx {}", OBJECT_NAME);
+        } catch (InstanceAlreadyExistsException e) {
+            log.warn("[chain] jmx {} already registered", OBJECT_NAME);
+        }
+    }
+
+    public void stop() throws JMException {
+        if (registered) {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(OBJECT_NAME));
+            registered = false;
+        }
+    }
+
+    @Override
+    public String[] getChains() {
+        return lines(registry.snapshot());
+    }
+
+    @Override
+    public String[] getTopSelfTime() {
+        return registry.topSelfTime(TOP_LIMIT).stream().map(ChainEntrySnapshot::toString).toArray(String[]::new);
+    }
+
+    @Override
+    public String[] chain(String beanName) {
+        return lines(registry.snapshot(beanName));
+    }
+
+    @Override
+    public void reset() {
+        registry.reset();
+    }
+
+    private static String[] lines(List<MethodChainSnapshot> snapshots) {
+        List<String> lines = new ArrayList<>();
+        for (MethodChainSnapshot snapshot : snapshots) {
+            for (ChainEntrySnapshot entry : snapshot.getEntries()) {
+                lines.add(entry.toString());
+            }
+        }
+        return lines.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,16 @@
+package hello.aop.chain;
+
+/**
+ * JMX 조회 (jconsole 등): hello.aop:type=AdvisorChain
+ * 한 줄 = 체인 항목 1개 (ChainEntrySnapshot)
+ */
+public interface AdvisorChainViewMBean {
+
+    String[] getChains();
+
+    String[] getTopSelfTime();
+
+    String[] chain(String beanName);
+
+    void reset();
+}
@@ -0,0 +1,54 @@
+package hello.aop.chain;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 어드바이저 1개 x 메서드 1개의 호출 지표
+ * total: 인터셉터 전체 시간, self: total 에서 proceed() 안쪽(다음 인터셉터, 대상 메서드) 시간을 뺀 것
+ */
+class AdvisorMetrics {
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder selfNanos = new LongAdder();
+    private final LongAccumulator maxSelfNanos = new LongAccumulator(Long::max, 0);
+
+    void record(long nanos, long selfNanos, boolean error) {
+        calls.increment();
+        if (error) {
+            errors.increment();
+        }
+        totalNanos.add(nanos);
+        this.selfNanos.add(selfNanos);
+        maxSelfNanos.accumulate(selfNanos);
+    }
+
+    void reset() {
+        calls.reset();
+        errors.reset();
+        totalNanos.reset();
+        selfNanos.reset();
+        maxSelfNanos.reset();
+    }
+
+    long calls() {
+        return calls.sum();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    long totalNanos() {
+        return totalNanos.sum();
+    }
+
+    long selfNanos() {
+        return selfNanos.sum();
+    }
+
+    long maxSelfNanos() {
+        return maxSelfNanos.get();
+    }
+}
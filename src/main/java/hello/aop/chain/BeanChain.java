@@ -0,0 +1,34 @@
+package hello.aop.chain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 프록시 빈 1개의 어드바이저 체인 (프록시에 적용된 순서 = 실행 순서)
+ */
+class BeanChain {
+    private final String beanName;
+    private final Class<?> targetClass;
+    private final List<MeteredInterceptor> entries = new ArrayList<>();
+
+    BeanChain(String beanName, Class<?> targetClass) {
+        this.beanName = beanName;
+        this.targetClass = targetClass;
+    }
+
+    void add(MeteredInterceptor entry) {
+        entries.add(entry);
+    }
+
+    String getBeanName() {
+        return beanName;
+    }
+
+    Class<?> getTargetClass() {
+        return targetClass;
+    }
+
+    List<MeteredInterceptor> getEntries() {
+        return entries;
+    }
+}
@@ -0,0 +1,48 @@
+package hello.aop.chain;
+
+import lombok.Getter;
+
+/**
+ * 조회 시점의 체인 항목 1개 (시간 단위: ns)
+ * position: 체인 안의 순서 (1 = 가장 바깥)
+ */
+@Getter
+public class ChainEntrySnapshot {
+    private final String beanName;
+    private final String method;
+    private final int position;
+    private final String advisor;
+    private final int order;
+    private final boolean dynamic; //호출마다 인자로 다시 매칭 (args() 등)
+    private final long calls;
+    private final long errors;
+    private final long totalNanos;
+    private final long selfNanos;
+    private final long maxSelfNanos;
+
+    public ChainEntrySnapshot(String beanName, String method, int position, String advisor, int order, boolean dynamic,
+                              long calls, long errors, long totalNanos, long selfNanos, long maxSelfNanos) {
+        this.beanName = beanName;
+        this.method = method;
+        this.position = position;
+        this.advisor = advisor;
+        this.order = order;
+        this.dynamic = dynamic;
+        this.calls = calls;
+        this.errors = errors;
+        this.totalNanos = totalNanos;
+        this.selfNanos = selfNanos;
+        this.maxSelfNanos = maxSelfNanos;
+    }
+
+    public long getMeanSelfNanos() {
+        return calls > 0 ? selfNanos / calls : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s #%d %s order=%d%s calls=%d errors=%d self=%dns(mean %dns, max %dns) total=%dns",
+                beanName, method, position, advisor, order, dynamic ? " dynamic" : "",
+                calls, errors, selfNanos, getMeanSelfNanos(), maxSelfNanos, totalNanos);
+    }
+}
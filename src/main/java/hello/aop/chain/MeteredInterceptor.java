@@ -0,0 +1,121 @@
+package hello.aop.chain;
+
+import hello.aop.fusion.FusedAdviceInterceptor;
+import hello.aop.killswitch.SwitchableInterceptor;
+import org.aopalliance.aop.Advice;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AbstractAspectJAdvice;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.Ordered;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 어드바이저의 인터셉터를 감싸서 호출 수, 에러 수, total/self 시간을 메서드별로 기록
+ * self 시간: 같은 빈 체인의 안쪽 인터셉터(마지막은 tail = 대상 메서드)가 걸린 시간을 뺀다.
+ * - 어드바이스 안에서 다른 프록시 빈을 호출한 시간은 self 에 포함
+ * - 다른 쓰레드에서 proceed() 하면(@Offload 등) 그 시간은 빼지 못하고 기다린 시간이 self 에 포함
+ */
+class MeteredInterceptor implements MethodInterceptor {
+    private static final ThreadLocal<Frame> currentFrame = new ThreadLocal<>();
+
+    private final BeanChain chain;
+    private final Advisor advisor; //null: tail (대상 메서드 시간 측정용, 기록 안함)
+    private final MethodInterceptor delegate;
+    private final ConcurrentMap<Method, AdvisorMetrics> metrics = new ConcurrentHashMap<>(); //호출된 메서드(JDK 프록시는 인터페이스 메서드)
+    private final ConcurrentMap<Method, AdvisorMetrics> targetMetrics = new ConcurrentHashMap<>(); //대상 클래스 메서드
+
+    MeteredInterceptor(BeanChain chain, Advisor advisor, MethodInterceptor delegate) {
+        this.chain = chain;
+        this.advisor = advisor;
+        this.delegate = delegate;
+    }
+
+    static MeteredInterceptor tail(BeanChain chain) {
+        return new MeteredInterceptor(chain, null, MethodInvocation::proceed);
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Frame parent = currentFrame.get();
+        Frame frame = new Frame(chain);
+        currentFrame.set(frame);
+        boolean error = true;
+        long start = System.nanoTime();
+        try {
+            Object result = delegate.invoke(invocation);
+            error = false;
+            return result;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            currentFrame.set(parent);
+            if (parent != null && parent.chain == chain) {
+                parent.childNanos += nanos;
+            }
+            if (advisor != null) {
+                metrics(invocation.getMethod()).record(nanos, Math.max(0, nanos - frame.childNanos), error);
+            }
+        }
+    }
+
+    private AdvisorMetrics metrics(Method method) {
+        AdvisorMetrics found = metrics.get(method);
+        if (found != null) {
+            return found;
+        }
+        return metrics.computeIfAbsent(method,
+                key -> targetMetric(AopUtils.getMostSpecificMethod(key, chain.getTargetClass())));
+    }
+
+    private AdvisorMetrics targetMetric(Method targetMethod) {
+        AdvisorMetrics found = targetMetrics.get(targetMethod);
+        if (found != null) {
+            return found;
+        }
+        return targetMetrics.computeIfAbsent(targetMethod, key -> new AdvisorMetrics());
+    }
+
+    //아직 호출되지 않았으면 null
+    AdvisorMetrics findMetrics(Method targetMethod) {
+        return targetMetrics.get(targetMethod);
+    }
+
+    void reset() {
+        targetMetrics.values().forEach(AdvisorMetrics::reset);
+    }
+
+    Advisor getAdvisor() {
+        return advisor;
+    }
+
+    int getOrder() {
+        return advisor instanceof Ordered ? ((Ordered) advisor).getOrder() : Ordered.LOWEST_PRECEDENCE;
+    }
+
+    //TxAspect.doTransaction [AspectJAroundAdvice], 스프링 인터셉터는 클래스 이름
+    String describe() {
+        Advice advice = advisor.getAdvice();
+        if (advice instanceof AbstractAspectJAdvice) {
+            Method adviceMethod = ((AbstractAspectJAdvice) advice).getAspectJAdviceMethod();
+            return adviceMethod.getDeclaringClass().getSimpleName() + "." + adviceMethod.getName()
+                    + " [" + advice.getClass().getSimpleName() + "]";
+        }
+        if (advice instanceof FusedAdviceInterceptor || advice instanceof SwitchableInterceptor) {
+            return advice.toString();
+        }
+        return advice.getClass().getSimpleName();
+    }
+
+    private static final class Frame {
+        final BeanChain chain;
+        long childNanos;
+
+        Frame(BeanChain chain) {
+            this.chain = chain;
+        }
+    }
+}
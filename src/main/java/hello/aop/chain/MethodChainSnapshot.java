@@ -0,0 +1,33 @@
+package hello.aop.chain;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 프록시 빈 메서드 1개에 적용되는 인터셉터 체인 (바깥 -> 안쪽 순서)
+ */
+@Getter
+public class MethodChainSnapshot {
+    private final String beanName;
+    private final String method;
+    private final List<ChainEntrySnapshot> entries;
+
+    public MethodChainSnapshot(String beanName, String method, List<ChainEntrySnapshot> entries) {
+        this.beanName = beanName;
+        this.method = method;
+        this.entries = entries;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(beanName).append(' ').append(method);
+        for (ChainEntrySnapshot entry : entries) {
+            sb.append("\n  ").append(entry.getPosition()).append(". ").append(entry.getAdvisor())
+                    .append(" order=").append(entry.getOrder())
+                    .append(" calls=").append(entry.getCalls())
+                    .append(" self=").append(entry.getSelfNanos()).append("ns");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,104 @@
+package hello.aop.deadline;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 호출 전체에 남은 시간 (불변)
+ * 가장 바깥 어드바이스(@Timeout)가 쓰레드에 설정하고, 안쪽 어드바이스(@Retry, 안쪽 @Timeout)가 읽는다.
+ * 안쪽에서 다시 설정해도 바깥 deadline 보다 늦어지지 않는다.
+ * 다른 쓰레드로 넘길 때는 ContextSnapshot 이 같이 넘긴다.
+ *
+ * try (Deadline.Scope scope = Deadline.enter(Deadline.after(100, TimeUnit.MILLISECONDS))) { ... }
+ */
+public final class Deadline {
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * @return 설정된 deadline 이 없으면 null
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    public static Deadline after(long timeout, TimeUnit unit) {
+        return new Deadline(System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    /**
+     * 현재 쓰레드에 설정 (바깥 deadline 이 더 빠르면 바깥 것을 유지)
+     * 반환한 Scope 를 close 하면 이전 값으로 되돌린다.
+     */
+    public static Scope enter(Deadline deadline) {
+        Deadline previous = CURRENT.get();
+        Deadline effective = deadline == null ? previous : deadline.min(previous);
+        CURRENT.set(effective);
+        return new Scope(previous, effective);
+    }
+
+    /**
+     * 다른 쓰레드에서 넘겨받은 deadline 을 그대로 설정 (ContextSnapshot)
+     */
+    public static Scope attach(Deadline deadline) {
+        Deadline previous = CURRENT.get();
+        if (deadline == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(deadline);
+        }
+        return new Scope(previous, deadline);
+    }
+
+    public long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    /**
+     * 남은 시간 안에 nanos 만큼 더 기다리거나 실행할 수 있는지
+     */
+    public boolean covers(long nanos) {
+        return remainingNanos() > nanos;
+    }
+
+    public Deadline min(Deadline other) {
+        return other == null || deadlineNanos - other.deadlineNanos <= 0 ? this : other;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{remaining=" + TimeUnit.NANOSECONDS.toMillis(remainingNanos()) + "ms}";
+    }
+
+    public static class Scope implements AutoCloseable {
+        private final Deadline previous;
+        private final Deadline deadline;
+
+        private Scope(Deadline previous, Deadline deadline) {
+            this.previous = previous;
+            this.deadline = deadline;
+        }
+
+        //바깥 deadline 을 반영한 실제 deadline
+        public Deadline getDeadline() {
+            return deadline;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package hello.aop.decorator;
+
+import hello.aop.deadline.Deadline;
+import hello.aop.exam.annotation.Retry;
+import hello.aop.exam.annotation.Trace;
+import hello.aop.exam.aop.Backoff;
+import hello.aop.exam.aop.CircuitBreakerOpenException;
+import hello.aop.exam.aop.RetryAspect;
+import hello.aop.exam.aop.RetryGuard;
+import hello.aop.exam.aop.RetryPolicy;
+import hello.aop.exam.aop.TraceAspect;
+import hello.aop.log.AopLogger;
+import hello.aop.trace.TraceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * 생성된 데코레이터(DecoratorProcessor)가 호출하는 메서드별 @Trace/@Retry 실행 코드
+ * 데코레이터의 static final 필드로 한 번 만들고, 호출마다 joinPoint, 인자 배열 없이 직접 호출한다.
+ * 동작은 TraceAspect, RetryAspect(일반 메서드 경로)와 같다. (재시도가 바깥, trace 가 시도마다 안쪽)
+ */
+@Slf4j
+public final class DecoratedMethod {
+    private static final AopLogger traceLog = AopLogger.of(TraceAspect.class);
+
+    private final String spanName; //null: @Trace 없음
+    private final RetryPolicy policy; //null: @Retry 없음
+
+    private DecoratedMethod(String spanName, RetryPolicy policy) {
+        this.spanName = spanName;
+        this.policy = policy;
+    }
+
+    public static DecoratedMethod of(Class<?> type, String name, Class<?>... parameterTypes) {
+        Method method;
+        try {
+            method = type.getDeclaredMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("decorated method not found: " + type.getName() + "." + name, e);
+        }
+        String methodName = type.getSimpleName() + "." + name;
+        String spanName = AnnotatedElementUtils.hasAnnotation(method, Trace.class) ? methodName + "(..)" : null;
+        Retry retry = AnnotatedElementUtils.findMergedAnnotation(method, Retry.class);
+        return new DecoratedMethod(spanName, retry == null ? null : RetryPolicy.of(methodName, retry));
+    }
+
+    public RetryPolicy getPolicy() {
+        return policy;
+    }
+
+    //@Trace: TraceAspect.doTrace 의 proceed() 전
+    public long traceEnter() {
+        TraceContext context = TraceContext.current();
+        if (context.isIdle()) {
+            context.begin(traceLog.isEnabled());
+        }
+        return context.enter(context.isSampled() ? spanName : null);
+    }
+
+    //@Trace: TraceAspect.doTrace 의 finally
+    public void traceExit(long span, Throwable error) {
+        String tree = TraceContext.current().exit(span, error);
+        if (tree != null) {
+            traceLog.info("{}", tree);
+        }
+    }
+
+    //@Retry: 서킷 OPEN 이면 호출하지 않는다.
+    public void retryBegin() {
+        if (!policy.getGuard().tryCall()) {
+            throw new CircuitBreakerOpenException("circuit open: " + policy.getName());
+        }
+    }
+
+    public long attemptEnter(int retryCount) {
+        TraceContext trace = TraceContext.current();
+        if (trace.isIdle() || !trace.isSampled()) {
+            return TraceContext.NOT_SAMPLED;
+        }
+        return trace.enter(policy.attemptName(retryCount));
+    }
+
+    public void attemptSuccess(long span) {
+        if (span != TraceContext.NOT_SAMPLED) {
+            TraceContext.current().exit(span, null);
+        }
+        policy.getGuard().onSuccess();
+    }
+
+    /**
+     * 실패한 시도 처리
+     * 재시도 하지 않으면 error 를 그대로 던지고, 재시도 하면 대기한 뒤 이번 대기시간(ms)을 반환
+     */
+    public long attemptFailure(long span, Throwable error, int retryCount, long previousDelay,
+                               Deadline deadline, long attemptStart) {
+        if (span != TraceContext.NOT_SAMPLED) {
+            TraceContext.current().exit(span, error);
+        }
+        RetryGuard guard = policy.getGuard();
+        if (!policy.isRetryable(error)) {
+            guard.release();
+            throw sneakyThrow(error);
+        }
+        guard.onFailure();
+        if (retryCount >= policy.getMaxRetry()) {
+            throw sneakyThrow(error);
+        }
+        if (!guard.tryRetry()) {
+            log.warn("[retry] suppressed {}", guard.status());
+            throw sneakyThrow(error);
+        }
+        long delay = previousDelay;
+        Backoff backoff = policy.getBackoff();
+        if (!backoff.isNone()) {
+            delay = backoff.nextDelay(retryCount, previousDelay);
+        }
+        if (!RetryAspect.withinDeadline(deadline, policy, delay, System.nanoTime() - attemptStart)
+                || delay > 0 && !RetryAspect.sleep(delay)) {
+            guard.release();
+            throw sneakyThrow(error);
+        }
+        log.info("[retry] {} try count={}/{}", policy.getName(), retryCount + 1, policy.getMaxRetry());
+        return delay;
+    }
+
+    //checked 예외도 감싸지 않고 그대로 던진다. (원래 메서드가 선언한 예외)
+    @SuppressWarnings("unchecked")
+    private static <E extends Throwable> RuntimeException sneakyThrow(Throwable error) throws E {
+        throw (E) error;
+    }
+}
@@ -0,0 +1,48 @@
+package hello.aop.decorator;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Properties;
+
+/**
+ * @Import(DecoratorConfig.class) 로 사용
+ * DecoratorProcessor 가 데코레이터를 생성한 빈은 빈 클래스를 데코레이터로 바꾼다. (@Trace/@Retry 프록시 대신)
+ * - 데코레이터는 원래 클래스를 상속하고 생성자가 같으므로 주입, 타입 조회는 그대로
+ * - 재정의한 메서드에는 @Trace/@Retry 가 없으므로 TraceAspect, RetryAspect 가 다시 적용되지 않는다.
+ * - 같은 메서드의 다른 어노테이션(@Timeout 등)은 복사되어 프록시로 적용되고, @Trace/@Retry 보다 바깥에서 실행된다.
+ * - @FaultInjection, @Batched 처럼 재시도 안쪽이어야 하는 메서드는 생성하지 않는다. (ExamRepository.save 는 프록시 그대로)
+ */
+@Slf4j
+public class DecoratorConfig {
+    public static final String INDEX = "META-INF/hello-aop/decorators.properties"; //원래 클래스=데코레이터 클래스
+
+    @Bean
+    public static BeanFactoryPostProcessor decoratorBeanClassPostProcessor() {
+        return beanFactory -> {
+            Properties decorators = loadIndex(beanFactory.getBeanClassLoader());
+            for (String beanName : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+                String beanClassName = definition.getBeanClassName();
+                String decorator = beanClassName == null ? null : decorators.getProperty(beanClassName);
+                if (decorator != null) {
+                    definition.setBeanClassName(decorator);
+                    log.info("[decorator] {} -> {}", beanName, decorator);
+                }
+            }
+        };
+    }
+
+    private static Properties loadIndex(ClassLoader classLoader) {
+        try {
+            return PropertiesLoaderUtils.loadAllProperties(INDEX, classLoader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
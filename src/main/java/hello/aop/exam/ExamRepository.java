@@ -2,22 +2,19 @@ package hello.aop.exam;
 
 import hello.aop.exam.annotation.Retry;
 import hello.aop.exam.annotation.Trace;
+import hello.aop.fault.annotation.FaultInjection;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public class ExamRepository {
-    private static int seq = 0;
 
     /**
-     * 5번에 1번 실패하는 요청
+     * 5번에 1번 실패하는 요청 (FaultInjectionAspect 가 실패를 주입)
      */
     @Trace
-    @Retry(4) //value 바꾸기 가능
+    @Retry(value = 4, delay = 100) //value 바꾸기 가능, delay: 재시도 전 대기(ms)
+    @FaultInjection(failEvery = 5, exception = IllegalArgumentException.class, message = "예외 발생")
     public String save(String itemId) {
-        seq++;
-        if (seq % 5 == 0) {
-            throw new IllegalArgumentException("에외 발생");
-        }
         return "ok";
     }
 }
@@ -1,6 +1,9 @@
 package hello.aop.exam;
 
 import hello.aop.exam.annotation.Trace;
+import hello.aop.flight.annotation.SingleFlight;
+import hello.aop.offload.annotation.Offload;
+import hello.aop.timeout.annotation.Timeout;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -9,6 +12,9 @@ import org.springframework.stereotype.Service;
 public class ExamService {
     private final ExamRepository examRepository;
 
+    @Offload
+    @SingleFlight
+    @Timeout(1000) //안쪽 ExamRepository.save 재시도까지 포함
     @Trace
     public void request(String itemId) {
         examRepository.save(itemId);
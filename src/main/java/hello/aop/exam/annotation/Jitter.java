@@ -0,0 +1,10 @@
+package hello.aop.exam.annotation;
+
+/**
+ * 재시도 대기시간 jitter 방식
+ */
+public enum Jitter {
+    NONE, //지수 증가 그대로
+    FULL, //0 ~ 지수 증가값 사이 랜덤
+    DECORRELATED //delay ~ 이전 대기시간 * 3 사이 랜덤
+}
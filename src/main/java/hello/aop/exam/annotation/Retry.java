@@ -7,9 +7,36 @@ import java.lang.annotation.Target;
 
 /**
  * 예외가 발생했을 때 다시 시도해서 문제를 복구한다.
+ * delay > 0 이면 재시도 사이에 지수 백오프 + jitter 만큼 대기한다.
+ * CompletableFuture 반환 메서드는 쓰레드를 재우지 않고 스케줄러로 재시도한다.
+ *
+ * 재시도 예산: 성공 1번당 budgetRatio 개의 재시도 토큰 적립 (최대 budgetTokens 개)
+ * 서킷 브레이커: 연속 failureThreshold 번 실패하면 openMillis 동안 호출 자체를 막는다.
+ *
+ * retryOn 예외만 재시도, noRetryFor 예외는 바로 던진다. (noRetryFor 우선)
  */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Retry {
     int value() default 3; //재시도 횟수, 기본값으로 3 사용
+
+    Class<? extends Throwable>[] retryOn() default Exception.class; //재시도 할 예외
+
+    Class<? extends Throwable>[] noRetryFor() default {}; //재시도 하지 않을 예외 (ex. 잘못된 요청)
+
+    long delay() default 0; //첫 재시도 대기시간(ms), 0이면 바로 재시도
+
+    double multiplier() default 2.0; //재시도마다 대기시간 증가 배수
+
+    long maxDelay() default 1000; //최대 대기시간(ms)
+
+    Jitter jitter() default Jitter.FULL;
+
+    double budgetRatio() default 0.2; //성공 대비 재시도 비율
+
+    int budgetTokens() default 10; //재시도 토큰 최대 개수
+
+    int failureThreshold() default 10; //연속 실패 횟수, 0이면 서킷 브레이커 사용 안함
+
+    long openMillis() default 1000; //서킷 OPEN 유지 시간(ms)
 }
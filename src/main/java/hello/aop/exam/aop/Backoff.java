@@ -0,0 +1,71 @@
+package hello.aop.exam.aop;
+
+import hello.aop.exam.annotation.Jitter;
+import hello.aop.exam.annotation.Retry;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @Retry 의 백오프 설정 (불변)
+ * 대기시간 계산만 하고 상태는 호출하는 쪽이 들고 있는다. (previousDelay)
+ */
+public class Backoff {
+    private final long delay;
+    private final double multiplier;
+    private final long maxDelay;
+    private final Jitter jitter;
+
+    public Backoff(long delay, double multiplier, long maxDelay, Jitter jitter) {
+        this.delay = Math.max(0, delay);
+        this.multiplier = Math.max(1.0, multiplier);
+        this.maxDelay = Math.max(this.delay, maxDelay);
+        this.jitter = jitter;
+    }
+
+    public static Backoff of(Retry retry) {
+        return new Backoff(retry.delay(), retry.multiplier(), retry.maxDelay(), retry.jitter());
+    }
+
+    public boolean isNone() {
+        return delay == 0;
+    }
+
+    /**
+     * @param retryCount    방금 실패한 시도 횟수 (1부터)
+     * @param previousDelay 직전 대기시간 (처음이면 0)
+     * @return 다음 시도까지 대기시간(ms)
+     */
+    public long nextDelay(int retryCount, long previousDelay) {
+        if (isNone()) {
+            return 0;
+        }
+        switch (jitter) {
+            case FULL:
+                return random(0, exponential(retryCount));
+            case DECORRELATED:
+                long upper = previousDelay > maxDelay / 3 ? maxDelay : Math.max(delay, previousDelay * 3);
+                return random(delay, upper);
+            default:
+                return exponential(retryCount);
+        }
+    }
+
+    private long exponential(int retryCount) {
+        double next = delay * Math.pow(multiplier, retryCount - 1);
+        return next >= maxDelay ? maxDelay : (long) next;
+    }
+
+    //min ~ max (max 포함)
+    private static long random(long min, long max) {
+        if (max <= min) {
+            return min;
+        }
+        return ThreadLocalRandom.current().nextLong(min, max + 1);
+    }
+
+    @Override
+    public String toString() {
+        return "Backoff{delay=" + delay + ", multiplier=" + multiplier
+                + ", maxDelay=" + maxDelay + ", jitter=" + jitter + '}';
+    }
+}
@@ -0,0 +1,106 @@
+package hello.aop.exam.aop;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * CLOSED: 모두 통과, 연속 실패가 failureThreshold 이상이면 OPEN
+ * OPEN: 모두 거절, openMillis 가 지나면 HALF_OPEN
+ * HALF_OPEN: 시험 호출 1개만 통과, 성공하면 CLOSED 실패하면 다시 OPEN
+ *            결과 없이 끝나면(재시도 대상이 아닌 예외, 시도 취소) release() 로 시험 호출을 바로 다시 허용
+ *
+ * 상태와 전환 시각은 불변 객체 하나로 묶어서 CAS 로 바꾼다. (상태가 바뀔 때만 할당)
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static final Transition CLOSED = new Transition(State.CLOSED, 0);
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final AtomicReference<Transition> transition = new AtomicReference<>(CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param failureThreshold 0 이하면 사용하지 않음 (항상 CLOSED)
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+    }
+
+    public boolean tryAcquire() {
+        Transition current = transition.get();
+        if (current.state == State.CLOSED) {
+            return true;
+        }
+        //OPEN 시간이 지났거나, HALF_OPEN 시험 호출이 응답이 없으면 시험 호출 1개 허용
+        if (System.nanoTime() - current.since >= openNanos
+                && transition.compareAndSet(current, new Transition(State.HALF_OPEN, System.nanoTime()))) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public void onSuccess() {
+        if (consecutiveFailures.get() != 0) {
+            consecutiveFailures.set(0);
+        }
+        Transition current = transition.get();
+        if (current.state != State.CLOSED) {
+            transition.compareAndSet(current, CLOSED);
+        }
+    }
+
+    public void onFailure() {
+        if (failureThreshold <= 0) {
+            return;
+        }
+        Transition current = transition.get();
+        if (current.state == State.HALF_OPEN) {
+            transition.compareAndSet(current, new Transition(State.OPEN, System.nanoTime()));
+            return;
+        }
+        if (current.state == State.CLOSED && consecutiveFailures.incrementAndGet() >= failureThreshold
+                && transition.compareAndSet(current, new Transition(State.OPEN, System.nanoTime()))) {
+            consecutiveFailures.set(0);
+        }
+    }
+
+    /**
+     * 성공/실패로 치지 않는 호출 종료 (HALF_OPEN 이면 시험 호출 권한을 돌려준다.)
+     * 다른 쓰레드의 시험 호출 중이었다면 시험 호출이 1개 더 나갈 수 있다. (HALF_OPEN 에 멈추는 것보다 낫다.)
+     */
+    public void release() {
+        Transition current = transition.get();
+        if (current.state == State.HALF_OPEN) {
+            //OPEN 시간이 이미 지난 상태로 되돌려서 다음 호출이 시험 호출이 된다.
+            transition.compareAndSet(current, new Transition(State.OPEN, System.nanoTime() - openNanos));
+        }
+    }
+
+    public State state() {
+        return transition.get().state;
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    private static class Transition {
+        final State state;
+        final long since;
+
+        Transition(State state, long since) {
+            this.state = state;
+            this.since = since;
+        }
+    }
+}
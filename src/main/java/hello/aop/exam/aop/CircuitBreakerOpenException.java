@@ -0,0 +1,10 @@
+package hello.aop.exam.aop;
+
+/**
+ * 서킷이 열려 있어서 호출하지 않고 바로 실패
+ */
+public class CircuitBreakerOpenException extends RuntimeException {
+    public CircuitBreakerOpenException(String message) {
+        super(message);
+    }
+}
@@ -1,33 +1,245 @@
 package hello.aop.exam.aop;
 
-import hello.aop.exam.annotation.Retry;
+import hello.aop.deadline.Deadline;
+import hello.aop.support.ContextSnapshot;
+import hello.aop.support.DetachedProceed;
+import hello.aop.trace.TraceContext;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * ProceedingJoinPoint joinPoint: MethodInvocation invocation과 유사한 기능
  * 내부에 실제 호출 대상, 전달 인자, 어떤 객체와 어떤 메서드가 호출되었는지 정보가 포함되어 있다.
+ *
+ * @Retry 는 파라미터로 바인딩하지 않는다. (바인딩하면 호출마다 동적 매칭)
+ * 메서드별 RetryPolicy 를 처음 한 번만 만들어서 캐시한다.
+ *
+ * 재시도 사이 대기: @Retry(delay, multiplier, maxDelay, jitter)
+ * - 일반 메서드: 호출한 쓰레드에서 대기 후 재시도
+ * - CompletableFuture 반환 메서드: 공용 스케줄러에 재시도 예약, 호출한 쓰레드는 바로 반환
+ *   스케줄러 쓰레드는 대기만 하고, 재시도는 executor(기본: ForkJoinPool.commonPool())에 넘겨서 실행한다.
+ *   (시도가 쓰레드를 오래 잡는 메서드는 전용 executor 를 넘긴다.)
+ *
+ * 재시도 폭주 방지: 메서드별 RetryGuard (재시도 예산 + 서킷 브레이커)
+ * - 서킷 OPEN: 호출하지 않고 CircuitBreakerOpenException
+ * - 예산 부족: 재시도 하지 않고 마지막 예외를 던진다.
+ * - 재시도 대상이 아닌 예외, 실행하지 않은 재시도: 서킷 시험 호출을 돌려준다. (HALF_OPEN 에 머물지 않도록)
+ * - 상태 조회: getPolicies().statuses()
+ *
+ * @Trace 호출 트리 안에서 실행되면 시도마다 span 을 남긴다. (어떤 시도가 느렸는지)
+ *
+ * Deadline (바깥 @Timeout 등): 남은 시간이 다음 대기 + 직전 시도 시간보다 짧으면 재시도 하지 않는다.
+ * 비동기 재시도는 호출 시점의 컨텍스트(MDC, trace, deadline)를 가지고 executor 에서 실행된다.
+ *
+ * FaultInjectionAspect(LOWEST_PRECEDENCE) 보다 바깥에서 실행되어야 시도마다 장애가 다시 주입된다.
  */
 @Slf4j
 @Aspect
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
 public class RetryAspect {
-    @Around("@annotation(retry)")
-    public Object doRetry(ProceedingJoinPoint joinPoint, Retry retry) throws Throwable {
-        log.info("[retry] {} retry={}", joinPoint.getSignature(), retry);
+    private final ScheduledExecutorService scheduler;
+    private final Executor executor;
+    private final RetryPolicies policies = new RetryPolicies();
+
+    public RetryAspect() {
+        this(RetryScheduler.shared());
+    }
 
-        int maxRetry = retry.value();
-        Exception exceptionHolder = null;
+    public RetryAspect(ScheduledExecutorService scheduler) {
+        this(scheduler, ForkJoinPool.commonPool());
+    }
+
+    public RetryAspect(ScheduledExecutorService scheduler, Executor executor) {
+        this.scheduler = scheduler;
+        this.executor = executor;
+    }
+
+    @Around("execution(* *(..)) && @annotation(hello.aop.exam.annotation.Retry)")
+    public Object doRetry(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        RetryPolicy policy = policies.get(signature.getMethod(), joinPoint.getTarget());
+        RetryGuard guard = policy.getGuard();
+
+        if (!guard.tryCall()) {
+            throw new CircuitBreakerOpenException("circuit open: " + policy.getName());
+        }
+
+        if (isAsync(signature.getReturnType())) {
+            CompletableFuture<Object> result = new CompletableFuture<>();
+            retryAsync(DetachedProceed.of(joinPoint), ContextSnapshot.capture(), policy, 1, 0, result);
+            return result;
+        }
+
+        int maxRetry = policy.getMaxRetry();
+        Backoff backoff = policy.getBackoff();
+        Throwable exceptionHolder = null;
+        long delay = 0;
+        TraceContext trace = TraceContext.current();
+        boolean traced = !trace.isIdle() && trace.isSampled();
+        Deadline deadline = Deadline.current();
 
         for (int retryCount = 1; retryCount <= maxRetry; retryCount++) {
+            long span = traced ? trace.enter(policy.attemptName(retryCount)) : TraceContext.NOT_SAMPLED;
+            long attemptStart = System.nanoTime();
             try {
-                log.info("[retry] try count={}/{}", retryCount, maxRetry);
-                return joinPoint.proceed();
-            } catch (Exception e) {
+                Object result = joinPoint.proceed();
+                if (traced) {
+                    trace.exit(span, null);
+                }
+                guard.onSuccess();
+                return result;
+            } catch (Throwable e) {
+                if (traced) {
+                    trace.exit(span, e);
+                }
+                if (!policy.isRetryable(e)) {
+                    guard.release();
+                    throw e;
+                }
                 exceptionHolder = e;
+                guard.onFailure();
+                if (retryCount >= maxRetry) {
+                    break;
+                }
+                if (!guard.tryRetry()) {
+                    log.warn("[retry] suppressed {}", guard.status());
+                    break;
+                }
+                if (!backoff.isNone()) {
+                    delay = backoff.nextDelay(retryCount, delay);
+                }
+                if (!withinDeadline(deadline, policy, delay, System.nanoTime() - attemptStart)
+                        || delay > 0 && !sleep(delay)) {
+                    guard.release();
+                    break;
+                }
+                log.info("[retry] {} try count={}/{}", policy.getName(), retryCount + 1, maxRetry);
             }
         }
         throw exceptionHolder;
     }
+
+    public RetryPolicies getPolicies() {
+        return policies;
+    }
+
+    private void retryAsync(DetachedProceed proceed, ContextSnapshot context, RetryPolicy policy,
+                            int retryCount, long previousDelay, CompletableFuture<Object> result) {
+        RetryGuard guard = policy.getGuard();
+        Deadline deadline = Deadline.current();
+        long attemptStart = System.nanoTime();
+        CompletionStage<?> attempt;
+        try {
+            attempt = (CompletionStage<?>) proceed.proceed();
+        } catch (Throwable e) {
+            attempt = CompletableFuture.failedFuture(e);
+        }
+        if (attempt == null) {
+            result.complete(null);
+            return;
+        }
+
+        attempt.whenComplete((value, ex) -> {
+            if (ex == null) {
+                guard.onSuccess();
+                result.complete(value);
+                return;
+            }
+            Throwable cause = unwrap(ex);
+            if (!policy.isRetryable(cause)) {
+                guard.release();
+                result.completeExceptionally(cause);
+                return;
+            }
+            guard.onFailure();
+            if (retryCount >= policy.getMaxRetry()) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            if (!guard.tryRetry()) {
+                log.warn("[retry] suppressed {}", guard.status());
+                result.completeExceptionally(cause);
+                return;
+            }
+            long delay = policy.getBackoff().nextDelay(retryCount, previousDelay);
+            if (!withinDeadline(deadline, policy, delay, System.nanoTime() - attemptStart)) {
+                guard.release();
+                result.completeExceptionally(cause);
+                return;
+            }
+            log.info("[retry] {} async try count={}/{} after {}ms",
+                    policy.getName(), retryCount + 1, policy.getMaxRetry(), delay);
+            Runnable next = context.wrap(() -> retryAsync(proceed, context, policy, retryCount + 1, delay, result));
+            try {
+                scheduler.schedule(() -> handOff(next, guard, cause, result), delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                reject(guard, cause, e, result);
+            }
+        });
+    }
+
+    //스케줄러 쓰레드에서는 시도를 실행하지 않는다. (모든 비동기 재시도가 쓰레드 1개를 나눠 쓰지 않도록)
+    private void handOff(Runnable next, RetryGuard guard, Throwable cause, CompletableFuture<Object> result) {
+        try {
+            executor.execute(next);
+        } catch (RejectedExecutionException e) {
+            reject(guard, cause, e, result);
+        }
+    }
+
+    //실행하지 못한 재시도: 마지막 예외로 끝낸다.
+    private static void reject(RetryGuard guard, Throwable cause, RejectedExecutionException e,
+                               CompletableFuture<Object> result) {
+        guard.release();
+        cause.addSuppressed(e);
+        result.completeExceptionally(cause);
+    }
+
+    //남은 시간으로 대기 + 한 번 더 시도(직전 시도 시간으로 추정)를 할 수 있는지 (생성된 데코레이터도 사용)
+    public static boolean withinDeadline(Deadline deadline, RetryPolicy policy, long delayMillis, long attemptNanos) {
+        if (deadline == null || deadline.covers(TimeUnit.MILLISECONDS.toNanos(delayMillis) + attemptNanos)) {
+            return true;
+        }
+        log.warn("[retry] {} stopped, {} can't cover delay={}ms attempt={}ms", policy.getName(), deadline,
+                delayMillis, TimeUnit.NANOSECONDS.toMillis(attemptNanos));
+        return false;
+    }
+
+    //CompletableFuture, CompletionStage 반환 메서드만 비동기로 처리
+    private static boolean isAsync(Class<?> returnType) {
+        return CompletionStage.class.isAssignableFrom(returnType)
+                && returnType.isAssignableFrom(CompletableFuture.class);
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        if (ex instanceof CompletionException && ex.getCause() != null) {
+            return ex.getCause();
+        }
+        return ex;
+    }
+
+    //인터럽트 되면 더 이상 재시도 하지 않는다. (생성된 데코레이터도 사용)
+    public static boolean sleep(long delay) {
+        try {
+            Thread.sleep(delay);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
 }
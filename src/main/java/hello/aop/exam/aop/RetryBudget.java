@@ -0,0 +1,58 @@
+package hello.aop.exam.aop;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 재시도 예산 (lock-free 토큰 버킷)
+ * 성공 1번마다 ratio 만큼 토큰 적립, 재시도 1번마다 토큰 1개 사용
+ * -> 장애가 나서 성공이 없으면 재시도가 최대 maxTokens 번으로 제한된다.
+ * 토큰은 소수점 계산을 피하려고 1/1000 단위로 저장한다.
+ */
+public class RetryBudget {
+    private static final long UNIT = 1000;
+
+    private final long depositPerSuccess;
+    private final long capacity;
+    private final AtomicLong tokens;
+    private final LongAdder suppressed = new LongAdder();
+
+    public RetryBudget(double ratio, int maxTokens) {
+        this.depositPerSuccess = Math.round(Math.max(0, ratio) * UNIT);
+        this.capacity = Math.max(1, maxTokens) * UNIT;
+        this.tokens = new AtomicLong(capacity);
+    }
+
+    public void onSuccess() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current >= capacity) {
+                return; //가득 차 있으면 쓰기 없음
+            }
+        } while (!tokens.compareAndSet(current, Math.min(capacity, current + depositPerSuccess)));
+    }
+
+    /**
+     * @return false: 예산 부족, 재시도 하지 않는다.
+     */
+    public boolean tryAcquire() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current < UNIT) {
+                suppressed.increment();
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - UNIT));
+        return true;
+    }
+
+    public double tokens() {
+        return tokens.get() / (double) UNIT;
+    }
+
+    public long suppressed() {
+        return suppressed.sum();
+    }
+}
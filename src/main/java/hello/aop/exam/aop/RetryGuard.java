@@ -0,0 +1,64 @@
+package hello.aop.exam.aop;
+
+import hello.aop.exam.annotation.Retry;
+
+/**
+ * 메서드 1개의 재시도 예산 + 서킷 브레이커
+ */
+public class RetryGuard {
+    private final String name;
+    private final RetryBudget budget;
+    private final CircuitBreaker circuitBreaker;
+
+    public RetryGuard(String name, RetryBudget budget, CircuitBreaker circuitBreaker) {
+        this.name = name;
+        this.budget = budget;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public static RetryGuard of(String name, Retry retry) {
+        return new RetryGuard(name,
+                new RetryBudget(retry.budgetRatio(), retry.budgetTokens()),
+                new CircuitBreaker(retry.failureThreshold(), retry.openMillis()));
+    }
+
+    //첫 호출: 서킷만 확인
+    public boolean tryCall() {
+        return circuitBreaker.tryAcquire();
+    }
+
+    //재시도: 서킷 먼저 확인하고, 재시도를 실행할 때만 예산 토큰을 쓴다.
+    public boolean tryRetry() {
+        if (!circuitBreaker.tryAcquire()) {
+            return false;
+        }
+        if (!budget.tryAcquire()) {
+            circuitBreaker.release(); //HALF_OPEN 시험 호출을 잡았으면 돌려준다.
+            return false;
+        }
+        return true;
+    }
+
+    public void onSuccess() {
+        budget.onSuccess();
+        circuitBreaker.onSuccess();
+    }
+
+    public void onFailure() {
+        circuitBreaker.onFailure();
+    }
+
+    //재시도 대상이 아닌 예외, 실행하지 않은 재시도: 서킷 시험 호출만 돌려준다.
+    public void release() {
+        circuitBreaker.release();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RetryGuardStatus status() {
+        return new RetryGuardStatus(name, circuitBreaker.state(), budget.tokens(),
+                budget.suppressed(), circuitBreaker.rejected());
+    }
+}
@@ -0,0 +1,35 @@
+package hello.aop.exam.aop;
+
+import lombok.Getter;
+
+/**
+ * 운영 조회용 스냅샷
+ * suppressing: 지금 재시도(또는 호출)가 막히고 있는지
+ */
+@Getter
+public class RetryGuardStatus {
+    private final String name;
+    private final CircuitBreaker.State state;
+    private final double tokens;
+    private final long suppressedRetries;
+    private final long rejectedCalls;
+
+    public RetryGuardStatus(String name, CircuitBreaker.State state, double tokens,
+                            long suppressedRetries, long rejectedCalls) {
+        this.name = name;
+        this.state = state;
+        this.tokens = tokens;
+        this.suppressedRetries = suppressedRetries;
+        this.rejectedCalls = rejectedCalls;
+    }
+
+    public boolean isSuppressing() {
+        return state != CircuitBreaker.State.CLOSED || tokens < 1;
+    }
+
+    @Override
+    public String toString() {
+        return "RetryGuardStatus{name=" + name + ", state=" + state + ", tokens=" + tokens
+                + ", suppressedRetries=" + suppressedRetries + ", rejectedCalls=" + rejectedCalls + '}';
+    }
+}
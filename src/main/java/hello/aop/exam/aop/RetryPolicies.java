@@ -0,0 +1,57 @@
+package hello.aop.exam.aop;
+
+import hello.aop.exam.annotation.Retry;
+import hello.aop.support.SpecificMethods;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * @Retry 메서드별 RetryPolicy 캐시 + 상태 조회 API
+ * 처음 호출될 때만 어노테이션을 읽고, 이후에는 map 조회 1번
+ */
+public class RetryPolicies {
+    private final ConcurrentMap<Method, RetryPolicy> policies = new ConcurrentHashMap<>();
+
+    //구현 메서드별 정책 (JDK 동적 프록시면 인터페이스 메서드가 넘어온다. 구현체끼리 서킷/예산을 나눠 쓰지 않는다.)
+    public RetryPolicy get(Method method, Object target) {
+        Method specificMethod = SpecificMethods.of(method, target);
+        RetryPolicy policy = policies.get(specificMethod);
+        if (policy != null) {
+            return policy;
+        }
+        return policies.computeIfAbsent(specificMethod, RetryPolicies::resolve);
+    }
+
+    private static RetryPolicy resolve(Method specificMethod) {
+        Retry retry = AnnotatedElementUtils.findMergedAnnotation(specificMethod, Retry.class);
+        if (retry == null) {
+            throw new IllegalStateException("@Retry not found: " + specificMethod);
+        }
+        String name = specificMethod.getDeclaringClass().getSimpleName() + "." + specificMethod.getName();
+        return RetryPolicy.of(name, retry);
+    }
+
+    public List<RetryGuardStatus> statuses() {
+        List<RetryGuardStatus> statuses = new ArrayList<>();
+        for (RetryPolicy policy : policies.values()) {
+            statuses.add(policy.getGuard().status());
+        }
+        return statuses;
+    }
+
+    //ex) status("ExamRepository.save")
+    public Optional<RetryGuardStatus> status(String name) {
+        for (RetryPolicy policy : policies.values()) {
+            if (policy.getName().equals(name)) {
+                return Optional.of(policy.getGuard().status());
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,78 @@
+package hello.aop.exam.aop;
+
+import hello.aop.exam.annotation.Retry;
+
+/**
+ * @Retry 를 한 번만 읽어서 만든 메서드별 재시도 정책 (불변)
+ * 호출마다 어노테이션을 다시 읽지 않는다.
+ */
+public class RetryPolicy {
+    private final String name;
+    private final int maxRetry;
+    private final Backoff backoff;
+    private final Class<? extends Throwable>[] retryOn;
+    private final Class<? extends Throwable>[] noRetryFor;
+    private final RetryGuard guard;
+    private final String[] attemptNames; //호출 트리 span 이름
+
+    public RetryPolicy(String name, int maxRetry, Backoff backoff, Class<? extends Throwable>[] retryOn,
+                       Class<? extends Throwable>[] noRetryFor, RetryGuard guard) {
+        this.name = name;
+        this.maxRetry = maxRetry;
+        this.backoff = backoff;
+        this.retryOn = retryOn.clone();
+        this.noRetryFor = noRetryFor.clone();
+        this.guard = guard;
+        this.attemptNames = new String[Math.max(0, maxRetry)];
+        for (int i = 0; i < attemptNames.length; i++) {
+            attemptNames[i] = "[retry] " + name + " attempt " + (i + 1) + "/" + maxRetry;
+        }
+    }
+
+    public static RetryPolicy of(String name, Retry retry) {
+        return new RetryPolicy(name, retry.value(), Backoff.of(retry), retry.retryOn(), retry.noRetryFor(),
+                RetryGuard.of(name, retry));
+    }
+
+    /**
+     * noRetryFor 가 retryOn 보다 우선
+     */
+    public boolean isRetryable(Throwable ex) {
+        for (Class<? extends Throwable> type : noRetryFor) {
+            if (type.isInstance(ex)) {
+                return false;
+            }
+        }
+        for (Class<? extends Throwable> type : retryOn) {
+            if (type.isInstance(ex)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxRetry() {
+        return maxRetry;
+    }
+
+    public Backoff getBackoff() {
+        return backoff;
+    }
+
+    public RetryGuard getGuard() {
+        return guard;
+    }
+
+    public String attemptName(int retryCount) {
+        return attemptNames[retryCount - 1];
+    }
+
+    @Override
+    public String toString() {
+        return "RetryPolicy{name=" + name + ", maxRetry=" + maxRetry + ", " + backoff + '}';
+    }
+}
@@ -0,0 +1,28 @@
+package hello.aop.exam.aop;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 비동기 재시도 공용 스케줄러
+ * 대기는 스케줄러가 하고, 호출한 쓰레드는 재우지 않는다.
+ * 쓰레드 1개로 대기만 하고, 재시도 실행은 RetryAspect 의 executor 로 넘긴다.
+ */
+public abstract class RetryScheduler {
+
+    private static final ScheduledExecutorService SHARED = create();
+
+    public static ScheduledExecutorService shared() {
+        return SHARED;
+    }
+
+    private static ScheduledExecutorService create() {
+        AtomicInteger sequence = new AtomicInteger();
+        return Executors.newScheduledThreadPool(1, runnable -> {
+            Thread thread = new Thread(runnable, "retry-scheduler-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -1,19 +1,44 @@
 package hello.aop.exam.aop;
 
-import lombok.extern.slf4j.Slf4j;
-import org.aspectj.lang.JoinPoint;
+import hello.aop.log.AopLogger;
+import hello.aop.trace.SpanNames;
+import hello.aop.trace.TraceContext;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Before;
 
 /**
- * JoinPoint joinPoint: 실제 호출 대상(target) 호출
+ * @Trace 호출을 트리로 추적
+ * - 가장 바깥 @Trace 호출(루트)에서 샘플링 여부를 정한다. (로그 레벨 + AopLogger 샘플러)
+ * - 안쪽 @Trace 호출, 재시도는 span 으로 기록하고 루트가 끝날 때 트리 전체를 한 번에 남긴다.
+ * - 샘플링 된 span 에는 인자를 남긴다. (AopLogger.args: 트리를 출력할 때 최대 길이까지만 렌더링)
+ * - 샘플링 안된 호출은 joinPoint 를 건드리지 않는다.
  */
-@Slf4j
 @Aspect
 public class TraceAspect {
-    @Before("@annotation(hello.aop.exam.annotation.Trace)")
-    public void doTrace(JoinPoint joinPoint) {
-        Object[] args = joinPoint.getArgs();
-        log.info("[trace] {} args={}", joinPoint.getSignature(), args);
+    private static final AopLogger log = AopLogger.of(TraceAspect.class);
+
+    @Around("execution(* *(..)) && @annotation(hello.aop.exam.annotation.Trace)")
+    public Object doTrace(ProceedingJoinPoint joinPoint) throws Throwable {
+        TraceContext context = TraceContext.current();
+        if (context.isIdle()) {
+            context.begin(log.isEnabled());
+        }
+
+        long span = context.isSampled()
+                ? context.enter(SpanNames.of(joinPoint), AopLogger.args(joinPoint))
+                : context.enter(null);
+        Throwable error = null;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            String tree = context.exit(span, error);
+            if (tree != null) {
+                log.info("{}", tree);
+            }
+        }
     }
 }
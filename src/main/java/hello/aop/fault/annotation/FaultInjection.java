@@ -0,0 +1,26 @@
+package hello.aop.fault.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 장애 주입: 지연 후 확률(failureRate) 또는 N번에 1번(failEvery) 예외 발생
+ * 여러 쓰레드에서 호출해도 실패 비율이 정확하다. (쓰레드별 난수, 공유 카운터는 AtomicLong)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface FaultInjection {
+    double failureRate() default 0; //0 ~ 1
+
+    int failEvery() default 0; //N번째 호출마다 실패, 0이면 사용 안함
+
+    Class<? extends RuntimeException> exception() default IllegalStateException.class; //(String) 생성자 필요
+
+    String message() default "injected fault";
+
+    Latency latency() default Latency.NONE;
+
+    long latencyMillis() default 0;
+}
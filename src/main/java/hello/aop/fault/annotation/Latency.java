@@ -0,0 +1,11 @@
+package hello.aop.fault.annotation;
+
+/**
+ * 주입할 지연 시간 분포 (latencyMillis 기준)
+ */
+public enum Latency {
+    NONE,
+    FIXED, //항상 latencyMillis
+    UNIFORM, //0 ~ latencyMillis
+    EXPONENTIAL //평균 latencyMillis, 가끔 아주 긴 지연 (tail latency)
+}
@@ -0,0 +1,57 @@
+package hello.aop.fault.aop;
+
+import hello.aop.fault.annotation.FaultInjection;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * @FaultInjection 메서드 실행 전에 지연/예외 주입
+ * 가장 안쪽에서 실행되어야 @Retry 가 재시도 할 때마다 다시 주입된다. (LOWEST_PRECEDENCE)
+ *
+ * setFailureRateOverride(rate): 실행 중 모든 메서드의 실패 확률 변경 (음수: 어노테이션 설정 사용)
+ */
+@Aspect
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class FaultInjectionAspect {
+    private final ConcurrentMap<Method, FaultPolicy> policies = new ConcurrentHashMap<>();
+    private volatile double failureRateOverride = -1;
+
+    @Before("@annotation(hello.aop.fault.annotation.FaultInjection)")
+    public void doInject(JoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        FaultPolicy policy = policies.get(method);
+        if (policy == null) {
+            policy = policies.computeIfAbsent(method, key -> resolve(key, joinPoint.getTarget()));
+        }
+        policy.inject(failureRateOverride);
+    }
+
+    private static FaultPolicy resolve(Method method, Object target) {
+        Method specificMethod = AopUtils.getMostSpecificMethod(method, AopUtils.getTargetClass(target));
+        FaultInjection fault = AnnotatedElementUtils.findMergedAnnotation(specificMethod, FaultInjection.class);
+        if (fault == null) {
+            throw new IllegalStateException("@FaultInjection not found: " + specificMethod);
+        }
+        return new FaultPolicy(specificMethod.getDeclaringClass().getSimpleName() + "." + specificMethod.getName(), fault);
+    }
+
+    public void setFailureRateOverride(double failureRateOverride) {
+        this.failureRateOverride = failureRateOverride;
+    }
+
+    public List<FaultPolicy> getPolicies() {
+        return new ArrayList<>(policies.values());
+    }
+}
@@ -0,0 +1,115 @@
+package hello.aop.fault.aop;
+
+import hello.aop.fault.annotation.FaultInjection;
+import hello.aop.fault.annotation.Latency;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @FaultInjection 을 한 번만 읽어서 만든 메서드별 장애 주입 설정 + 카운터
+ */
+public class FaultPolicy {
+    private final String name;
+    private final double failureRate;
+    private final int failEvery;
+    private final Constructor<? extends RuntimeException> exceptionConstructor;
+    private final String message;
+    private final Latency latency;
+    private final long latencyNanos;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder injectedLatencyNanos = new LongAdder();
+
+    public FaultPolicy(String name, FaultInjection fault) {
+        this.name = name;
+        this.failureRate = fault.failureRate();
+        this.failEvery = fault.failEvery();
+        this.message = fault.message();
+        this.latency = fault.latency();
+        this.latencyNanos = TimeUnit.MILLISECONDS.toNanos(fault.latencyMillis());
+        try {
+            this.exceptionConstructor = fault.exception().getConstructor(String.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("(String) constructor required: " + fault.exception(), e);
+        }
+    }
+
+    /**
+     * @param failureRateOverride 0 이상이면 어노테이션 설정 대신 사용 (failEvery 무시)
+     */
+    public void inject(double failureRateOverride) {
+        calls.increment();
+        delay();
+        if (shouldFail(failureRateOverride)) {
+            failures.increment();
+            throw newException();
+        }
+    }
+
+    private boolean shouldFail(double failureRateOverride) {
+        if (failureRateOverride >= 0) {
+            return ThreadLocalRandom.current().nextDouble() < failureRateOverride;
+        }
+        if (failEvery > 0 && sequence.incrementAndGet() % failEvery == 0) {
+            return true;
+        }
+        return failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate;
+    }
+
+    private void delay() {
+        long nanos = nextLatencyNanos();
+        if (nanos <= 0) {
+            return;
+        }
+        injectedLatencyNanos.add(nanos);
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long nextLatencyNanos() {
+        switch (latency) {
+            case FIXED:
+                return latencyNanos;
+            case UNIFORM:
+                return latencyNanos <= 0 ? 0 : ThreadLocalRandom.current().nextLong(latencyNanos + 1);
+            case EXPONENTIAL:
+                return (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * latencyNanos);
+            default:
+                return 0;
+        }
+    }
+
+    private RuntimeException newException() {
+        try {
+            return exceptionConstructor.newInstance(message);
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            return new IllegalStateException(message, e);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    public long getInjectedLatencyNanos() {
+        return injectedLatencyNanos.sum();
+    }
+}
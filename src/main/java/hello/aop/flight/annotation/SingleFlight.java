@@ -0,0 +1,15 @@
+package hello.aop.flight.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 인자가 같은 호출이 동시에 들어오면 한 번만 실행하고 결과(또는 예외)를 나눠 받는다.
+ * 실행이 끝난 뒤 들어온 호출은 다시 실행한다. (캐시 아님, 캐시는 @Memoize)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SingleFlight {
+}
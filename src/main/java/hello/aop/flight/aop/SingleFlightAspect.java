@@ -0,0 +1,146 @@
+package hello.aop.flight.aop;
+
+import hello.aop.support.ArgumentsKey;
+import hello.aop.support.SpecificMethods;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @SingleFlight: 같은 인자로 실행 중인 호출이 있으면 그 결과를 기다린다.
+ * - 구현 메서드마다 실행 중 호출 맵 (키: 대상 객체 + 인자, 값: 결과 future)
+ *   같은 인터페이스 메서드의 다른 구현체, 같은 클래스의 다른 빈 호출은 합치지 않는다.
+ * - 먼저 온 호출(leader)만 실행, 끝나면 맵에서 제거한 뒤 future 를 완료한다.
+ * - CompletionStage 반환 메서드는 반환한 stage 가 끝날 때까지 실행 중으로 본다.
+ * - 결과 객체는 모든 호출자가 공유한다. (변경 가능한 객체를 반환하는 메서드에는 사용하지 않는다.)
+ *
+ * @Offload 바로 안쪽에서 실행된다. @Retry, @Trace 까지 포함해서 한 번만 실행
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class SingleFlightAspect {
+    private final ConcurrentMap<Method, ConcurrentMap<CallKey, CompletableFuture<Object>>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+
+    @Around("@annotation(hello.aop.flight.annotation.SingleFlight)")
+    public Object doSingleFlight(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        Object target = joinPoint.getTarget();
+        ConcurrentMap<CallKey, CompletableFuture<Object>> calls = calls(SpecificMethods.of(signature.getMethod(), target));
+        boolean async = CompletionStage.class.isAssignableFrom(signature.getReturnType());
+
+        CallKey key = new CallKey(target, ArgumentsKey.of(joinPoint.getArgs()));
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> leader = calls.putIfAbsent(key, flight);
+        if (leader != null) {
+            shared.increment();
+            return async ? leader.copy() : await(leader); //호출자가 leader 의 future 를 완료시키지 못하게
+        }
+
+        executions.increment();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            calls.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        if (async && result != null) {
+            ((CompletionStage<?>) result).whenComplete((value, ex) -> {
+                calls.remove(key, flight);
+                if (ex != null) {
+                    flight.completeExceptionally(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+                } else {
+                    flight.complete(value);
+                }
+            });
+            return result;
+        }
+        calls.remove(key, flight);
+        flight.complete(result);
+        return result;
+    }
+
+    private ConcurrentMap<CallKey, CompletableFuture<Object>> calls(Method method) {
+        ConcurrentMap<CallKey, CompletableFuture<Object>> calls = inFlight.get(method);
+        if (calls == null) {
+            calls = inFlight.computeIfAbsent(method, key -> new ConcurrentHashMap<>());
+        }
+        return calls;
+    }
+
+    private static Object await(CompletableFuture<Object> leader) throws Throwable {
+        try {
+            return leader.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); //leader 는 계속 실행
+            throw e;
+        }
+    }
+
+    //실제 실행 횟수
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    //다른 호출의 결과를 나눠 받은 횟수
+    public long getShared() {
+        return shared.sum();
+    }
+
+    public int inFlight() {
+        int count = 0;
+        for (ConcurrentMap<CallKey, CompletableFuture<Object>> calls : inFlight.values()) {
+            count += calls.size();
+        }
+        return count;
+    }
+
+    /**
+     * 대상 객체(동일성) + 인자
+     */
+    private static final class CallKey {
+        private final Object target;
+        private final Object arguments;
+        private final int hashCode;
+
+        CallKey(Object target, Object arguments) {
+            this.target = target;
+            this.arguments = arguments;
+            this.hashCode = 31 * System.identityHashCode(target) + arguments.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CallKey)) {
+                return false;
+            }
+            CallKey other = (CallKey) o;
+            return target == other.target && arguments.equals(other.arguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package hello.aop.fusion;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AbstractAspectJAdvice;
+import org.springframework.aop.aspectj.InstantiationModelAwarePointcutAdvisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 정렬된 어드바이저 목록에서 같은 aspect, 같은 포인트컷의 어드바이스가 연속으로 있으면 FusedAdviceInterceptor 하나로 합친다.
+ * 연속된 것만 합치므로 정렬된 순서(= 인터셉터 체인 순서)는 그대로다.
+ * 합치지 않는 경우: perthis 등 인스턴스별 aspect, args() 등으로 인자를 바인딩하는 어드바이스
+ */
+public abstract class AdviceFusion {
+
+    public static List<Advisor> fuse(List<Advisor> advisors) {
+        List<Advisor> fused = new ArrayList<>(advisors.size());
+        int i = 0;
+        while (i < advisors.size()) {
+            AbstractAspectJAdvice first = fusibleAdvice(advisors.get(i));
+            int end = i + 1;
+            if (first != null) {
+                while (end < advisors.size() && sameGroup(first, fusibleAdvice(advisors.get(end)))) {
+                    end++;
+                }
+            }
+            if (end - i < 2) {
+                fused.add(advisors.get(i));
+                i++;
+                continue;
+            }
+            List<AbstractAspectJAdvice> advices = new ArrayList<>(end - i);
+            for (int j = i; j < end; j++) {
+                advices.add((AbstractAspectJAdvice) advisors.get(j).getAdvice());
+            }
+            FusedAdviceInterceptor interceptor = new FusedAdviceInterceptor(first.getAspectName(), advices);
+            fused.add(new DefaultPointcutAdvisor(first.getPointcut(), interceptor));
+            i = end;
+        }
+        return fused;
+    }
+
+    /**
+     * 이미 만든 프록시(AspectJProxyFactory 등)의 어드바이저를 합친다. (frozen 이면 바꿀 수 없음)
+     *
+     * @return 합쳐서 바뀌었으면 true
+     */
+    public static boolean fuse(Advised advised) {
+        List<Advisor> advisors = List.of(advised.getAdvisors());
+        List<Advisor> fused = fuse(advisors);
+        if (fused.size() == advisors.size()) {
+            return false;
+        }
+        for (int i = advisors.size() - 1; i >= 0; i--) {
+            advised.removeAdvisor(i);
+        }
+        for (Advisor advisor : fused) {
+            advised.addAdvisor(advisor);
+        }
+        return true;
+    }
+
+    private static AbstractAspectJAdvice fusibleAdvice(Advisor advisor) {
+        if (!(advisor instanceof InstantiationModelAwarePointcutAdvisor)
+                || ((InstantiationModelAwarePointcutAdvisor) advisor).isPerInstance()) {
+            return null;
+        }
+        if (!(advisor.getAdvice() instanceof AbstractAspectJAdvice)) {
+            return null;
+        }
+        AbstractAspectJAdvice advice = (AbstractAspectJAdvice) advisor.getAdvice();
+        return FusedAdviceInterceptor.isFusible(advice) ? advice : null;
+    }
+
+    private static boolean sameGroup(AbstractAspectJAdvice first, AbstractAspectJAdvice advice) {
+        return advice != null
+                && first.getAspectName().equals(advice.getAspectName())
+                && first.getPointcut().equals(advice.getPointcut());
+    }
+}
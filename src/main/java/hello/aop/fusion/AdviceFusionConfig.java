@@ -0,0 +1,25 @@
+package hello.aop.fusion;
+
+import org.springframework.aop.config.AopConfigUtils;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * @Import(AdviceFusionConfig.class) 로 사용
+ * 스프링 부트가 등록한 AutoProxyCreator 빈의 클래스를 FusingAspectJAutoProxyCreator 로 바꾼다.
+ * HiddenProxyConfig 도 같은 빈을 바꾸므로 둘 중 하나만 사용한다.
+ */
+public class AdviceFusionConfig {
+
+    @Bean
+    public static BeanFactoryPostProcessor fusingAutoProxyCreatorPostProcessor() {
+        return beanFactory -> {
+            BeanDefinitionRegistry registry = (BeanDefinitionRegistry) beanFactory;
+            if (registry.containsBeanDefinition(AopConfigUtils.AUTO_PROXY_CREATOR_BEAN_NAME)) {
+                registry.getBeanDefinition(AopConfigUtils.AUTO_PROXY_CREATOR_BEAN_NAME)
+                        .setBeanClassName(FusingAspectJAutoProxyCreator.class.getName());
+            }
+        };
+    }
+}
@@ -0,0 +1,256 @@
+package hello.aop.fusion;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.springframework.aop.AopInvocationException;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.aspectj.AbstractAspectJAdvice;
+import org.springframework.aop.aspectj.AspectJAfterAdvice;
+import org.springframework.aop.aspectj.AspectJAfterReturningAdvice;
+import org.springframework.aop.aspectj.AspectJAfterThrowingAdvice;
+import org.springframework.aop.aspectj.AspectJAroundAdvice;
+import org.springframework.aop.aspectj.AspectJMethodBeforeAdvice;
+import org.springframework.aop.aspectj.MethodInvocationProceedingJoinPoint;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * 같은 aspect, 같은 포인트컷의 어드바이스 여러 개를 인터셉터 하나로 실행 (AdviceFusion 이 생성)
+ * 스프링이 만드는 인터셉터 체인과 순서가 같다. (정렬된 순서대로 바깥 -> 안쪽)
+ * - @Before: 실행 후 안쪽 진행, @After: finally, @AfterReturning: 정상 반환 후, @AfterThrowing: 예외 후 다시 던짐
+ * - @Around: ProceedingJoinPoint.proceed() 가 안쪽 어드바이스부터 진행
+ * 어드바이스마다 MethodInvocation.proceed(), JoinPointMatch 조회, 인자 바인딩 계산을 하지 않고 JoinPoint 를 한 번만 만든다.
+ */
+public class FusedAdviceInterceptor implements MethodInterceptor {
+    private final String aspectName;
+    private final Step[] steps;
+
+    FusedAdviceInterceptor(String aspectName, List<AbstractAspectJAdvice> advices) {
+        this.aspectName = aspectName;
+        this.steps = new Step[advices.size()];
+        for (int i = 0; i < steps.length; i++) {
+            steps[i] = new Step(advices.get(i));
+        }
+    }
+
+    /**
+     * 인자가 JoinPoint(첫 번째), @AfterReturning returning, @AfterThrowing throwing 뿐인 어드바이스만 합칠 수 있다.
+     * (args() 등으로 바인딩하는 인자가 있으면 스프링 인터셉터로 실행)
+     */
+    static boolean isFusible(AbstractAspectJAdvice advice) {
+        return Kind.of(advice) != null && Step.valueIndex(advice) != Step.UNSUPPORTED;
+    }
+
+    public int size() {
+        return steps.length;
+    }
+
+    public Class<?> getAspectClass() {
+        return steps[0].method.getDeclaringClass();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation mi) throws Throwable {
+        if (!(mi instanceof ProxyMethodInvocation)) {
+            throw new IllegalStateException("MethodInvocation is not a Spring ProxyMethodInvocation: " + mi);
+        }
+        ProxyMethodInvocation invocation = (ProxyMethodInvocation) mi;
+        //@Around 는 자기 ProceedingJoinPoint 를 만들고, 나머지는 같은 JoinPoint 를 공유한다.
+        JoinPoint joinPoint = steps[0].kind == Kind.AROUND ? null : new MethodInvocationProceedingJoinPoint(invocation);
+        return proceed(0, invocation, joinPoint);
+    }
+
+    private Object proceed(int index, ProxyMethodInvocation invocation, JoinPoint joinPoint) throws Throwable {
+        if (index == steps.length) {
+            return invocation.proceed();
+        }
+        Step step = steps[index];
+        switch (step.kind) {
+            case AROUND: {
+                FusedJoinPoint around = new FusedJoinPoint(invocation, this, index + 1);
+                return step.invoke(around, null);
+            }
+            case BEFORE:
+                step.invoke(joinPoint, null);
+                return proceed(index + 1, invocation, joinPoint);
+            case AFTER:
+                try {
+                    return proceed(index + 1, invocation, joinPoint);
+                } finally {
+                    step.invoke(joinPoint, null);
+                }
+            case AFTER_RETURNING: {
+                Object result = proceed(index + 1, invocation, joinPoint);
+                if (step.matchesReturnValue(invocation.getMethod(), result)) {
+                    step.invoke(joinPoint, result);
+                }
+                return result;
+            }
+            case AFTER_THROWING:
+                try {
+                    return proceed(index + 1, invocation, joinPoint);
+                } catch (Throwable ex) {
+                    if (step.valueType.isInstance(ex)) {
+                        step.invoke(joinPoint, ex);
+                    }
+                    throw ex;
+                }
+            default:
+                throw new IllegalStateException("unknown advice kind=" + step.kind);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "FusedAdviceInterceptor[" + aspectName + ": ", "]");
+        for (Step step : steps) {
+            joiner.add(step.kind + " " + step.method.getName());
+        }
+        return joiner.toString();
+    }
+
+    enum Kind {
+        AROUND, BEFORE, AFTER, AFTER_RETURNING, AFTER_THROWING;
+
+        static Kind of(AbstractAspectJAdvice advice) {
+            if (advice instanceof AspectJAroundAdvice) {
+                return AROUND;
+            }
+            if (advice instanceof AspectJMethodBeforeAdvice) {
+                return BEFORE;
+            }
+            if (advice instanceof AspectJAfterAdvice) {
+                return AFTER;
+            }
+            if (advice instanceof AspectJAfterReturningAdvice) {
+                return AFTER_RETURNING;
+            }
+            if (advice instanceof AspectJAfterThrowingAdvice) {
+                return AFTER_THROWING;
+            }
+            return null;
+        }
+    }
+
+    private static final class Step {
+        static final int NONE = -1; //반환값/예외 인자 없음
+        static final int UNSUPPORTED = -2;
+
+        final Kind kind;
+        final AbstractAspectJAdvice advice;
+        final Method method;
+        final int parameterCount;
+        final int joinPointIndex; //-1: 없음
+        final boolean staticPart;
+        final int valueIndex; //@AfterReturning returning, @AfterThrowing throwing 인자 위치
+        final Class<?> valueType;
+
+        Step(AbstractAspectJAdvice advice) {
+            this.kind = Kind.of(advice);
+            this.advice = advice;
+            this.method = advice.getAspectJAdviceMethod();
+            ReflectionUtils.makeAccessible(method);
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            this.parameterCount = parameterTypes.length;
+            this.joinPointIndex = parameterTypes.length > 0 && isJoinPoint(parameterTypes[0]) ? 0 : -1;
+            this.staticPart = joinPointIndex == 0 && parameterTypes[0] == JoinPoint.StaticPart.class;
+            this.valueIndex = valueIndex(advice);
+            this.valueType = valueIndex >= 0 ? ClassUtils.resolvePrimitiveIfNecessary(parameterTypes[valueIndex])
+                    : kind == Kind.AFTER_THROWING ? Throwable.class : Object.class;
+        }
+
+        static int valueIndex(AbstractAspectJAdvice advice) {
+            Method method = advice.getAspectJAdviceMethod();
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            int first = parameterTypes.length > 0 && isJoinPoint(parameterTypes[0]) ? 1 : 0;
+            Kind kind = Kind.of(advice);
+            if (kind == Kind.AROUND) {
+                return first == 1 && parameterTypes.length == 1 ? NONE : UNSUPPORTED;
+            }
+            if (first == 1 && parameterTypes[0] == ProceedingJoinPoint.class) {
+                return UNSUPPORTED;
+            }
+            if (parameterTypes.length == first) {
+                return NONE;
+            }
+            //반환값/예외 인자 하나, 제네릭 타입 검사는 스프링 인터셉터에 맡긴다.
+            boolean valueAdvice = kind == Kind.AFTER_RETURNING || kind == Kind.AFTER_THROWING;
+            if (valueAdvice && parameterTypes.length == first + 1
+                    && method.getGenericParameterTypes()[first] instanceof Class) {
+                return first;
+            }
+            return UNSUPPORTED;
+        }
+
+        private static boolean isJoinPoint(Class<?> type) {
+            return type == JoinPoint.class || type == ProceedingJoinPoint.class || type == JoinPoint.StaticPart.class;
+        }
+
+        //AspectJAfterReturningAdvice 와 같은 조건
+        boolean matchesReturnValue(Method target, Object result) {
+            if (result != null) {
+                return ClassUtils.isAssignableValue(valueType, result);
+            }
+            if (valueType == Object.class && target.getReturnType() == void.class) {
+                return true;
+            }
+            return ClassUtils.isAssignable(valueType, target.getReturnType());
+        }
+
+        Object invoke(JoinPoint joinPoint, Object value) throws Throwable {
+            Object[] args = new Object[parameterCount];
+            if (joinPointIndex == 0) {
+                args[0] = staticPart ? joinPoint.getStaticPart() : joinPoint;
+            }
+            if (valueIndex >= 0) {
+                args[valueIndex] = value;
+            }
+            try {
+                return method.invoke(advice.getAspectInstanceFactory().getAspectInstance(), args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            } catch (IllegalAccessException | IllegalArgumentException e) {
+                throw new AopInvocationException("Mismatch on arguments to advice method [" + method + "]", e);
+            }
+        }
+    }
+
+    /**
+     * @Around 의 ProceedingJoinPoint: proceed() 가 합쳐진 안쪽 어드바이스부터 진행
+     * 스프링과 같이 proceed() 마다 MethodInvocation 을 복제한다. (여러 번 proceed 가능)
+     */
+    private static final class FusedJoinPoint extends MethodInvocationProceedingJoinPoint {
+        private final ProxyMethodInvocation invocation;
+        private final FusedAdviceInterceptor interceptor;
+        private final int next;
+
+        FusedJoinPoint(ProxyMethodInvocation invocation, FusedAdviceInterceptor interceptor, int next) {
+            super(invocation);
+            this.invocation = invocation;
+            this.interceptor = interceptor;
+            this.next = next;
+        }
+
+        @Override
+        public Object proceed() throws Throwable {
+            return interceptor.proceed(next, (ProxyMethodInvocation) invocation.invocableClone(), this);
+        }
+
+        @Override
+        public Object proceed(Object[] arguments) throws Throwable {
+            if (arguments == null || arguments.length != invocation.getArguments().length) {
+                throw new IllegalArgumentException("Expecting " + invocation.getArguments().length + " arguments to proceed, " +
+                        "but was passed " + (arguments == null ? 0 : arguments.length) + " arguments");
+            }
+            invocation.setArguments(arguments);
+            return interceptor.proceed(next, (ProxyMethodInvocation) invocation.invocableClone(arguments), this);
+        }
+    }
+}
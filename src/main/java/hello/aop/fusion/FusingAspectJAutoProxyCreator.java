@@ -0,0 +1,18 @@
+package hello.aop.fusion;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.annotation.AnnotationAwareAspectJAutoProxyCreator;
+
+import java.util.List;
+
+/**
+ * @Aspect, Advisor 빈을 적용하는 AutoProxyCreator (스프링 부트 기본과 같음)
+ * 어드바이저를 정렬한 뒤 같은 aspect, 같은 포인트컷의 어드바이스를 인터셉터 하나로 합친다. (AdviceFusion)
+ */
+public class FusingAspectJAutoProxyCreator extends AnnotationAwareAspectJAutoProxyCreator {
+
+    @Override
+    protected List<Advisor> sortAdvisors(List<Advisor> advisors) {
+        return AdviceFusion.fuse(super.sortAdvisors(advisors));
+    }
+}
@@ -0,0 +1,43 @@
+package hello.aop.hiddenproxy;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * 어드바이스가 있는 메서드 1개 (프록시 생성시 한 번 만들고 프록시 메서드의 MethodHandle 에 묶는다.)
+ * 체인은 프록시 생성 시점에 계산 (프록시 설정은 frozen), 실행은 HiddenMethodInvocation (ReflectiveMethodInvocation)
+ */
+final class AdvisedMethod {
+    static final MethodHandle INVOKE;
+
+    static {
+        try {
+            INVOKE = MethodHandles.lookup().findVirtual(AdvisedMethod.class, "invoke",
+                    MethodType.methodType(Object.class, Object.class, Object[].class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Method method;
+    private final Object target;
+    private final Class<?> targetClass;
+    private final List<Object> chain;
+    private final MethodHandle joinpoint;
+
+    AdvisedMethod(Method method, Object target, Class<?> targetClass, List<Object> chain, MethodHandle joinpoint) {
+        this.method = method;
+        this.target = target;
+        this.targetClass = targetClass;
+        this.chain = chain;
+        this.joinpoint = joinpoint;
+    }
+
+    Object invoke(Object proxy, Object[] args) throws Throwable {
+        Object result = new HiddenMethodInvocation(proxy, target, method, args, targetClass, chain, joinpoint).proceed();
+        return HiddenClassAopProxy.processReturn(proxy, target, method, result);
+    }
+}
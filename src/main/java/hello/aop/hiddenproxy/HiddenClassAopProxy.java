@@ -0,0 +1,452 @@
+package hello.aop.hiddenproxy;
+
+import org.springframework.aop.RawTargetAccess;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.AdvisedSupport;
+import org.springframework.aop.framework.AopConfigException;
+import org.springframework.aop.framework.AopInvocationException;
+import org.springframework.aop.framework.AopProxy;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.asm.Type;
+import org.springframework.core.DecoratingProxy;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * MethodHandle 대상 호출 프록시: hidden class 로 만든 AOP 프록시 (CGLIB, JDK 동적 프록시 대신)
+ * 프록시 -> 대상 메서드 호출을 MethodHandle 로 한다. 어드바이스 체인은 MethodHandle 로 묶지 않는다. (HiddenMethodInvocation)
+ * - 인터페이스 기반: JDK 동적 프록시와 같은 타입 (구현 클래스로 캐스팅 불가)
+ * - 클래스 기반: CGLIB 과 같은 타입 (대상 클래스를 상속, 구현 클래스로 캐스팅/주입 가능)
+ *
+ * hidden class 의 classData 에 메서드별 MethodHandle 을 넣는다.
+ * - 어드바이스 없는 메서드: 대상 메서드 핸들 (프록시 -> 대상 메서드 바로 호출)
+ * - 어드바이스 있는 메서드: AdvisedMethod -> HiddenMethodInvocation
+ *   (체인은 스프링 인터셉터 그대로 ReflectiveMethodInvocation 으로 진행, 대상 호출만 Method.invoke 대신 MethodHandle)
+ * - equals/hashCode: 스프링 프록시처럼 프록시 설정(인터페이스, 어드바이저, 대상) 기준
+ * 프록시 클래스는 (대상 클래스, 클래스/인터페이스 기반, 인터페이스, 어드바이스 있는 메서드) 별로 한 번만 정의한다.
+ * 프록시 객체마다 다른 것(대상, 어드바이스 체인)은 ProxyState 로 생성자에 넘긴다.
+ *
+ * 제약 (지원하지 않으면 HiddenClassAopProxyFactory 가 스프링 기본 프록시를 만든다.)
+ * - frozen 설정만 (체인을 프록시 생성 시점에 계산), 고정 대상(TargetSource.isStatic)만, exposeProxy 미지원
+ * - 클래스 기반: 접근 가능한 기본 생성자 필요, CGLIB(objenesis)과 달리 프록시 생성시 생성자가 한 번 더 실행된다.
+ * - 프록시는 대상 클래스의 패키지(클래스 로더)에 정의된다.
+ */
+public class HiddenClassAopProxy implements AopProxy {
+    private static final MethodHandle PROXY_EQUALS;
+    private static final MethodHandle PROXY_HASH_CODE;
+    private static final MethodHandle RETURN_PROXY;
+    private static final MethodHandle INVOKE_ADVISED;
+    private static final MethodHandle STATE_ADVISED;
+    private static final MethodHandle STATE_TARGET;
+    private static final MethodHandle STATE_DECORATED_CLASS;
+
+    //대상 클래스 -> 프록시 클래스 (키: 클래스 기반, opaque, 인터페이스, 어드바이스 있는 메서드)
+    private static final ClassValue<ConcurrentMap<List<Object>, ProxyClass>> PROXY_CLASSES = new ClassValue<>() {
+        @Override
+        protected ConcurrentMap<List<Object>, ProxyClass> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    static {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            PROXY_EQUALS = lookup.findStatic(HiddenClassAopProxy.class, "proxyEquals",
+                    MethodType.methodType(boolean.class, AdvisedSupport.class, Object.class, Object.class));
+            PROXY_HASH_CODE = lookup.findStatic(HiddenClassAopProxy.class, "proxyHashCode",
+                    MethodType.methodType(int.class, AdvisedSupport.class, Object.class));
+            RETURN_PROXY = lookup.findStatic(HiddenClassAopProxy.class, "returnProxy",
+                    MethodType.methodType(Object.class, Object.class, Object.class, Object.class));
+            INVOKE_ADVISED = lookup.findStatic(HiddenClassAopProxy.class, "invokeAdvised",
+                    MethodType.methodType(Object.class, Object.class, int.class, Object.class, Object[].class));
+            STATE_ADVISED = lookup.findStatic(HiddenClassAopProxy.class, "advised",
+                    MethodType.methodType(AdvisedSupport.class, Object.class));
+            STATE_TARGET = lookup.findStatic(HiddenClassAopProxy.class, "target",
+                    MethodType.methodType(Object.class, Object.class));
+            STATE_DECORATED_CLASS = lookup.findStatic(HiddenClassAopProxy.class, "decoratedClass",
+                    MethodType.methodType(Class.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Class<?> proxyClass;
+    private final MethodHandle constructor; //()Object, ProxyState 가 묶여 있음
+
+    private HiddenClassAopProxy(Class<?> proxyClass, MethodHandle constructor) {
+        this.proxyClass = proxyClass;
+        this.constructor = constructor;
+    }
+
+    @Override
+    public Object getProxy() {
+        try {
+            return (Object) constructor.invokeExact();
+        } catch (Throwable e) {
+            throw new AopConfigException("Could not instantiate hidden class proxy: " + proxyClass.getName(), e);
+        }
+    }
+
+    //프록시 클래스는 이미 대상 클래스의 클래스 로더에 정의되어 있다.
+    @Override
+    public Object getProxy(@Nullable ClassLoader classLoader) {
+        return getProxy();
+    }
+
+    public Class<?> getProxyClass() {
+        return proxyClass;
+    }
+
+    static HiddenClassAopProxy create(AdvisedSupport advised, boolean classBased) throws Exception {
+        Class<?> targetClass = advised.getTargetClass();
+        Object target = advised.getTargetSource().getTarget();
+        if (targetClass == null || target == null) {
+            throw new AopConfigException("hidden class proxy requires a target: " + advised);
+        }
+        Class<?> superclass = classBased ? targetClass : Object.class;
+        Class<?>[] interfaces = AopProxyUtils.completeProxiedInterfaces(advised, !classBased);
+        MethodHandles.Lookup host = hostLookup(targetClass);
+
+        List<Method> methods = proxiedMethods(superclass, interfaces, host.lookupClass().getPackageName());
+        Map<String, List<Object>> chains = new HashMap<>();
+        for (Method method : methods) {
+            if (isProxyMethod(method, advised.isOpaque())) {
+                continue;
+            }
+            List<Object> chain = advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+            if (!chain.isEmpty()) {
+                chains.put(key(method), chain);
+            }
+        }
+
+        List<Object> cacheKey = List.of(classBased, advised.isOpaque(), List.of(interfaces),
+                Set.copyOf(chains.keySet()));
+        ConcurrentMap<List<Object>, ProxyClass> proxyClasses = PROXY_CLASSES.get(targetClass);
+        ProxyClass proxyClass = proxyClasses.get(cacheKey);
+        if (proxyClass == null) {
+            //동시에 정의하면 먼저 넣은 클래스를 쓴다. (나머지는 참조가 없어지면 언로딩)
+            proxyClass = define(host, methods, chains.keySet(), classBased, advised.isOpaque(), targetClass, superclass,
+                    interfaces);
+            ProxyClass existing = proxyClasses.putIfAbsent(cacheKey, proxyClass);
+            if (existing != null) {
+                proxyClass = existing;
+            }
+        }
+
+        AdvisedMethod[] advisedMethods = new AdvisedMethod[proxyClass.methods.size()];
+        for (int i = 0; i < advisedMethods.length; i++) {
+            Method method = proxyClass.methods.get(i);
+            List<Object> chain = chains.get(key(method));
+            if (chain != null) {
+                advisedMethods[i] = new AdvisedMethod(method, target, targetClass, chain, spreader(method, target));
+            }
+        }
+        ProxyState state = new ProxyState(advised, target, AopProxyUtils.ultimateTargetClass(advised), advisedMethods);
+        return new HiddenClassAopProxy(proxyClass.type, proxyClass.constructor.bindTo(state));
+    }
+
+    private static ProxyClass define(MethodHandles.Lookup host, List<Method> methods, Set<String> advisedKeys,
+                                     boolean classBased, boolean opaque, Class<?> targetClass, Class<?> superclass,
+                                     Class<?>[] interfaces) throws Exception {
+        if (classBased) {
+            checkSubclassable(superclass);
+        }
+        checkAccess(host, superclass);
+        for (Class<?> proxiedInterface : interfaces) {
+            checkAccess(host, proxiedInterface);
+        }
+
+        List<MethodHandle> handles = new ArrayList<>(methods.size());
+        for (int i = 0; i < methods.size(); i++) {
+            Method method = methods.get(i);
+            checkAccess(host, method.getReturnType());
+            for (Class<?> parameterType : method.getParameterTypes()) {
+                checkAccess(host, parameterType);
+            }
+            handles.add(bind(method, i, advisedKeys.contains(key(method)), opaque, targetClass, superclass, interfaces));
+        }
+
+        String className = className(host.lookupClass(), classBased ? targetClass : interfaces[0]);
+        byte[] bytes = HiddenProxyGenerator.generate(className, superclass, interfaces, methods);
+        MethodHandles.Lookup proxyLookup = host.defineHiddenClassWithClassData(bytes, List.copyOf(handles), true);
+        Class<?> proxyClass = proxyLookup.lookupClass();
+        MethodHandle constructor = proxyLookup.findConstructor(proxyClass, MethodType.methodType(void.class, Object.class))
+                .asType(MethodType.methodType(Object.class, Object.class));
+        return new ProxyClass(proxyClass, constructor, List.copyOf(methods));
+    }
+
+    /**
+     * 메서드 1개의 핸들: (Object state, Object proxy, 파라미터...)반환타입
+     * 프록시 클래스에 한 번 묶이므로 프록시 객체별 값은 state(ProxyState)에서 꺼낸다.
+     */
+    private static MethodHandle bind(Method method, int index, boolean advisedMethod, boolean opaque,
+                                     Class<?> targetClass, Class<?> superclass,
+                                     Class<?>[] interfaces) throws IllegalAccessException {
+        Class<?> declaringClass = method.getDeclaringClass();
+        MethodType proxyType = MethodType.methodType(method.getReturnType(), method.getParameterTypes())
+                .insertParameterTypes(0, Object.class, Object.class);
+
+        //Advised 메서드는 프록시 설정에 위임 (JDK 동적 프록시와 같음)
+        if (isAdvisedInterfaceMethod(method, opaque)) {
+            MethodHandle handle = MethodHandles.publicLookup().unreflect(method);
+            handle = MethodHandles.filterArguments(handle, 0,
+                    STATE_ADVISED.asType(MethodType.methodType(declaringClass, Object.class)));
+            return MethodHandles.dropArguments(handle, 1, Object.class);
+        }
+        if (declaringClass == DecoratingProxy.class) {
+            return MethodHandles.dropArguments(STATE_DECORATED_CLASS, 1, Object.class);
+        }
+        if (AopUtils.isEqualsMethod(method)) {
+            return MethodHandles.filterArguments(PROXY_EQUALS, 0, STATE_ADVISED);
+        }
+        if (AopUtils.isHashCodeMethod(method)) {
+            return MethodHandles.filterArguments(PROXY_HASH_CODE, 0, STATE_ADVISED);
+        }
+
+        if (advisedMethod) {
+            return MethodHandles.insertArguments(INVOKE_ADVISED, 1, index)
+                    .asCollector(Object[].class, method.getParameterCount())
+                    .asType(proxyType);
+        }
+
+        MethodHandle joinpoint = methodLookup(declaringClass).unreflect(method); //(대상, 파라미터...)반환타입
+        MethodHandle call = MethodHandles.filterArguments(joinpoint, 0,
+                STATE_TARGET.asType(MethodType.methodType(joinpoint.type().parameterType(0), Object.class)));
+        if (mayReturnTarget(method, targetClass, superclass, interfaces)) {
+            //returnProxy(state, proxy, call(state, 파라미터...))
+            call = call.asType(call.type().changeReturnType(Object.class));
+            MethodHandle handle = MethodHandles.collectArguments(RETURN_PROXY, 2, call);
+            int[] reorder = new int[handle.type().parameterCount()]; //state 를 두 번 쓴다. {0, 1, 0, 2, 3 ...}
+            reorder[1] = 1;
+            for (int i = 3; i < reorder.length; i++) {
+                reorder[i] = i - 1;
+            }
+            return MethodHandles.permuteArguments(handle, handle.type().dropParameterTypes(2, 3), reorder)
+                    .asType(proxyType);
+        }
+        return MethodHandles.dropArguments(call, 1, Object.class);
+    }
+
+    //어드바이스 있는 메서드의 대상 호출: (Object[])Object, 대상 객체에 묶여 있음
+    private static MethodHandle spreader(Method method, Object target) throws IllegalAccessException {
+        MethodHandle joinpoint = methodLookup(method.getDeclaringClass()).unreflect(method).bindTo(target);
+        return joinpoint.asType(joinpoint.type().generic()).asSpreader(Object[].class, method.getParameterCount());
+    }
+
+    //프록시가 직접 처리하는 메서드 (어드바이스 체인을 만들지 않는다.)
+    private static boolean isProxyMethod(Method method, boolean opaque) {
+        return isAdvisedInterfaceMethod(method, opaque) || method.getDeclaringClass() == DecoratingProxy.class
+                || AopUtils.isEqualsMethod(method) || AopUtils.isHashCodeMethod(method);
+    }
+
+    private static boolean isAdvisedInterfaceMethod(Method method, boolean opaque) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        return !opaque && declaringClass.isInterface() && declaringClass.isAssignableFrom(Advised.class);
+    }
+
+    /**
+     * 재정의할 메서드: 부모 클래스(클래스 기반) 또는 Object(인터페이스 기반)의 재정의 가능한 메서드 + 인터페이스 메서드
+     */
+    static List<Method> proxiedMethods(Class<?> superclass, Class<?>[] interfaces, String packageName) {
+        Map<String, Method> methods = new LinkedHashMap<>();
+        Set<String> seen = new HashSet<>();
+        for (Class<?> type = superclass; type != null; type = type.getSuperclass()) {
+            for (Method method : type.getDeclaredMethods()) {
+                int modifiers = method.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isPrivate(modifiers)) {
+                    continue;
+                }
+                String key = key(method);
+                if (!seen.add(key)) {
+                    continue; //하위 클래스에서 이미 처리
+                }
+                if (Modifier.isFinal(modifiers) || method.isSynthetic() || isFinalizeOrClone(method)) {
+                    continue; //브릿지 메서드는 재정의한 메서드를 다시 호출한다.
+                }
+                if (!Modifier.isPublic(modifiers) && !Modifier.isProtected(modifiers)
+                        && !type.getPackageName().equals(packageName)) {
+                    continue; //다른 패키지의 package-private 메서드는 재정의 불가
+                }
+                methods.put(key, method);
+            }
+        }
+        for (Class<?> proxiedInterface : interfaces) {
+            for (Method method : proxiedInterface.getMethods()) {
+                String key = key(method);
+                if (!Modifier.isStatic(method.getModifiers()) && seen.add(key)) {
+                    methods.put(key, method);
+                }
+            }
+        }
+        return new ArrayList<>(methods.values());
+    }
+
+    static Object processReturn(Object proxy, Object target, Method method, @Nullable Object result) {
+        if (result != null && result == target && method.getReturnType().isInstance(proxy)
+                && !RawTargetAccess.class.isAssignableFrom(method.getDeclaringClass())) {
+            result = proxy; //return this -> 프록시 반환 (CGLIB 과 같음)
+        }
+        Class<?> returnType = method.getReturnType();
+        if (result == null && returnType != void.class && returnType.isPrimitive()) {
+            throw new AopInvocationException(
+                    "Null return value from advice does not match primitive return type for: " + method);
+        }
+        return result;
+    }
+
+    private static Object returnProxy(Object state, Object proxy, Object result) {
+        return result == ((ProxyState) state).target ? proxy : result;
+    }
+
+    private static Object invokeAdvised(Object state, int index, Object proxy, Object[] args) throws Throwable {
+        return ((ProxyState) state).methods[index].invoke(proxy, args);
+    }
+
+    private static AdvisedSupport advised(Object state) {
+        return ((ProxyState) state).advised;
+    }
+
+    private static Object target(Object state) {
+        return ((ProxyState) state).target;
+    }
+
+    private static Class<?> decoratedClass(Object state) {
+        return ((ProxyState) state).decoratedClass;
+    }
+
+    private static boolean proxyEquals(AdvisedSupport advised, Object proxy, Object other) {
+        if (proxy == other) {
+            return true;
+        }
+        if (!(other instanceof Advised) || !AopUtils.isAopProxy(other)) {
+            return false;
+        }
+        Advised otherAdvised = (Advised) other;
+        return Arrays.equals(advised.getProxiedInterfaces(), otherAdvised.getProxiedInterfaces())
+                && Arrays.equals(advised.getAdvisors(), otherAdvised.getAdvisors())
+                && advised.getTargetSource().equals(otherAdvised.getTargetSource());
+    }
+
+    private static int proxyHashCode(AdvisedSupport advised, Object proxy) {
+        return HiddenClassAopProxy.class.hashCode() * 13 + advised.getTargetSource().hashCode();
+    }
+
+    //return this 를 프록시로 바꿔야 하는 메서드 (CGLIB 의 processReturnType)
+    private static boolean mayReturnTarget(Method method, Class<?> targetClass, Class<?> superclass, Class<?>[] interfaces) {
+        Class<?> returnType = method.getReturnType();
+        if (returnType.isPrimitive() || !returnType.isAssignableFrom(targetClass)
+                || RawTargetAccess.class.isAssignableFrom(method.getDeclaringClass())) {
+            return false;
+        }
+        if (returnType.isAssignableFrom(superclass)) {
+            return true;
+        }
+        for (Class<?> proxiedInterface : interfaces) {
+            if (returnType.isAssignableFrom(proxiedInterface)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //대상 클래스 패키지에 정의 (package-private 메서드, 타입 접근), 모듈이 열려있지 않으면(java.* 등) 이 패키지에 정의
+    private static MethodHandles.Lookup hostLookup(Class<?> targetClass) {
+        try {
+            return MethodHandles.privateLookupIn(targetClass, MethodHandles.lookup());
+        } catch (IllegalAccessException e) {
+            return MethodHandles.lookup();
+        }
+    }
+
+    private static MethodHandles.Lookup methodLookup(Class<?> declaringClass) {
+        try {
+            return MethodHandles.privateLookupIn(declaringClass, MethodHandles.lookup());
+        } catch (IllegalAccessException e) {
+            return MethodHandles.publicLookup();
+        }
+    }
+
+    private static void checkSubclassable(Class<?> superclass) {
+        if (Modifier.isFinal(superclass.getModifiers()) || superclass.isHidden()) {
+            throw new AopConfigException("Cannot subclass " + superclass.getName());
+        }
+        Constructor<?> constructor;
+        try {
+            constructor = superclass.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new AopConfigException("No default constructor: " + superclass.getName());
+        }
+        if (Modifier.isPrivate(constructor.getModifiers())) {
+            throw new AopConfigException("Private default constructor: " + superclass.getName());
+        }
+    }
+
+    private static void checkAccess(MethodHandles.Lookup lookup, Class<?> type) throws IllegalAccessException {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (!type.isPrimitive()) {
+            lookup.accessClass(type);
+        }
+    }
+
+    private static String className(Class<?> host, Class<?> type) {
+        String packageName = host.getPackageName();
+        String simpleName = ClassUtils.getShortName(type).replace('.', '$') + HiddenProxyGenerator.CLASS_SUFFIX;
+        return packageName.isEmpty() ? simpleName : packageName.replace('.', '/') + "/" + simpleName;
+    }
+
+    private static boolean isFinalizeOrClone(Method method) {
+        return method.getDeclaringClass() == Object.class
+                && (method.getName().equals("finalize") || method.getName().equals("clone"));
+    }
+
+    private static String key(Method method) {
+        return method.getName() + Type.getMethodDescriptor(method);
+    }
+
+    private static final class ProxyClass {
+        final Class<?> type;
+        final MethodHandle constructor; //(Object state)Object
+        final List<Method> methods; //methods.get(i) -> classData 의 i 번째 핸들
+
+        ProxyClass(Class<?> type, MethodHandle constructor, List<Method> methods) {
+            this.type = type;
+            this.constructor = constructor;
+            this.methods = methods;
+        }
+    }
+
+    //프록시 객체 1개의 상태 (생성자로 받아서 프록시의 state 필드에 둔다.)
+    private static final class ProxyState {
+        final AdvisedSupport advised;
+        final Object target;
+        final Class<?> decoratedClass;
+        final AdvisedMethod[] methods; //어드바이스 없는 메서드는 null
+
+        ProxyState(AdvisedSupport advised, Object target, Class<?> decoratedClass, AdvisedMethod[] methods) {
+            this.advised = advised;
+            this.target = target;
+            this.decoratedClass = decoratedClass;
+            this.methods = methods;
+        }
+    }
+}
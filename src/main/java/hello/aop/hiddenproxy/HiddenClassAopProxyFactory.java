@@ -0,0 +1,54 @@
+package hello.aop.hiddenproxy;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.SpringProxy;
+import org.springframework.aop.framework.AdvisedSupport;
+import org.springframework.aop.framework.AopConfigException;
+import org.springframework.aop.framework.AopProxy;
+import org.springframework.aop.framework.AopProxyFactory;
+import org.springframework.aop.framework.DefaultAopProxyFactory;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Proxy;
+
+/**
+ * ProxyFactory.setAopProxyFactory(new HiddenClassAopProxyFactory()) 로 사용
+ * 인터페이스/클래스 기반 선택은 DefaultAopProxyFactory 와 같다. (proxyTargetClass, optimize, 인터페이스 유무)
+ * hidden class 프록시를 만들 수 없으면 스프링 기본 프록시(JDK 동적 프록시, CGLIB)를 만든다.
+ */
+@Slf4j
+public class HiddenClassAopProxyFactory implements AopProxyFactory {
+    private final AopProxyFactory fallback = new DefaultAopProxyFactory();
+
+    @Override
+    public AopProxy createAopProxy(AdvisedSupport config) throws AopConfigException {
+        if (isSupported(config)) {
+            try {
+                return HiddenClassAopProxy.create(config, isClassBased(config));
+            } catch (Exception | LinkageError e) {
+                log.debug("[hidden-proxy] {} fallback to spring proxy: {}", config.getTargetClass(), e.toString());
+            }
+        }
+        return fallback.createAopProxy(config);
+    }
+
+    private static boolean isSupported(AdvisedSupport config) {
+        return config.isFrozen()
+                && !config.isExposeProxy()
+                && config.getTargetClass() != null
+                && config.getTargetSource().isStatic();
+    }
+
+    private static boolean isClassBased(AdvisedSupport config) {
+        Class<?> targetClass = config.getTargetClass();
+        if (!config.isOptimize() && !config.isProxyTargetClass() && hasUserSuppliedProxyInterfaces(config)) {
+            return false;
+        }
+        return !targetClass.isInterface() && !Proxy.isProxyClass(targetClass) && !ClassUtils.isLambdaClass(targetClass);
+    }
+
+    private static boolean hasUserSuppliedProxyInterfaces(AdvisedSupport config) {
+        Class<?>[] interfaces = config.getProxiedInterfaces();
+        return interfaces.length > 1 || (interfaces.length == 1 && !SpringProxy.class.isAssignableFrom(interfaces[0]));
+    }
+}
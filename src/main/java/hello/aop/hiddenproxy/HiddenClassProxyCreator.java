@@ -0,0 +1,22 @@
+package hello.aop.hiddenproxy;
+
+import org.springframework.aop.aspectj.annotation.AnnotationAwareAspectJAutoProxyCreator;
+import org.springframework.aop.framework.ProxyFactory;
+
+/**
+ * @Aspect, Advisor 빈을 적용하는 AutoProxyCreator (스프링 부트 기본과 같음), 프록시만 hidden class 로 만든다.
+ * 어드바이스 체인을 프록시 생성시 한 번 계산하므로 프록시 설정을 frozen 으로 만든다.
+ * (생성 후 어드바이저 추가 불가, @Async 등은 프록시를 한 겹 더 만든다.)
+ */
+public class HiddenClassProxyCreator extends AnnotationAwareAspectJAutoProxyCreator {
+    private final HiddenClassAopProxyFactory aopProxyFactory = new HiddenClassAopProxyFactory();
+
+    public HiddenClassProxyCreator() {
+        setFrozen(true);
+    }
+
+    @Override
+    protected void customizeProxyFactory(ProxyFactory proxyFactory) {
+        proxyFactory.setAopProxyFactory(aopProxyFactory);
+    }
+}
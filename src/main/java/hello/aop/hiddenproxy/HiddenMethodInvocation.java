@@ -0,0 +1,29 @@
+package hello.aop.hiddenproxy;
+
+import org.springframework.aop.framework.ReflectiveMethodInvocation;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * 어드바이스 체인 실행은 ReflectiveMethodInvocation 그대로 (ProxyMethodInvocation, proceed(args), invocableClone)
+ * 마지막 대상 메서드 호출만 Method.invoke 대신 MethodHandle (CGLIB 의 MethodProxy 와 같은 위치)
+ * 체인은 MethodHandle 로 묶지 않는다. 인터셉터가 MethodInvocation.proceed() 를 직접 호출하고
+ * 스프링 aspect 어드바이스가 ProxyMethodInvocation(user attribute, invocableClone)을 요구하기 때문
+ * (프록시 -> 대상 직접 호출까지 인라인되는 것은 어드바이스 없는 메서드뿐)
+ */
+final class HiddenMethodInvocation extends ReflectiveMethodInvocation {
+    private final MethodHandle joinpoint; //(Object[])Object, 대상 객체에 묶여 있음
+
+    HiddenMethodInvocation(Object proxy, Object target, Method method, Object[] arguments,
+                           Class<?> targetClass, List<Object> chain, MethodHandle joinpoint) {
+        super(proxy, target, method, arguments, targetClass, chain);
+        this.joinpoint = joinpoint;
+    }
+
+    @Override
+    protected Object invokeJoinpoint() throws Throwable {
+        return joinpoint.invokeExact(arguments);
+    }
+}
@@ -0,0 +1,25 @@
+package hello.aop.hiddenproxy;
+
+import org.springframework.aop.config.AopConfigUtils;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * @Import(HiddenProxyConfig.class) 로 사용
+ * 스프링 부트가 등록한 AutoProxyCreator 빈의 클래스를 HiddenClassProxyCreator 로 바꾼다.
+ * 설정(spring.aop.proxy-target-class 등)은 그대로, spring.aop.auto=false 면 아무것도 하지 않는다.
+ */
+public class HiddenProxyConfig {
+
+    @Bean
+    public static BeanFactoryPostProcessor hiddenClassProxyCreatorPostProcessor() {
+        return beanFactory -> {
+            BeanDefinitionRegistry registry = (BeanDefinitionRegistry) beanFactory;
+            if (registry.containsBeanDefinition(AopConfigUtils.AUTO_PROXY_CREATOR_BEAN_NAME)) {
+                registry.getBeanDefinition(AopConfigUtils.AUTO_PROXY_CREATOR_BEAN_NAME)
+                        .setBeanClassName(HiddenClassProxyCreator.class.getName());
+            }
+        };
+    }
+}
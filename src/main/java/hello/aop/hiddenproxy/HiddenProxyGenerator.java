@@ -0,0 +1,128 @@
+package hello.aop.hiddenproxy;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.ConstantDynamic;
+import org.springframework.asm.Handle;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+/**
+ * 프록시 클래스 바이트코드 생성
+ * 메서드마다 classData 의 i 번째 MethodHandle 을 상수(condy)로 읽어서 invokeExact 만 한다.
+ * 프록시 객체마다 다른 값(대상, 어드바이스 체인)은 생성자로 받은 state 필드에 있다.
+ * <pre>
+ * private final Object state;
+ *
+ * private Proxy(Object state) {
+ *     this.state = state; //super() 전에 저장 (부모 생성자가 재정의한 메서드를 호출해도 state 가 있다.)
+ *     super();
+ * }
+ *
+ * public R m(A a, B b) {
+ *     return (R) classDataAt(i).invokeExact(this.state, (Object) this, a, b);
+ * }
+ * </pre>
+ * MethodHandle 이 상수라서 JIT 가 핸들 안쪽(대상 메서드, AdvisedMethod 진입)까지 인라인할 수 있다.
+ * (어드바이스 체인은 HiddenMethodInvocation 이 진행하므로 인라인 대상이 아니다.)
+ */
+final class HiddenProxyGenerator {
+    //"$$" 가 있으면 스프링이 프록시 클래스로 판단 (AopUtils.isAopProxy, ClassUtils.getUserClass)
+    static final String CLASS_SUFFIX = "$$HiddenProxy";
+
+    private static final String METHOD_HANDLE = "java/lang/invoke/MethodHandle";
+    private static final String STATE = "state";
+    private static final String OBJECT_DESCRIPTOR = "Ljava/lang/Object;";
+    private static final Handle CLASS_DATA_AT = new Handle(Opcodes.H_INVOKESTATIC,
+            "java/lang/invoke/MethodHandles", "classDataAt",
+            "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;I)Ljava/lang/Object;", false);
+
+    private HiddenProxyGenerator() {
+    }
+
+    /**
+     * @param methods methods.get(i) -> classData 의 i 번째 MethodHandle (Object state, Object proxy, 파라미터...)반환타입
+     */
+    static byte[] generate(String className, Class<?> superclass, Class<?>[] interfaces, List<Method> methods) {
+        String superName = Type.getInternalName(superclass);
+        String[] interfaceNames = new String[interfaces.length];
+        for (int i = 0; i < interfaces.length; i++) {
+            interfaceNames[i] = Type.getInternalName(interfaces[i]);
+        }
+
+        //분기가 없으므로 StackMapTable 불필요 (COMPUTE_FRAMES 는 클래스 로딩이 필요)
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V11, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER | Opcodes.ACC_SYNTHETIC,
+                className, null, superName, interfaceNames);
+
+        writer.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, STATE, OBJECT_DESCRIPTOR, null, null).visitEnd();
+
+        MethodVisitor mv = writer.visitMethod(Opcodes.ACC_PRIVATE, "<init>", "(" + OBJECT_DESCRIPTOR + ")V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitFieldInsn(Opcodes.PUTFIELD, className, STATE, OBJECT_DESCRIPTOR);
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, superName, "<init>", "()V", false);
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        for (int i = 0; i < methods.size(); i++) {
+            generateMethod(writer, className, methods.get(i), i);
+        }
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private static void generateMethod(ClassWriter writer, String className, Method method, int index) {
+        Type[] parameterTypes = Type.getArgumentTypes(method);
+        Type returnType = Type.getReturnType(method);
+
+        MethodVisitor mv = writer.visitMethod(access(method), method.getName(), Type.getMethodDescriptor(method),
+                null, exceptions(method));
+        mv.visitCode();
+        mv.visitLdcInsn(new ConstantDynamic("_", "L" + METHOD_HANDLE + ";", CLASS_DATA_AT, index));
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitFieldInsn(Opcodes.GETFIELD, className, STATE, OBJECT_DESCRIPTOR);
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        int slot = 1;
+        for (Type parameterType : parameterTypes) {
+            mv.visitVarInsn(parameterType.getOpcode(Opcodes.ILOAD), slot);
+            slot += parameterType.getSize();
+        }
+        Type[] handleParameterTypes = new Type[parameterTypes.length + 2];
+        handleParameterTypes[0] = Type.getType(Object.class);
+        handleParameterTypes[1] = Type.getType(Object.class);
+        System.arraycopy(parameterTypes, 0, handleParameterTypes, 2, parameterTypes.length);
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, METHOD_HANDLE, "invokeExact",
+                Type.getMethodDescriptor(returnType, handleParameterTypes), false);
+        mv.visitInsn(returnType.getOpcode(Opcodes.IRETURN));
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static int access(Method method) {
+        int access = method.getModifiers() & (Modifier.PUBLIC | Modifier.PROTECTED);
+        if (method.isVarArgs()) {
+            access |= Opcodes.ACC_VARARGS;
+        }
+        return access;
+    }
+
+    private static String[] exceptions(Method method) {
+        Class<?>[] exceptionTypes = method.getExceptionTypes();
+        if (exceptionTypes.length == 0) {
+            return null;
+        }
+        String[] names = new String[exceptionTypes.length];
+        for (int i = 0; i < exceptionTypes.length; i++) {
+            names[i] = Type.getInternalName(exceptionTypes[i]);
+        }
+        return names;
+    }
+}
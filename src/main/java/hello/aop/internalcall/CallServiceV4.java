@@ -0,0 +1,25 @@
+package hello.aop.internalcall;
+
+import hello.aop.selfproxy.annotation.SelfProxy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * 대안4: 자기 자신의 프록시를 한 번만 주입 (@SelfProxy)
+ * 순환 참조 설정 없이 동작 (V1), 호출마다 조회하지 않음 (V2)
+ */
+@Slf4j
+@Component
+public class CallServiceV4 {
+    @SelfProxy
+    private CallServiceV4 self; //프록시 주입됨
+
+    public void external() {
+        log.info("call external");
+        self.internal(); //외부 메서드 호출
+    }
+
+    public void internal() {
+        log.info("call internal");
+    }
+}
@@ -0,0 +1,32 @@
+package hello.aop.killswitch;
+
+/**
+ * aspect 1개의 on/off 스위치
+ * 호출 경로에서는 volatile 읽기 1번만 한다. (SwitchableInterceptor)
+ */
+public class AspectSwitch {
+    private final String name;
+    private volatile boolean enabled;
+
+    AspectSwitch(String name, boolean enabled) {
+        this.name = name;
+        this.enabled = enabled;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public String toString() {
+        return name + "=" + (enabled ? "on" : "off");
+    }
+}
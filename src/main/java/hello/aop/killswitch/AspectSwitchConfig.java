@@ -0,0 +1,29 @@
+package hello.aop.killswitch;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+
+import java.util.List;
+
+/**
+ * @Import(AspectSwitchConfig.class) 로 사용
+ * aspect 별 런타임 on/off 스위치, 재시작 없이 JMX(hello.aop:type=AspectSwitch)로 끄고 켠다.
+ * aop.switch.disabled: 시작할 때 꺼둘 aspect (ex. TraceAspect,CallLogAspect)
+ */
+public class AspectSwitchConfig {
+
+    @Bean
+    public static AspectSwitchRegistry aspectSwitchRegistry(@Value("${aop.switch.disabled:}") List<String> disabled) {
+        return new AspectSwitchRegistry(disabled);
+    }
+
+    @Bean
+    public static AspectSwitchPostProcessor aspectSwitchPostProcessor(AspectSwitchRegistry aspectSwitchRegistry) {
+        return new AspectSwitchPostProcessor(aspectSwitchRegistry);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public AspectSwitchView aspectSwitchView(AspectSwitchRegistry aspectSwitchRegistry) {
+        return new AspectSwitchView(aspectSwitchRegistry);
+    }
+}
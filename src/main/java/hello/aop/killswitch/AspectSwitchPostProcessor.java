@@ -0,0 +1,136 @@
+package hello.aop.killswitch;
+
+import hello.aop.fusion.FusedAdviceInterceptor;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.aop.Advice;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.PointcutAdvisor;
+import org.springframework.aop.aspectj.AbstractAspectJAdvice;
+import org.springframework.aop.aspectj.AspectInstanceFactory;
+import org.springframework.aop.aspectj.annotation.MetadataAwareAspectInstanceFactory;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.adapter.AdvisorAdapterRegistry;
+import org.springframework.aop.framework.adapter.GlobalAdvisorAdapterRegistry;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.lang.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * 프록시 빈의 @Aspect 어드바이스를 aspect 별로 SwitchableInterceptor 하나로 묶는다.
+ * - 같은 aspect 의 연속된 어드바이저 -> 어드바이저 1개 (포인트컷: 합집합), 스위치는 aspect 마다 한 번만 확인
+ * - 프록시 생성(AutoProxyCreator, HIGHEST_PRECEDENCE) 이후, AdvisorChainPostProcessor 보다 먼저 (체인 지표가 스위치 바깥)
+ * - @Aspect 가 아닌 어드바이저(ExposeInvocationInterceptor 등)는 그대로
+ * - frozen 프록시(HiddenProxyConfig 등)는 어드바이저를 바꿀 수 없으므로 건너뛴다.
+ */
+@Slf4j
+public class AspectSwitchPostProcessor implements BeanPostProcessor, Ordered {
+    private final AspectSwitchRegistry registry;
+    private final AdvisorAdapterRegistry adapters = GlobalAdvisorAdapterRegistry.getInstance();
+
+    public AspectSwitchPostProcessor(AspectSwitchRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (!(bean instanceof Advised) || !AopUtils.isAopProxy(bean)) {
+            return bean;
+        }
+        Advised advised = (Advised) bean;
+        if (advised.isFrozen()) {
+            log.info("[switch] skip frozen proxy bean={}", beanName);
+            return bean;
+        }
+        Advisor[] advisors = advised.getAdvisors();
+        List<Advisor> switchable = new ArrayList<>(advisors.length);
+        boolean changed = false;
+        for (int i = 0; i < advisors.length; ) {
+            Class<?> aspectClass = aspectClass(advisors[i]);
+            if (aspectClass == null) {
+                switchable.add(advisors[i++]);
+                continue;
+            }
+            int end = i + 1;
+            while (end < advisors.length && aspectClass.equals(aspectClass(advisors[end]))) {
+                end++;
+            }
+            switchable.add(group(aspectClass, Arrays.asList(advisors).subList(i, end), advised.getTargetClass()));
+            i = end;
+            changed = true;
+        }
+        if (!changed) {
+            return bean;
+        }
+        for (int i = advisors.length - 1; i >= 0; i--) {
+            advised.removeAdvisor(i);
+        }
+        for (Advisor advisor : switchable) {
+            advised.addAdvisor(advisor);
+        }
+        return bean;
+    }
+
+    //같은 aspect 의 어드바이저들 -> 스위치 확인 1번 + 어드바이저별 인터셉터
+    private Advisor group(Class<?> aspectClass, List<Advisor> advisors, @Nullable Class<?> targetClass) {
+        List<SwitchableInterceptor.Member> members = new ArrayList<>(advisors.size());
+        ComposablePointcut pointcut = null;
+        StringJoiner description = new StringJoiner(", ");
+        for (Advisor advisor : advisors) {
+            Pointcut advisorPointcut = ((PointcutAdvisor) advisor).getPointcut();
+            pointcut = pointcut == null ? new ComposablePointcut(advisorPointcut) : pointcut.union(advisorPointcut);
+            for (MethodInterceptor interceptor : adapters.getInterceptors(advisor)) {
+                members.add(new SwitchableInterceptor.Member(advisorPointcut, interceptor));
+            }
+            description.add(describe(advisor.getAdvice()));
+        }
+        SwitchableInterceptor interceptor = new SwitchableInterceptor(registry.get(aspectClass), targetClass,
+                members, description.toString());
+        return new DefaultPointcutAdvisor(pointcut, interceptor);
+    }
+
+    //@Aspect 어드바이스가 아니면 null
+    private static Class<?> aspectClass(Advisor advisor) {
+        if (!(advisor instanceof PointcutAdvisor)) {
+            return null;
+        }
+        Advice advice = advisor.getAdvice();
+        if (advice instanceof FusedAdviceInterceptor) {
+            return ((FusedAdviceInterceptor) advice).getAspectClass();
+        }
+        if (!(advice instanceof AbstractAspectJAdvice)) {
+            return null;
+        }
+        AbstractAspectJAdvice aspectJAdvice = (AbstractAspectJAdvice) advice;
+        AspectInstanceFactory instanceFactory = aspectJAdvice.getAspectInstanceFactory();
+        if (instanceFactory instanceof MetadataAwareAspectInstanceFactory) {
+            return ((MetadataAwareAspectInstanceFactory) instanceFactory).getAspectMetadata().getAspectClass();
+        }
+        return aspectJAdvice.getAspectJAdviceMethod().getDeclaringClass();
+    }
+
+    private static String describe(Advice advice) {
+        if (advice instanceof AbstractAspectJAdvice) {
+            Method adviceMethod = ((AbstractAspectJAdvice) advice).getAspectJAdviceMethod();
+            return adviceMethod.getDeclaringClass().getSimpleName() + "." + adviceMethod.getName()
+                    + " [" + advice.getClass().getSimpleName() + "]";
+        }
+        return advice.toString();
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 1;
+    }
+}
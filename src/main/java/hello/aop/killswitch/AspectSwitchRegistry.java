@@ -0,0 +1,59 @@
+package hello.aop.killswitch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * aspect 클래스별 AspectSwitch 저장소
+ * 이름: 패키지를 뺀 클래스 이름 (TraceAspect, AspectV5Order.LogAspect)
+ * disabled: 시작할 때 꺼둘 aspect 이름 (aop.switch.disabled)
+ */
+@Slf4j
+public class AspectSwitchRegistry {
+    private final ConcurrentMap<String, AspectSwitch> switches = new ConcurrentHashMap<>();
+    private final Set<String> disabled;
+
+    public AspectSwitchRegistry(Collection<String> disabled) {
+        this.disabled = Set.copyOf(disabled);
+    }
+
+    public AspectSwitch get(Class<?> aspectClass) {
+        String name = ClassUtils.getShortName(aspectClass);
+        AspectSwitch found = switches.get(name);
+        if (found != null) {
+            return found;
+        }
+        return switches.computeIfAbsent(name, key -> new AspectSwitch(key, !disabled.contains(key)));
+    }
+
+    public void setEnabled(String name, boolean enabled) {
+        AspectSwitch aspectSwitch = switches.get(name);
+        if (aspectSwitch == null) {
+            throw new IllegalArgumentException("unknown aspect=" + name + ", aspects=" + switches.keySet());
+        }
+        aspectSwitch.setEnabled(enabled);
+        log.warn("[switch] {}", aspectSwitch);
+    }
+
+    public boolean isEnabled(String name) {
+        AspectSwitch aspectSwitch = switches.get(name);
+        if (aspectSwitch == null) {
+            throw new IllegalArgumentException("unknown aspect=" + name + ", aspects=" + switches.keySet());
+        }
+        return aspectSwitch.isEnabled();
+    }
+
+    public List<AspectSwitch> getSwitches() {
+        List<AspectSwitch> list = new ArrayList<>(switches.values());
+        list.sort(Comparator.comparing(AspectSwitch::getName));
+        return list;
+    }
+}
@@ -0,0 +1,58 @@
+package hello.aop.killswitch;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * AspectSwitchRegistry 를 platform MBeanServer 에 등록 (로컬 JMX)
+ * 같은 JVM 에 이미 등록된 컨텍스트가 있으면 먼저 등록한 쪽을 유지한다.
+ */
+@Slf4j
+public class AspectSwitchView implements AspectSwitchViewMBean {
+    public static final String OBJECT_NAME = "hello.aop:type=AspectSwitch";
+
+    private final AspectSwitchRegistry registry;
+    private boolean registered;
+
+    public AspectSwitchView(AspectSwitchRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void start() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(this, new ObjectName(OBJECT_NAME));
+            registered = true;
+            log.info("[switch] jmx {}", OBJECT_NAME);
+        } catch (InstanceAlreadyExistsException e) {
+            log.warn("[switch] jmx {} already registered", OBJECT_NAME);
+        }
+    }
+
+    public void stop() throws JMException {
+        if (registered) {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(OBJECT_NAME));
+            registered = false;
+        }
+    }
+
+    @Override
+    public String[] getAspects() {
+        return registry.getSwitches().stream().map(AspectSwitch::toString).toArray(String[]::new);
+    }
+
+    @Override
+    public void enable(String aspect) {
+        registry.setEnabled(aspect, true);
+    }
+
+    @Override
+    public void disable(String aspect) {
+        registry.setEnabled(aspect, false);
+    }
+}
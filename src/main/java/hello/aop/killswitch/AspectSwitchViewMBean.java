@@ -0,0 +1,14 @@
+package hello.aop.killswitch;
+
+/**
+ * JMX 조회/변경 (jconsole 등): hello.aop:type=AspectSwitch
+ * 재시작 없이 aspect 를 끄고 켠다.
+ */
+public interface AspectSwitchViewMBean {
+
+    String[] getAspects();
+
+    void enable(String aspect);
+
+    void disable(String aspect);
+}
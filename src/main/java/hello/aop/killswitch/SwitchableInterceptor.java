@@ -0,0 +1,179 @@
+package hello.aop.killswitch;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.MethodMatcher;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.lang.Nullable;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * aspect 1개의 연속된 어드바이스 앞에서 스위치를 한 번만 확인 (AspectSwitchPostProcessor 가 생성)
+ * - 꺼져 있으면 이 aspect 의 어드바이스를 모두 건너뛰고 바로 다음 인터셉터로 진행 (JoinPoint, 인자 바인딩을 만들지 않는다.)
+ * - 켜져 있으면 호출된 메서드에 맞는 어드바이스만 스프링 체인과 같은 순서로 실행
+ *   (안쪽 어드바이스가 끝나면 바깥 MethodInvocation 으로 진행, @Around 의 proceed() 는 이 aspect 의 다음 어드바이스부터)
+ */
+public class SwitchableInterceptor implements MethodInterceptor {
+    private final AspectSwitch aspectSwitch;
+    private final Class<?> targetClass;
+    private final List<Member> members;
+    private final String description;
+    private final ConcurrentMap<Method, Member[]> chains = new ConcurrentHashMap<>(); //메서드별 맞는 어드바이스
+
+    SwitchableInterceptor(AspectSwitch aspectSwitch, @Nullable Class<?> targetClass, List<Member> members,
+                          String description) {
+        this.aspectSwitch = aspectSwitch;
+        this.targetClass = targetClass;
+        this.members = members;
+        this.description = description;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (!aspectSwitch.isEnabled()) {
+            return invocation.proceed();
+        }
+        if (!(invocation instanceof ProxyMethodInvocation)) {
+            throw new IllegalStateException("MethodInvocation is not a Spring ProxyMethodInvocation: " + invocation);
+        }
+        Member[] chain = chain(invocation.getMethod());
+        return new GroupInvocation((ProxyMethodInvocation) invocation, this, chain, -1).proceed();
+    }
+
+    private Member[] chain(Method method) {
+        Member[] chain = chains.get(method);
+        if (chain != null) {
+            return chain;
+        }
+        return chains.computeIfAbsent(method, key -> members.stream()
+                .filter(member -> member.matches(key, actualClass(key)))
+                .toArray(Member[]::new));
+    }
+
+    //스프링 체인과 같이 대상 클래스를 모르면 메서드를 선언한 클래스
+    private Class<?> actualClass(Method method) {
+        return targetClass != null ? targetClass : method.getDeclaringClass();
+    }
+
+    @Override
+    public String toString() {
+        return description + " (" + aspectSwitch + ")";
+    }
+
+    /**
+     * 어드바이저 1개의 인터셉터와 포인트컷
+     */
+    static final class Member {
+        private final Pointcut pointcut;
+        private final MethodInterceptor interceptor;
+
+        Member(Pointcut pointcut, MethodInterceptor interceptor) {
+            this.pointcut = pointcut;
+            this.interceptor = interceptor;
+        }
+
+        boolean matches(Method method, Class<?> targetClass) {
+            return pointcut.getClassFilter().matches(targetClass)
+                    && pointcut.getMethodMatcher().matches(method, targetClass);
+        }
+
+        //args() 등 실행 시점 조건 (스프링 체인의 InterceptorAndDynamicMethodMatcher 와 같음)
+        boolean matchesArguments(Method method, Class<?> targetClass, Object[] arguments) {
+            MethodMatcher methodMatcher = pointcut.getMethodMatcher();
+            return !methodMatcher.isRuntime() || methodMatcher.matches(method, targetClass, arguments);
+        }
+    }
+
+    /**
+     * 이 aspect 의 어드바이스를 차례로 진행하고, 끝나면 바깥 MethodInvocation 을 진행한다.
+     * 나머지(메서드, 인자, user attribute ...)는 바깥 MethodInvocation 에 위임
+     */
+    private static final class GroupInvocation implements ProxyMethodInvocation {
+        private final ProxyMethodInvocation outer;
+        private final SwitchableInterceptor group;
+        private final Member[] chain;
+        private int index;
+
+        GroupInvocation(ProxyMethodInvocation outer, SwitchableInterceptor group, Member[] chain, int index) {
+            this.outer = outer;
+            this.group = group;
+            this.chain = chain;
+            this.index = index;
+        }
+
+        @Override
+        public Object proceed() throws Throwable {
+            while (++index < chain.length) {
+                Member member = chain[index];
+                Method method = outer.getMethod();
+                if (member.matchesArguments(method, group.actualClass(method), outer.getArguments())) {
+                    return member.interceptor.invoke(this);
+                }
+            }
+            return outer.proceed();
+        }
+
+        @Override
+        public MethodInvocation invocableClone() {
+            return new GroupInvocation((ProxyMethodInvocation) outer.invocableClone(), group, chain, index);
+        }
+
+        @Override
+        public MethodInvocation invocableClone(Object... arguments) {
+            return new GroupInvocation((ProxyMethodInvocation) outer.invocableClone(arguments), group, chain, index);
+        }
+
+        @Override
+        public Object getProxy() {
+            return outer.getProxy();
+        }
+
+        @Override
+        public void setArguments(Object... arguments) {
+            outer.setArguments(arguments);
+        }
+
+        @Override
+        public void setUserAttribute(String key, @Nullable Object value) {
+            outer.setUserAttribute(key, value);
+        }
+
+        @Override
+        @Nullable
+        public Object getUserAttribute(String key) {
+            return outer.getUserAttribute(key);
+        }
+
+        @Override
+        public Method getMethod() {
+            return outer.getMethod();
+        }
+
+        @Override
+        public Object[] getArguments() {
+            return outer.getArguments();
+        }
+
+        @Override
+        @Nullable
+        public Object getThis() {
+            return outer.getThis();
+        }
+
+        @Override
+        public AccessibleObject getStaticPart() {
+            return outer.getStaticPart();
+        }
+
+        @Override
+        public String toString() {
+            return "GroupInvocation[" + group + ", index=" + index + "]: " + outer;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package hello.aop.log;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.Signature;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 어드바이스용 로그 파사드
+ *
+ * if (log.isEnabled()) { ... } 안에서만 joinPoint 를 건드린다.
+ * - 레벨이 꺼져 있거나 샘플링에서 빠지면 getSignature(), getArgs() 모두 호출하지 않는다.
+ * - 시그니처 문자열은 메서드별로 한 번만 만든다.
+ * - 인자는 로그를 찍을 때만, 최대 길이까지만 렌더링한다.
+ * - 어드바이스가 여러 개인 aspect 는 isEnabledForInvocation(): 한 호출의 로그를 같이 샘플링한다.
+ */
+public class AopLogger {
+    private static final ConcurrentMap<Method, String> SIGNATURES = new ConcurrentHashMap<>();
+    private static final int MAX_ARG_LENGTH = Integer.getInteger("aop.log.max-arg-length", 200);
+
+    private final Logger logger;
+    private final String sampledAttribute; //MethodInvocation user attribute 이름
+    private volatile LogSampler sampler;
+
+    private AopLogger(Logger logger, LogSampler sampler) {
+        this.logger = logger;
+        this.sampledAttribute = AopLogger.class.getName() + ".sampled." + logger.getName();
+        this.sampler = sampler;
+    }
+
+    public static AopLogger of(Class<?> type) {
+        return new AopLogger(LoggerFactory.getLogger(type), LogSampler.fromSystemProperties());
+    }
+
+    /**
+     * INFO 레벨이 켜져 있고 이번 호출이 샘플링 되었는지
+     * 한 어드바이스 안에서 여러 줄을 찍으면 한 번만 호출하고 결과를 재사용한다.
+     */
+    public boolean isEnabled() {
+        return logger.isInfoEnabled() && sampler.sample();
+    }
+
+    /**
+     * isEnabled() 를 호출(MethodInvocation)마다 한 번만 계산한다.
+     * 같은 aspect 의 @Before, @AfterReturning, @After ... 가 같은 결과를 본다. ([before] 만 찍히고 [after] 가 빠지지 않도록)
+     * 결과는 현재 MethodInvocation 의 user attribute 에 둔다. (스프링 프록시 밖이면 isEnabled())
+     */
+    public boolean isEnabledForInvocation() {
+        if (!logger.isInfoEnabled()) {
+            return false;
+        }
+        ProxyMethodInvocation invocation = currentInvocation();
+        if (invocation == null) {
+            return sampler.sample();
+        }
+        Object sampled = invocation.getUserAttribute(sampledAttribute);
+        if (sampled == null) {
+            sampled = sampler.sample();
+            invocation.setUserAttribute(sampledAttribute, sampled);
+        }
+        return (Boolean) sampled;
+    }
+
+    private static ProxyMethodInvocation currentInvocation() {
+        try {
+            MethodInvocation invocation = ExposeInvocationInterceptor.currentInvocation();
+            return invocation instanceof ProxyMethodInvocation ? (ProxyMethodInvocation) invocation : null;
+        } catch (IllegalStateException e) {
+            return null; //스프링 프록시 밖 (컴파일 타임 위빙 등)
+        }
+    }
+
+    public void info(String format, Object arg) {
+        logger.info(format, arg);
+    }
+
+    public void info(String format, Object arg1, Object arg2) {
+        logger.info(format, arg1, arg2);
+    }
+
+    public void setSampler(LogSampler sampler) {
+        this.sampler = sampler;
+    }
+
+    public LogSampler getSampler() {
+        return sampler;
+    }
+
+    public static String signature(JoinPoint joinPoint) {
+        Signature signature = joinPoint.getSignature();
+        if (!(signature instanceof MethodSignature)) {
+            return signature.toString();
+        }
+        Method method = ((MethodSignature) signature).getMethod();
+        String rendered = SIGNATURES.get(method);
+        if (rendered == null) {
+            rendered = signature.toString();
+            SIGNATURES.putIfAbsent(method, rendered);
+        }
+        return rendered;
+    }
+
+    public static Object args(JoinPoint joinPoint) {
+        return new BoundedArgs(joinPoint.getArgs(), MAX_ARG_LENGTH);
+    }
+}
@@ -0,0 +1,97 @@
+package hello.aop.log;
+
+import java.lang.reflect.Array;
+import java.util.Iterator;
+
+/**
+ * 인자 배열을 로그 출력 시점에만 최대 maxLength 글자로 렌더링
+ * 남은 길이만큼만 붙인다. 긴 문자열, 배열, 컬렉션 인자는 전체 문자열을 만들지 않는다.
+ * (그 외 객체는 toString() 결과를 잘라서 붙인다.)
+ */
+class BoundedArgs {
+    private static final String ELLIPSIS = "...";
+
+    private final Object[] args;
+    private final int maxLength;
+
+    BoundedArgs(Object[] args, int maxLength) {
+        this.args = args;
+        this.maxLength = maxLength;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(Math.min(maxLength, 64) + 5).append('[');
+        for (int i = 0; i < args.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            if (!append(sb, args[i])) {
+                break;
+            }
+        }
+        return sb.append(']').toString();
+    }
+
+    //false: maxLength 에 닿아서 잘랐다. (뒤에는 더 붙이지 않는다.)
+    private boolean append(StringBuilder sb, Object value) {
+        if (value instanceof CharSequence) {
+            return appendChars(sb, (CharSequence) value);
+        }
+        if (value != null && value.getClass().isArray()) {
+            return appendElements(sb, new ArrayIterator(value));
+        }
+        if (value instanceof Iterable) {
+            return appendElements(sb, ((Iterable<?>) value).iterator());
+        }
+        return appendChars(sb, String.valueOf(value));
+    }
+
+    private boolean appendChars(StringBuilder sb, CharSequence value) {
+        int remaining = Math.max(0, maxLength - sb.length());
+        if (value.length() > remaining) {
+            sb.append(value, 0, remaining).append(ELLIPSIS);
+            return false;
+        }
+        sb.append(value);
+        return true;
+    }
+
+    private boolean appendElements(StringBuilder sb, Iterator<?> elements) {
+        if (!appendChars(sb, "[")) {
+            return false;
+        }
+        boolean first = true;
+        while (elements.hasNext()) {
+            if (!first && !appendChars(sb, ", ")) {
+                return false;
+            }
+            first = false;
+            if (!append(sb, elements.next())) {
+                return false;
+            }
+        }
+        return appendChars(sb, "]");
+    }
+
+    private static class ArrayIterator implements Iterator<Object> {
+        private final Object array;
+        private final int length;
+        private int index;
+
+        ArrayIterator(Object array) {
+            this.array = array;
+            this.length = Array.getLength(array);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < length;
+        }
+
+        @Override
+        public Object next() {
+            return Array.get(array, index++);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package hello.aop.log;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 로그를 남길 호출 선택 (샘플링)
+ * - always(): 모두
+ * - oneIn(n): n번에 1번 (랜덤, 공유 카운터 없음)
+ * - perSecond(n): 초당 최대 n번
+ */
+public abstract class LogSampler {
+
+    private static final LogSampler ALWAYS = new LogSampler() {
+        @Override
+        public boolean sample() {
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "always";
+        }
+    };
+
+    public abstract boolean sample();
+
+    public static LogSampler always() {
+        return ALWAYS;
+    }
+
+    public static LogSampler oneIn(int n) {
+        return n <= 1 ? ALWAYS : new OneIn(n);
+    }
+
+    public static LogSampler perSecond(int permits) {
+        return new PerSecond(permits);
+    }
+
+    /**
+     * 시스템 프로퍼티
+     * -Daop.log.rate-per-second=10 (우선)
+     * -Daop.log.sample-every=100
+     */
+    public static LogSampler fromSystemProperties() {
+        int perSecond = Integer.getInteger("aop.log.rate-per-second", 0);
+        if (perSecond > 0) {
+            return perSecond(perSecond);
+        }
+        return oneIn(Integer.getInteger("aop.log.sample-every", 1));
+    }
+
+    private static class OneIn extends LogSampler {
+        private final int n;
+
+        OneIn(int n) {
+            this.n = n;
+        }
+
+        @Override
+        public boolean sample() {
+            return ThreadLocalRandom.current().nextInt(n) == 0;
+        }
+
+        @Override
+        public String toString() {
+            return "1/" + n;
+        }
+    }
+
+    private static class PerSecond extends LogSampler {
+        private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+        private final int permits;
+        private final AtomicLong window = new AtomicLong(System.nanoTime() / SECOND);
+        private final AtomicInteger count = new AtomicInteger();
+
+        PerSecond(int permits) {
+            this.permits = permits;
+        }
+
+        @Override
+        public boolean sample() {
+            long now = System.nanoTime() / SECOND;
+            long current = window.get();
+            if (now != current && window.compareAndSet(current, now)) {
+                count.set(0);
+            }
+            //초과한 뒤에는 쓰기 없이 읽기만
+            return count.get() < permits && count.incrementAndGet() <= permits;
+        }
+
+        @Override
+        public String toString() {
+            return permits + "/s";
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package hello.aop.member;
 
+import hello.aop.cache.annotation.Memoize;
 import hello.aop.member.annotation.ClassAop;
 import hello.aop.member.annotation.MethodAop;
 import org.springframework.stereotype.Component;
@@ -10,6 +11,7 @@ public class MemberServiceImpl implements MemberService {
 
     @Override
     @MethodAop("test value")
+    @Memoize(maximumSize = 256, ttlMillis = 60_000)
     public String hello(String param) {
         return "ok";
     }
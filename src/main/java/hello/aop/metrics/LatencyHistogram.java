@@ -0,0 +1,87 @@
+package hello.aop.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * lock-free log-linear 히스토그램 (HdrHistogram 방식)
+ * 2의 거듭제곱 구간(octave)마다 SUB_BUCKETS 개로 나눈다. -> 상대 오차 약 1/32 (3%)
+ * 기록: 인덱스 계산(비트 연산) + AtomicLongArray 증가 1번
+ */
+public class LatencyHistogram {
+    static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int MAX_VALUE_BITS = 42; //약 73분 (ns)
+    static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+    static final int BUCKETS = (MAX_VALUE_BITS - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    public void record(long value) {
+        counts.incrementAndGet(index(value));
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) Math.max(0, value);
+        }
+        long clamped = Math.min(value, MAX_VALUE);
+        int shift = 63 - Long.numberOfLeadingZeros(clamped) - SUB_BUCKET_BITS;
+        int mantissa = (int) (clamped >>> shift); //SUB_BUCKETS ~ 2 * SUB_BUCKETS - 1
+        return (shift + 1) * SUB_BUCKETS + (mantissa - SUB_BUCKETS);
+    }
+
+    //버킷에 들어가는 가장 큰 값
+    static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long mantissa = SUB_BUCKETS + index % SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    /**
+     * 기록 중에도 호출 가능 (버킷별로 읽으므로 약간의 오차 허용)
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        return new Snapshot(copy, total);
+    }
+
+    public static class Snapshot {
+        private final long[] counts;
+        private final long total;
+
+        Snapshot(long[] counts, long total) {
+            this.counts = counts;
+            this.total = total;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        /**
+         * @param quantile 0.5, 0.99, 0.999 ...
+         */
+        public long valueAt(double quantile) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return highestValue(i);
+                }
+            }
+            return highestValue(counts.length - 1);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package hello.aop.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 메서드 1개의 RED(rate, error, duration) 지표
+ * 카운터는 LongAdder (쓰레드별 셀로 나눠서 경합 없음), 기록 경로에 락 없음
+ */
+public class MethodMetrics {
+    private final String name;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    public MethodMetrics(String name) {
+        this.name = name;
+    }
+
+    public void record(long nanos, boolean error) {
+        calls.increment();
+        if (error) {
+            errors.increment();
+        }
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        histogram.record(nanos);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public MethodMetricsSnapshot snapshot(double uptimeSeconds) {
+        LatencyHistogram.Snapshot latency = histogram.snapshot();
+        long count = calls.sum();
+        return new MethodMetricsSnapshot(name, count, errors.sum(),
+                uptimeSeconds > 0 ? count / uptimeSeconds : 0,
+                totalNanos.sum(), maxNanos.get(),
+                latency.valueAt(0.5), latency.valueAt(0.99), latency.valueAt(0.999));
+    }
+}
@@ -0,0 +1,38 @@
+package hello.aop.metrics;
+
+import lombok.Getter;
+
+/**
+ * 조회 시점의 지표 (시간 단위: ns)
+ */
+@Getter
+public class MethodMetricsSnapshot {
+    private final String name;
+    private final long count;
+    private final long errors;
+    private final double meanRate; //초당 호출 수 (시작 이후 평균)
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long p50;
+    private final long p99;
+    private final long p999;
+
+    public MethodMetricsSnapshot(String name, long count, long errors, double meanRate, long totalNanos,
+                                 long maxNanos, long p50, long p99, long p999) {
+        this.name = name;
+        this.count = count;
+        this.errors = errors;
+        this.meanRate = meanRate;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.p50 = p50;
+        this.p99 = p99;
+        this.p999 = p999;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s count=%d errors=%d rate=%.1f/s p50=%dns p99=%dns p999=%dns max=%dns",
+                name, count, errors, meanRate, p50, p99, p999, maxNanos);
+    }
+}
@@ -0,0 +1,30 @@
+package hello.aop.metrics;
+
+import hello.aop.metrics.aop.TimedAspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * @Import(MetricsConfig.class) 로 사용
+ * aop.metrics.port 가 있으면 Prometheus exporter 시작 (0: 빈 포트)
+ */
+public class MetricsConfig {
+
+    @Bean
+    public MetricsRegistry metricsRegistry() {
+        return MetricsRegistry.global();
+    }
+
+    @Bean
+    public TimedAspect timedAspect(MetricsRegistry metricsRegistry) {
+        return new TimedAspect(metricsRegistry);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty("aop.metrics.port")
+    public PrometheusExporter prometheusExporter(MetricsRegistry metricsRegistry,
+                                                 @Value("${aop.metrics.port}") int port) {
+        return new PrometheusExporter(metricsRegistry, port);
+    }
+}
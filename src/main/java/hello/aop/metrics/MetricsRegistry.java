@@ -0,0 +1,44 @@
+package hello.aop.metrics;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 메서드별 MethodMetrics 저장소 + 스냅샷 API
+ * 기본 인스턴스 global(): TimedAspect 기본 생성자, 컴파일 타임 위빙에서 사용
+ */
+public class MetricsRegistry {
+    private static final MetricsRegistry GLOBAL = new MetricsRegistry();
+
+    private final ConcurrentMap<Method, MethodMetrics> metrics = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, MethodMetrics> byName = new ConcurrentHashMap<>(); //오버로딩 메서드는 합친다.
+    private final long startNanos = System.nanoTime();
+
+    public static MetricsRegistry global() {
+        return GLOBAL;
+    }
+
+    public MethodMetrics get(Method method) {
+        MethodMetrics found = metrics.get(method);
+        if (found != null) {
+            return found;
+        }
+        return metrics.computeIfAbsent(method,
+                key -> byName.computeIfAbsent(key.getDeclaringClass().getSimpleName() + "." + key.getName(),
+                        MethodMetrics::new));
+    }
+
+    public List<MethodMetricsSnapshot> snapshot() {
+        double uptimeSeconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        List<MethodMetricsSnapshot> snapshots = new ArrayList<>();
+        for (MethodMetrics methodMetrics : byName.values()) {
+            snapshots.add(methodMetrics.snapshot(uptimeSeconds));
+        }
+        snapshots.sort(Comparator.comparing(MethodMetricsSnapshot::getName));
+        return snapshots;
+    }
+}
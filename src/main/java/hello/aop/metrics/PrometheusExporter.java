@@ -0,0 +1,105 @@
+package hello.aop.metrics;
+
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * MetricsRegistry 를 Prometheus text format 으로 노출 (localhost 전용)
+ * GET http://localhost:{port}/metrics
+ */
+@Slf4j
+public class PrometheusExporter {
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final MetricsRegistry registry;
+    private final int port;
+    private HttpServer server;
+
+    public PrometheusExporter(MetricsRegistry registry, int port) {
+        this.registry = registry;
+        this.port = port;
+    }
+
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", exchange -> {
+            byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        log.info("[metrics] prometheus exporter http://localhost:{}/metrics", getPort());
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    //port 0 이면 실제 할당된 포트
+    public int getPort() {
+        return server != null ? server.getAddress().getPort() : port;
+    }
+
+    public String scrape() {
+        List<MethodMetricsSnapshot> snapshots = registry.snapshot();
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("# HELP aop_method_calls_total Advised method calls\n");
+        sb.append("# TYPE aop_method_calls_total counter\n");
+        for (MethodMetricsSnapshot s : snapshots) {
+            sample(sb, "aop_method_calls_total", s.getName(), null, s.getCount());
+        }
+
+        sb.append("# HELP aop_method_errors_total Advised method calls that threw\n");
+        sb.append("# TYPE aop_method_errors_total counter\n");
+        for (MethodMetricsSnapshot s : snapshots) {
+            sample(sb, "aop_method_errors_total", s.getName(), null, s.getErrors());
+        }
+
+        sb.append("# HELP aop_method_duration_seconds Advised method latency\n");
+        sb.append("# TYPE aop_method_duration_seconds summary\n");
+        for (MethodMetricsSnapshot s : snapshots) {
+            sample(sb, "aop_method_duration_seconds", s.getName(), "0.5", s.getP50() / NANOS_PER_SECOND);
+            sample(sb, "aop_method_duration_seconds", s.getName(), "0.99", s.getP99() / NANOS_PER_SECOND);
+            sample(sb, "aop_method_duration_seconds", s.getName(), "0.999", s.getP999() / NANOS_PER_SECOND);
+            sample(sb, "aop_method_duration_seconds_sum", s.getName(), null, s.getTotalNanos() / NANOS_PER_SECOND);
+            sample(sb, "aop_method_duration_seconds_count", s.getName(), null, s.getCount());
+        }
+
+        sb.append("# HELP aop_method_duration_seconds_max Advised method max latency\n");
+        sb.append("# TYPE aop_method_duration_seconds_max gauge\n");
+        for (MethodMetricsSnapshot s : snapshots) {
+            sample(sb, "aop_method_duration_seconds_max", s.getName(), null, s.getMaxNanos() / NANOS_PER_SECOND);
+        }
+        return sb.toString();
+    }
+
+    private static void sample(StringBuilder sb, String metric, String method, String quantile, double value) {
+        sb.append(metric).append("{method=\"").append(method).append('"');
+        if (quantile != null) {
+            sb.append(",quantile=\"").append(quantile).append('"');
+        }
+        sb.append("} ").append(String.format(Locale.ROOT, "%.9g", value)).append('\n');
+    }
+
+    private static void sample(StringBuilder sb, String metric, String method, String quantile, long value) {
+        sb.append(metric).append("{method=\"").append(method).append('"');
+        if (quantile != null) {
+            sb.append(",quantile=\"").append(quantile).append('"');
+        }
+        sb.append("} ").append(value).append('\n');
+    }
+}
@@ -0,0 +1,15 @@
+package hello.aop.metrics.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 호출 수(rate), 예외 수(error), 응답 시간(duration) 기록
+ * 클래스에 붙이면 모든 메서드에 적용
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Timed {
+}
@@ -0,0 +1,51 @@
+package hello.aop.metrics.aop;
+
+import hello.aop.metrics.MethodMetrics;
+import hello.aop.metrics.MetricsRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * @Timed 메서드(또는 클래스)의 호출 수, 예외 수, 응답 시간 기록
+ * CompletionStage 반환 메서드는 완료될 때까지를 응답 시간으로 본다.
+ */
+@Aspect
+public class TimedAspect {
+    private final MetricsRegistry registry;
+
+    public TimedAspect() {
+        this(MetricsRegistry.global());
+    }
+
+    public TimedAspect(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("@annotation(hello.aop.metrics.annotation.Timed) || @within(hello.aop.metrics.annotation.Timed)")
+    public Object doTimed(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodMetrics metrics = registry.get(((MethodSignature) joinPoint.getSignature()).getMethod());
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            metrics.record(System.nanoTime() - start, true);
+            throw e;
+        }
+        if (result instanceof CompletionStage) {
+            ((CompletionStage<?>) result).whenComplete(
+                    (value, ex) -> metrics.record(System.nanoTime() - start, ex != null));
+        } else {
+            metrics.record(System.nanoTime() - start, false);
+        }
+        return result;
+    }
+
+    public MetricsRegistry getRegistry() {
+        return registry;
+    }
+}
@@ -0,0 +1,16 @@
+package hello.aop.offload.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 호출을 가상 쓰레드(JDK 21 미만은 고정 풀)에서 실행
+ * - CompletionStage/CompletableFuture 반환: 바로 future 반환
+ * - 그 외: 호출한 쓰레드는 결과를 기다린다. (블로킹은 가상 쓰레드에서)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Offload {
+}
@@ -0,0 +1,103 @@
+package hello.aop.offload.aop;
+
+import hello.aop.support.ContextSnapshot;
+import hello.aop.support.DetachedProceed;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * @Offload: 호출을 실행기(기본: 가상 쓰레드)에 넘긴다.
+ * 가장 바깥(HIGHEST_PRECEDENCE)에서 실행되므로 뒤의 어드바이스(@Trace, @Retry ...)는 모두 새 쓰레드에서 실행된다.
+ * MDC, @Trace 컨텍스트는 ContextSnapshot 으로 새 쓰레드에 전달한다.
+ *
+ * - CompletionStage/CompletableFuture 반환: 바로 CompletableFuture 반환 (메서드가 반환한 stage 가 끝나면 완료)
+ * - 그 외: 결과를 기다렸다가 반환, 예외는 원래 예외 그대로 던진다.
+ *   이미 @Offload 작업 안이면 넘기지 않고 그 쓰레드에서 실행한다.
+ *   (고정 크기 풀에서 작업이 같은 풀의 작업을 기다리면 풀이 가득 찼을 때 서로 기다리다 멈춘다.)
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class OffloadAspect {
+    private static final ThreadLocal<Boolean> OFFLOADED = new ThreadLocal<>();
+
+    private final ExecutorService executor;
+
+    public OffloadAspect() {
+        this(OffloadExecutors.shared());
+    }
+
+    public OffloadAspect(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    @Around("@annotation(hello.aop.offload.annotation.Offload)")
+    public Object doOffload(ProceedingJoinPoint joinPoint) throws Throwable {
+        Class<?> returnType = ((MethodSignature) joinPoint.getSignature()).getReturnType();
+        boolean async = CompletionStage.class.isAssignableFrom(returnType);
+        if (!async && OFFLOADED.get() != null) {
+            return joinPoint.proceed(); //이미 offload 쓰레드, 기다리는 쪽이 풀 쓰레드를 잡고 있지 않도록
+        }
+        DetachedProceed proceed = DetachedProceed.of(joinPoint);
+        ContextSnapshot snapshot = ContextSnapshot.capture();
+
+        if (async) {
+            CompletableFuture<Object> result = new CompletableFuture<>();
+            executor.submit(snapshot.wrap(() -> {
+                OFFLOADED.set(Boolean.TRUE);
+                try {
+                    Object stage = proceed.proceed();
+                    if (stage == null) {
+                        result.complete(null);
+                    } else {
+                        ((CompletionStage<?>) stage).whenComplete((value, ex) -> {
+                            if (ex != null) {
+                                result.completeExceptionally(ex);
+                            } else {
+                                result.complete(value);
+                            }
+                        });
+                    }
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    OFFLOADED.remove();
+                }
+                return null;
+            }));
+            return result;
+        }
+
+        Future<Object> future = executor.submit(snapshot.wrap(() -> {
+            OFFLOADED.set(Boolean.TRUE);
+            try {
+                return proceed.proceed();
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e); //Callable 은 Exception 만 던질 수 있다.
+            } finally {
+                OFFLOADED.remove();
+            }
+        }));
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package hello.aop.offload.aop;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @Offload 공용 실행기
+ * release 17 로 컴파일하므로 가상 쓰레드 API 는 리플렉션으로 찾는다.
+ * JDK 21 미만이면 고정 크기 데몬 풀 (aop.offload.pool-size, 기본 CPU * 2)
+ */
+@Slf4j
+public abstract class OffloadExecutors {
+
+    private static final ExecutorService SHARED = create();
+
+    public static ExecutorService shared() {
+        return SHARED;
+    }
+
+    public static boolean isVirtual() {
+        return !(SHARED instanceof FixedPool);
+    }
+
+    private static ExecutorService create() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            int poolSize = Integer.getInteger("aop.offload.pool-size", Runtime.getRuntime().availableProcessors() * 2);
+            log.info("[offload] virtual threads unavailable, fixed pool size={}", poolSize);
+            return new FixedPool(poolSize);
+        }
+    }
+
+    private static class FixedPool extends ThreadPoolExecutor {
+        FixedPool(int poolSize) {
+            super(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(), threadFactory());
+        }
+
+        private static ThreadFactory threadFactory() {
+            AtomicInteger sequence = new AtomicInteger();
+            return runnable -> {
+                Thread thread = new Thread(runnable, "offload-" + sequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+    }
+}
@@ -1,11 +1,25 @@
 package hello.aop.order;
 
+import hello.aop.batch.annotation.Batched;
+import hello.aop.batch.aop.PartialBatchException;
+import hello.aop.bulkhead.annotation.Bulkhead;
+import hello.aop.bulkhead.annotation.BulkheadMode;
+import hello.aop.metrics.annotation.Timed;
+import hello.aop.timeout.annotation.Timeout;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 @Slf4j
 @Repository
+@Timed
 public class OrderRepository {
+    @Batched(batchMethod = "saveAll")
+    @Timeout(1000)
     public String save(String itemId) {
         log.info("[orderRepository] 실행");
         //저장 로직
@@ -14,4 +28,24 @@ public class OrderRepository {
         }
         return "ok";
     }
+
+    //여러 건을 한 번에 저장 (실패한 건은 건너뛰고, 성공한 건은 저장된 채로 실패한 위치를 알려준다.)
+    @Bulkhead(mode = BulkheadMode.ADAPTIVE, limit = 8, maxLimit = 64, maxWaitMillis = 10)
+    public List<String> saveAll(List<String> itemIds) {
+        log.info("[orderRepository] 일괄 실행 size={}", itemIds.size());
+        List<String> results = new ArrayList<>(itemIds.size());
+        Set<Integer> failed = new HashSet<>();
+        for (int i = 0; i < itemIds.size(); i++) {
+            if (itemIds.get(i).equals("ex")) {
+                failed.add(i);
+                results.add(null);
+            } else {
+                results.add("ok");
+            }
+        }
+        if (!failed.isEmpty()) {
+            throw new PartialBatchException("예외 발생! failed=" + failed, results, failed);
+        }
+        return results;
+    }
 }
@@ -1,10 +1,15 @@
 package hello.aop.order;
 
+import hello.aop.metrics.annotation.Timed;
+import hello.aop.ratelimit.annotation.RateLimit;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @Slf4j
 @Service
+@Timed
 public class OrderService {
     private final OrderRepository orderRepository;
 
@@ -12,8 +17,15 @@ public class OrderService {
         this.orderRepository = orderRepository;
     }
 
+    @RateLimit(permitsPerSecond = 1000, burst = 100, maxWaitMillis = 100)
     public void orderItem(String itemId) {
         log.info("[orderService] 실행");
         orderRepository.save(itemId);
     }
+
+    //저장은 다른 쓰레드에서 (메서드 반환 시점에는 아직 작업이 끝나지 않음)
+    public CompletableFuture<String> orderItemAsync(String itemId) {
+        log.info("[orderService] 비동기 실행");
+        return CompletableFuture.supplyAsync(() -> orderRepository.save(itemId));
+    }
 }
\ No newline at end of file
@@ -1,6 +1,6 @@
 package hello.aop.order.aop;
 
-import lombok.extern.slf4j.Slf4j;
+import hello.aop.log.AopLogger;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -8,9 +8,10 @@ import org.aspectj.lang.annotation.Aspect;
 /**
  * 기본 @Aspect 프록시
  */
-@Slf4j
 @Aspect
 public class AspectV1 {
+    private static final AopLogger log = AopLogger.of(AspectV1.class);
+
     /**
      * @Around: pointcut
      * doLog(): advice
@@ -18,7 +19,9 @@ public class AspectV1 {
     //hell.aop.order 패키지와 하위 패키지
     @Around("execution(* hello.aop.order..*(..))")
     public Object doLog(ProceedingJoinPoint joinPoint) throws Throwable {
-        log.info("[log] {}", joinPoint.getSignature()); //join point 시그니처(메서드의 모든 정보)
+        if (log.isEnabled()) {
+            log.info("[log] {}", AopLogger.signature(joinPoint)); //join point 시그니처(메서드의 모든 정보)
+        }
         return joinPoint.proceed();
     }
 }
@@ -1,6 +1,6 @@
 package hello.aop.order.aop;
 
-import lombok.extern.slf4j.Slf4j;
+import hello.aop.log.AopLogger;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -9,9 +9,9 @@ import org.aspectj.lang.annotation.Pointcut;
 /**
  * pointcut 따로 지정 -> 모듈화 가능
  */
-@Slf4j
 @Aspect
 public class AspectV2 {
+    private static final AopLogger log = AopLogger.of(AspectV2.class);
 
     /**
      * @Around: pointcut
@@ -24,7 +24,9 @@ public class AspectV2 {
 
     @Around("allOrder()")
     public Object doLog(ProceedingJoinPoint joinPoint) throws Throwable {
-        log.info("[log] {}", joinPoint.getSignature()); //join point 시그니처(메서드의 모든 정보)
+        if (log.isEnabled()) {
+            log.info("[log] {}", AopLogger.signature(joinPoint)); //join point 시그니처(메서드의 모든 정보)
+        }
         return joinPoint.proceed();
     }
 }
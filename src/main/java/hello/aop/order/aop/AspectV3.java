@@ -1,6 +1,6 @@
 package hello.aop.order.aop;
 
-import lombok.extern.slf4j.Slf4j;
+import hello.aop.log.AopLogger;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -9,9 +9,9 @@ import org.aspectj.lang.annotation.Pointcut;
 /**
  * 여러 pointcut 조합(&& || !)
  */
-@Slf4j
 @Aspect
 public class AspectV3 {
+    private static final AopLogger log = AopLogger.of(AspectV3.class);
 
     /**
      * @Around: pointcut
@@ -29,23 +29,34 @@ public class AspectV3 {
 
     @Around("allOrder()") // => OrderService, OrderRepository 모두 적용
     public Object doLog(ProceedingJoinPoint joinPoint) throws Throwable {
-        log.info("[log] {}", joinPoint.getSignature()); //join point 시그니처(메서드의 모든 정보)
+        if (log.isEnabledForInvocation()) {
+            log.info("[log] {}", AopLogger.signature(joinPoint)); //join point 시그니처(메서드의 모든 정보)
+        }
         return joinPoint.proceed();
     }
 
     //hello.aop.order 패키지와 하위 패키지 이면서 클래스 이름 패턴이 *Service => OrderService만 적용
     @Around("allOrder() && allService()")
     public Object doTransaction(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean logging = log.isEnabledForInvocation(); //한 호출의 로그는 같이 샘플링
         try {
-            log.info("[트랜잭션 시작] {}", joinPoint.getSignature());
+            if (logging) {
+                log.info("[트랜잭션 시작] {}", AopLogger.signature(joinPoint));
+            }
             Object result = joinPoint.proceed();
-            log.info("[트랜잭션 커밋] {}", joinPoint.getSignature());
+            if (logging) {
+                log.info("[트랜잭션 커밋] {}", AopLogger.signature(joinPoint));
+            }
             return result;
         } catch (Exception e) {
-            log.info("[트랜잭션 롤백] {}", joinPoint.getSignature());
+            if (logging) {
+                log.info("[트랜잭션 롤백] {}", AopLogger.signature(joinPoint));
+            }
             throw e;
         } finally {
-            log.info("[리소스 릴리즈] {}", joinPoint.getSignature());
+            if (logging) {
+                log.info("[리소스 릴리즈] {}", AopLogger.signature(joinPoint));
+            }
         }
     }
 }
@@ -1,6 +1,6 @@
 package hello.aop.order.aop;
 
-import lombok.extern.slf4j.Slf4j;
+import hello.aop.log.AopLogger;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -9,9 +9,9 @@ import org.aspectj.lang.annotation.Aspect;
  * pointcut 외부에 모아놓고 패지키명으로 불러서 사용
  */
 
-@Slf4j
 @Aspect
 public class AspectV4Pointcut {
+    private static final AopLogger log = AopLogger.of(AspectV4Pointcut.class);
 
     /**
      * @Around: pointcut
@@ -20,23 +20,34 @@ public class AspectV4Pointcut {
 
     @Around("hello.aop.order.aop.Pointcuts.allOrder()") // => OrderService, OrderRepository 모두 적용
     public Object doLog(ProceedingJoinPoint joinPoint) throws Throwable {
-        log.info("[log] {}", joinPoint.getSignature()); //join point 시그니처(메서드의 모든 정보)
+        if (log.isEnabledForInvocation()) {
+            log.info("[log] {}", AopLogger.signature(joinPoint)); //join point 시그니처(메서드의 모든 정보)
+        }
         return joinPoint.proceed();
     }
 
     //hello.aop.order 패키지와 하위 패키지 이면서 클래스 이름 패턴이 *Service => OrderService만 적용
     @Around("hello.aop.order.aop.Pointcuts.orderAndService()")
     public Object doTransaction(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean logging = log.isEnabledForInvocation(); //한 호출의 로그는 같이 샘플링
         try {
-            log.info("[트랜잭션 시작] {}", joinPoint.getSignature());
+            if (logging) {
+                log.info("[트랜잭션 시작] {}", AopLogger.signature(joinPoint));
+            }
             Object result = joinPoint.proceed();
-            log.info("[트랜잭션 커밋] {}", joinPoint.getSignature());
+            if (logging) {
+                log.info("[트랜잭션 커밋] {}", AopLogger.signature(joinPoint));
+            }
             return result;
         } catch (Exception e) {
-            log.info("[트랜잭션 롤백] {}", joinPoint.getSignature());
+            if (logging) {
+                log.info("[트랜잭션 롤백] {}", AopLogger.signature(joinPoint));
+            }
             throw e;
         } finally {
-            log.info("[리소스 릴리즈] {}", joinPoint.getSignature());
+            if (logging) {
+                log.info("[리소스 릴리즈] {}", AopLogger.signature(joinPoint));
+            }
         }
     }
 }
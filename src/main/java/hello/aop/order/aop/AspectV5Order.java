@@ -1,6 +1,7 @@
 package hello.aop.order.aop;
 
-import lombok.extern.slf4j.Slf4j;
+import hello.aop.log.AopLogger;
+import hello.aop.support.AsyncAdvice;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -13,15 +14,17 @@ import org.springframework.core.annotation.Order;
  * - 클래스 단위로 @Order() 순서 보장 가능
  */
 
-@Slf4j
 public class AspectV5Order {
+    private static final AopLogger log = AopLogger.of(AspectV5Order.class);
 
     @Aspect
     @Order(2)
     public static class LogAspect {
         @Around("hello.aop.order.aop.Pointcuts.allOrder()") // => OrderService, OrderRepository 모두 적용
         public Object doLog(ProceedingJoinPoint joinPoint) throws Throwable {
-            log.info("[log] {}", joinPoint.getSignature()); //join point 시그니처(메서드의 모든 정보)
+            if (log.isEnabledForInvocation()) {
+                log.info("[log] {}", AopLogger.signature(joinPoint)); //join point 시그니처(메서드의 모든 정보)
+            }
             return joinPoint.proceed();
         }
     }
@@ -31,16 +34,36 @@ public class AspectV5Order {
     public static class TxAspect {
         @Around("hello.aop.order.aop.Pointcuts.orderAndService()")
         public Object doTransaction(ProceedingJoinPoint joinPoint) throws Throwable {
+            boolean logging = log.isEnabledForInvocation(); //한 호출의 로그는 같이 샘플링
+            boolean async = false;
             try {
-                log.info("[트랜잭션 시작] {}", joinPoint.getSignature());
+                if (logging) {
+                    log.info("[트랜잭션 시작] {}", AopLogger.signature(joinPoint));
+                }
                 Object result = joinPoint.proceed();
-                log.info("[트랜잭션 커밋] {}", joinPoint.getSignature());
+                //CompletableFuture 반환: 커밋/롤백/릴리즈는 future 완료 시점
+                if (AsyncAdvice.isAsync(result)) {
+                    async = true;
+                    return AsyncAdvice.whenComplete(result, (value, ex) -> {
+                        if (logging) {
+                            log.info(ex == null ? "[트랜잭션 커밋] {}" : "[트랜잭션 롤백] {}", AopLogger.signature(joinPoint));
+                            log.info("[리소스 릴리즈] {}", AopLogger.signature(joinPoint));
+                        }
+                    });
+                }
+                if (logging) {
+                    log.info("[트랜잭션 커밋] {}", AopLogger.signature(joinPoint));
+                }
                 return result;
             } catch (Exception e) {
-                log.info("[트랜잭션 롤백] {}", joinPoint.getSignature());
+                if (logging) {
+                    log.info("[트랜잭션 롤백] {}", AopLogger.signature(joinPoint));
+                }
                 throw e;
             } finally {
-                log.info("[리소스 릴리즈] {}", joinPoint.getSignature());
+                if (logging && !async) {
+                    log.info("[리소스 릴리즈] {}", AopLogger.signature(joinPoint));
+                }
             }
         }
     }
@@ -1,6 +1,7 @@
 package hello.aop.order.aop;
 
-import lombok.extern.slf4j.Slf4j;
+import hello.aop.log.AopLogger;
+import hello.aop.support.AsyncAdvice;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.*;
@@ -10,28 +11,53 @@ import org.aspectj.lang.annotation.*;
  * 어드바이스의 첫 번째 파라미터는 ProceedingJoinPoint를 사용해야 한다.
  * proceed() 통해 대상을 실행한다. (여러번 실행 가능)
  * @Before, @AfterReturning, @AfterThrowing, @After; 나머지는 없어도 됨!
+ *
+ * CompletableFuture 반환 메서드: 반환 != 작업 완료
+ * 커밋/롤백/릴리즈, [return]/[after] 로그는 future 가 완료될 때 남긴다. (AsyncAdvice)
+ * 같은 aspect 안의 순서(@AfterReturning -> @After -> @Around 커밋)는 비동기에서도 유지된다.
  */
 
-@Slf4j
 @Aspect
 public class AspectV6Advice {
+    private static final AopLogger log = AopLogger.of(AspectV6Advice.class);
+
     //hello.aop.order 패키지와 하위 패키지 이면서 클래스 이름 패턴이 *Service => OrderService만 적용
     @Around("hello.aop.order.aop.Pointcuts.orderAndService()")
     public Object doTransaction(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean logging = log.isEnabledForInvocation(); //한 호출의 로그는 같이 샘플링 (다른 어드바이스와 같은 결과)
+        boolean async = false;
         try {
             //@Before
-            log.info("[트랜잭션 시작] {}", joinPoint.getSignature());
+            if (logging) {
+                log.info("[트랜잭션 시작] {}", AopLogger.signature(joinPoint));
+            }
             Object result = joinPoint.proceed();
+            //CompletableFuture 반환: 커밋/롤백/릴리즈는 future 완료 시점
+            if (AsyncAdvice.isAsync(result)) {
+                async = true;
+                return AsyncAdvice.whenComplete(result, (value, ex) -> {
+                    if (logging) {
+                        log.info(ex == null ? "[트랜잭션 커밋] {}" : "[트랜잭션 롤백] {}", AopLogger.signature(joinPoint));
+                        log.info("[리소스 릴리즈] {}", AopLogger.signature(joinPoint));
+                    }
+                });
+            }
             //@AfterReturning
-            log.info("[트랜잭션 커밋] {}", joinPoint.getSignature());
+            if (logging) {
+                log.info("[트랜잭션 커밋] {}", AopLogger.signature(joinPoint));
+            }
             return result;
         } catch (Exception e) {
             //@AfterThrowing
-            log.info("[트랜잭션 롤백] {}", joinPoint.getSignature());
+            if (logging) {
+                log.info("[트랜잭션 롤백] {}", AopLogger.signature(joinPoint));
+            }
             throw e;
         } finally {
             //@After
-            log.info("[리소스 릴리즈] {}", joinPoint.getSignature());
+            if (logging && !async) {
+                log.info("[리소스 릴리즈] {}", AopLogger.signature(joinPoint));
+            }
         }
     }
 
@@ -42,7 +68,9 @@ public class AspectV6Advice {
 
     @Before("hello.aop.order.aop.Pointcuts.orderAndService()")
     public void doBefore(JoinPoint joinPoint) {
-        log.info("[before] {}", joinPoint.getSignature());
+        if (log.isEnabledForInvocation()) {
+            log.info("[before] {}", AopLogger.signature(joinPoint));
+        }
     }
 
     /**
@@ -53,7 +81,23 @@ public class AspectV6Advice {
     @AfterReturning(value = "hello.aop.order.aop.Pointcuts.orderAndService()", returning = "result")
     //returning: return되는 값 이름(파라미터와 이름 매칭)
     public void doReturn(JoinPoint joinPoint, Object result) {
-        log.info("[return] {} return={}", joinPoint.getSignature(), result);
+        boolean logging = log.isEnabledForInvocation(); //완료 콜백은 다른 쓰레드일 수 있어 호출 쓰레드에서 결정
+        if (AsyncAdvice.isAsync(result)) {
+            //비동기 실패는 @AfterThrowing 이 호출되지 않으므로 여기서 남긴다.
+            AsyncAdvice.whenComplete(result, (value, ex) -> {
+                if (logging) {
+                    if (ex == null) {
+                        log.info("[return] {} return={}", AopLogger.signature(joinPoint), value);
+                    } else {
+                        log.info("[ex] {} message={}", AopLogger.signature(joinPoint), ex.getMessage());
+                    }
+                }
+            });
+            return;
+        }
+        if (logging) {
+            log.info("[return] {} return={}", AopLogger.signature(joinPoint), result);
+        }
     }
 
     /**
@@ -63,7 +107,9 @@ public class AspectV6Advice {
     @AfterThrowing(value = "hello.aop.order.aop.Pointcuts.orderAndService()", throwing = "ex")
     //throwing: 파라미터와 이름 매칭
     public void doThrowing(JoinPoint joinPoint, Exception ex) {
-        log.info("[ex] {} message={}", joinPoint.getSignature(), ex.getMessage());
+        if (log.isEnabledForInvocation()) {
+            log.info("[ex] {} message={}", AopLogger.signature(joinPoint), ex.getMessage());
+        }
     }
 
     /**
@@ -72,6 +118,17 @@ public class AspectV6Advice {
      */
     @After(value = "hello.aop.order.aop.Pointcuts.orderAndService()")
     public void doAfter(JoinPoint joinPoint) {
-        log.info("[after] {}", joinPoint.getSignature());
+        boolean logging = log.isEnabledForInvocation();
+        if (AsyncAdvice.isAsync(null)) { //안쪽 @AfterReturning 이 future 를 연결해 두었으면 완료 시점에
+            AsyncAdvice.whenComplete(null, (value, ex) -> {
+                if (logging) {
+                    log.info("[after] {}", AopLogger.signature(joinPoint));
+                }
+            });
+            return;
+        }
+        if (logging) {
+            log.info("[after] {}", AopLogger.signature(joinPoint));
+        }
     }
 }
@@ -0,0 +1,26 @@
+package hello.aop.ratelimit.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 초당 호출 수 제한 (토큰 버킷)
+ * - permitsPerSecond 속도로 토큰이 채워지고, 최대 burst 개까지 쌓인다.
+ * - 토큰이 없으면 maxWaitMillis 까지 기다린다. 0이면 바로 RateLimitExceededException
+ * - perKey = true: 인자별로 따로 제한 (인자별 버킷은 최대 maxKeys 개)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimit {
+    double permitsPerSecond();
+
+    int burst() default 1;
+
+    long maxWaitMillis() default 0;
+
+    boolean perKey() default false;
+
+    int maxKeys() default 10_000;
+}
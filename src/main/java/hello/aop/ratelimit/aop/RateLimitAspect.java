@@ -0,0 +1,60 @@
+package hello.aop.ratelimit.aop;
+
+import hello.aop.ratelimit.annotation.RateLimit;
+import hello.aop.support.SpecificMethods;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * @RateLimit: 메서드(또는 메서드 + 인자)별 초당 호출 수 제한
+ * 제한을 넘으면 실행하지 않고 RateLimitExceededException
+ *
+ * @Offload, @SingleFlight 안쪽, 나머지 어드바이스보다 바깥에서 실행된다. (거절할 호출에 일을 하지 않도록)
+ * 상태 조회: getStatuses()
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class RateLimitAspect {
+    private final ConcurrentMap<Method, RateLimiter> limiters = new ConcurrentHashMap<>();
+
+    @Around("@annotation(hello.aop.ratelimit.annotation.RateLimit)")
+    public Object doRateLimit(ProceedingJoinPoint joinPoint) throws Throwable {
+        //구현 메서드별 제한 (같은 인터페이스 메서드의 구현체끼리 제한을 나눠 쓰지 않는다.)
+        Method method = SpecificMethods.of(((MethodSignature) joinPoint.getSignature()).getMethod(), joinPoint.getTarget());
+        RateLimiter limiter = limiters.get(method);
+        if (limiter == null) {
+            limiter = limiters.computeIfAbsent(method, RateLimitAspect::resolve);
+        }
+        if (!limiter.acquire(limiter.isPerKey() ? joinPoint.getArgs() : null)) { //getArgs() 는 호출마다 배열 복사
+            throw new RateLimitExceededException("rate limit exceeded: " + limiter.getName());
+        }
+        return joinPoint.proceed();
+    }
+
+    private static RateLimiter resolve(Method specificMethod) {
+        RateLimit rateLimit = AnnotatedElementUtils.findMergedAnnotation(specificMethod, RateLimit.class);
+        if (rateLimit == null) {
+            throw new IllegalStateException("@RateLimit not found: " + specificMethod);
+        }
+        return new RateLimiter(specificMethod.getDeclaringClass().getSimpleName() + "." + specificMethod.getName(), rateLimit);
+    }
+
+    public List<RateLimitStatus> getStatuses() {
+        List<RateLimitStatus> statuses = new ArrayList<>();
+        for (RateLimiter limiter : limiters.values()) {
+            statuses.add(limiter.status());
+        }
+        return statuses;
+    }
+}
@@ -0,0 +1,11 @@
+package hello.aop.ratelimit.aop;
+
+/**
+ * 초당 호출 수 제한에 걸려서 호출하지 않고 바로 실패
+ * 부하가 높을 때 많이 만들어지므로 스택 트레이스를 만들지 않는다.
+ */
+public class RateLimitExceededException extends RuntimeException {
+    public RateLimitExceededException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,37 @@
+package hello.aop.ratelimit.aop;
+
+import lombok.Getter;
+
+/**
+ * 운영 조회용 스냅샷
+ */
+@Getter
+public class RateLimitStatus {
+    private final String name;
+    private final double permitsPerSecond;
+    private final int burst;
+    private final int keys; //perKey 버킷 수
+    private final long permitted;
+    private final long rejected;
+    private final long evictedKeys;
+    private final long overflowCalls; //maxKeys 가 차서 공용 버킷을 쓴 호출 수
+
+    public RateLimitStatus(String name, double permitsPerSecond, int burst, int keys,
+                           long permitted, long rejected, long evictedKeys, long overflowCalls) {
+        this.name = name;
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.keys = keys;
+        this.permitted = permitted;
+        this.rejected = rejected;
+        this.evictedKeys = evictedKeys;
+        this.overflowCalls = overflowCalls;
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimitStatus{name=" + name + ", permitsPerSecond=" + permitsPerSecond + ", burst=" + burst
+                + ", keys=" + keys + ", permitted=" + permitted + ", rejected=" + rejected
+                + ", evictedKeys=" + evictedKeys + ", overflowCalls=" + overflowCalls + '}';
+    }
+}
@@ -0,0 +1,140 @@
+package hello.aop.ratelimit.aop;
+
+import hello.aop.ratelimit.annotation.RateLimit;
+import hello.aop.support.ArgumentsKey;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @RateLimit 메서드 하나의 제한
+ * - 메서드 전체: stripe 로 나눈 TokenBucket 하나 (락 없음)
+ * - 인자별(perKey): 인자 키마다 TokenBucket, 새 키를 넣기 전에 maxKeys 가 찼으면 정리한다.
+ *   가득 찬(쉬고 있는) 버킷만 지운다. (지워도 제한이 달라지지 않는다.)
+ *   모두 사용 중이면 새 키는 공용 overflow 버킷 하나를 같이 쓴다. (더 엄격하게 제한, 제한을 우회하지 않는다.)
+ */
+public class RateLimiter {
+    private final String name;
+    private final double permitsPerSecond;
+    private final int burst;
+    private final long maxWaitNanos;
+    private final int maxKeys;
+
+    private final TokenBucket bucket; //perKey 면 null
+    private final Map<Object, TokenBucket> buckets; //perKey 가 아니면 null
+    private final TokenBucket overflow; //perKey 가 아니면 null
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final AtomicLong nextSweep;
+    private final long sweepIntervalNanos;
+
+    private final LongAdder permitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder evictedKeys = new LongAdder();
+    private final LongAdder overflowCalls = new LongAdder();
+
+    public RateLimiter(String name, RateLimit rateLimit) {
+        if (rateLimit.permitsPerSecond() <= 0 || rateLimit.burst() < 1 || rateLimit.maxKeys() < 1) {
+            throw new IllegalArgumentException("invalid @RateLimit " + name + " permitsPerSecond=" + rateLimit.permitsPerSecond()
+                    + " burst=" + rateLimit.burst() + " maxKeys=" + rateLimit.maxKeys());
+        }
+        this.name = name;
+        this.permitsPerSecond = rateLimit.permitsPerSecond();
+        this.burst = rateLimit.burst();
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(rateLimit.maxWaitMillis());
+        this.maxKeys = rateLimit.maxKeys();
+        //버킷은 토큰 1개가 채워지는 시간보다 빨리 쉬는 상태가 되지 않는다.
+        this.sweepIntervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+        long now = System.nanoTime();
+        this.nextSweep = new AtomicLong(now);
+        if (rateLimit.perKey()) {
+            this.bucket = null;
+            this.buckets = new ConcurrentHashMap<>();
+            this.overflow = new TokenBucket(permitsPerSecond, burst, 1, now);
+        } else {
+            this.bucket = new TokenBucket(permitsPerSecond, burst, stripes(burst), now);
+            this.buckets = null;
+            this.overflow = null;
+        }
+    }
+
+    /**
+     * stripe 마다 토큰 1개 이상 (합계는 burst 그대로, 나머지는 앞쪽 stripe 에 1개씩)
+     * burst = 1 은 나눌 수 없어 stripe 1개
+     */
+    private static int stripes(int burst) {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        return Integer.highestOneBit(Math.min(cpus, burst));
+    }
+
+    /**
+     * 토큰이 생길 때까지 기다릴 수 있다. (maxWaitMillis)
+     *
+     * @param args perKey 가 아니면 사용하지 않는다. (null 가능)
+     * @return false: 제한 초과
+     */
+    public boolean acquire(Object[] args) throws InterruptedException {
+        long now = System.nanoTime();
+        TokenBucket target = bucket != null ? bucket : bucket(ArgumentsKey.of(args), now);
+        long wait = target.reserve(now, maxWaitNanos);
+        if (wait < 0) {
+            rejected.increment();
+            return false;
+        }
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+        permitted.increment();
+        return true;
+    }
+
+    private TokenBucket bucket(Object key, long now) {
+        TokenBucket keyBucket = buckets.get(key);
+        if (keyBucket != null) {
+            return keyBucket;
+        }
+        //넣기 전에 정리한다. (방금 만든 버킷은 가득 찬 상태라 정리 대상이 된다.)
+        if (buckets.size() >= maxKeys) {
+            sweep(now);
+            if (buckets.size() >= maxKeys) {
+                overflowCalls.increment();
+                return overflow;
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(permitsPerSecond, burst, 1, now));
+    }
+
+    //사용 중인 키가 많으면 새 키마다 전체를 훑지 않도록 토큰 1개 시간에 한 번만
+    private void sweep(long now) {
+        long next = nextSweep.get();
+        if (now - next < 0 || !nextSweep.compareAndSet(next, now + sweepIntervalNanos)) {
+            return;
+        }
+        if (!sweeping.compareAndSet(false, true)) {
+            return; //다른 쓰레드가 정리 중
+        }
+        try {
+            int before = buckets.size();
+            buckets.values().removeIf(idle -> idle.isIdle(now));
+            evictedKeys.add(before - buckets.size());
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    public boolean isPerKey() {
+        return buckets != null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RateLimitStatus status() {
+        return new RateLimitStatus(name, permitsPerSecond, burst, buckets == null ? 0 : buckets.size(),
+                permitted.sum(), rejected.sum(), evictedKeys.sum(), overflowCalls.sum());
+    }
+}
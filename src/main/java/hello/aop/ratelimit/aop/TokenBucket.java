@@ -0,0 +1,84 @@
+package hello.aop.ratelimit.aop;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * CAS 토큰 버킷 (GCRA: 다음 토큰 시각 하나만 저장)
+ * 호출 1번 = 다음 토큰 시각(tat)을 interval 만큼 미룬다. tat - now 가 burst 만큼의 시간을 넘으면 토큰 없음
+ *
+ * stripes > 1: 속도와 burst 를 stripe 수로 나눈 버킷 여러 개 (쓰레드마다 자기 stripe 부터 사용)
+ * burst 가 나눠 떨어지지 않으면 나머지는 앞쪽 stripe 에 1개씩 더 준다. (합계는 burst 그대로)
+ * 여러 쓰레드가 같은 CAS 를 두고 경쟁하지 않도록 stripe 사이를 캐시 라인 이상 띄운다.
+ * 자기 stripe 에 토큰이 없으면 다른 stripe 를 본다. (부하가 한쪽에 몰려도 전체 속도는 유지)
+ */
+final class TokenBucket {
+    private static final int PAD = 16; //long 16개 = 128 bytes
+
+    private final AtomicLongArray tats;
+    private final int stride;
+    private final int mask;
+    private final long interval;
+    private final long[] tolerances; //stripe 별 burst 만큼의 시간
+
+    TokenBucket(double permitsPerSecond, int burst, int stripes, long now) {
+        if (Integer.bitCount(stripes) != 1 || stripes > burst) {
+            throw new IllegalArgumentException("stripes must be a power of two <= burst: stripes=" + stripes + " burst=" + burst);
+        }
+        this.stride = stripes == 1 ? 1 : PAD;
+        this.mask = stripes - 1;
+        this.interval = (long) (1_000_000_000L * stripes / permitsPerSecond);
+        this.tolerances = new long[stripes];
+        this.tats = new AtomicLongArray(stripes * stride);
+        for (int i = 0; i < stripes; i++) {
+            tolerances[i] = interval * (burst / stripes + (i < burst % stripes ? 1 : 0));
+            tats.set(i * stride, now);
+        }
+    }
+
+    /**
+     * @return 기다려야 하는 시간(ns), 0이면 바로 사용, -1이면 maxWaitNanos 안에 토큰 없음
+     */
+    long reserve(long now, long maxWaitNanos) {
+        int start = mask == 0 ? 0 : stripe();
+        for (int i = 0; i <= mask; i++) {
+            if (reserveAt((start + i) & mask, now, 0) == 0) {
+                return 0;
+            }
+        }
+        return maxWaitNanos > 0 ? reserveAt(start, now, maxWaitNanos) : -1;
+    }
+
+    private long reserveAt(int stripe, long now, long maxWaitNanos) {
+        int index = stripe * stride;
+        long tolerance = tolerances[stripe];
+        while (true) {
+            long tat = tats.get(index);
+            long next = Math.max(tat, now) + interval;
+            long wait = next - now - tolerance;
+            if (wait > maxWaitNanos) {
+                return -1; //쓰기 없이 거절
+            }
+            if (tats.compareAndSet(index, tat, next)) {
+                return Math.max(0, wait);
+            }
+        }
+    }
+
+    /**
+     * 버킷이 가득 찬 상태 (새로 만든 버킷과 같다. 지워도 제한이 달라지지 않는다.)
+     */
+    boolean isIdle(long now) {
+        for (int i = 0; i <= mask; i++) {
+            if (tats.get(i * stride) > now) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int stripe() {
+        long id = Thread.currentThread().getId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,72 @@
+package hello.aop.selfproxy;
+
+import hello.aop.selfproxy.annotation.SelfProxy;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @SelfProxy 필드에 빈의 최종 객체(프록시)를 한 번만 주입
+ * - 프록시 생성(AutoProxyCreator, HIGHEST_PRECEDENCE) 이후에 실행되도록 가장 마지막 순서
+ * - 프록시면 대상 객체의 필드에, 프록시가 아니면(적용할 어드바이스 없음) 자기 자신을 주입
+ * - 초기화(@PostConstruct) 중에는 아직 주입 전이다.
+ *
+ * 호출마다 빈 팩토리를 조회하는 ObjectProvider(CallServiceV2)와 달리 필드 읽기 비용만 든다.
+ */
+@Component
+public class SelfProxyPostProcessor implements BeanPostProcessor, Ordered {
+    private static final Field[] NO_FIELDS = new Field[0];
+
+    private final Map<Class<?>, Field[]> fieldsCache = new ConcurrentHashMap<>();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        Object target = AopProxyUtils.getSingletonTarget(bean);
+        if (target == null) {
+            target = bean;
+        }
+        for (Field field : fields(target.getClass())) {
+            if (!field.getType().isInstance(bean)) {
+                throw new IllegalStateException("@SelfProxy type mismatch: " + field
+                        + ", proxy=" + bean.getClass().getName() + " (JDK 동적 프록시면 인터페이스 타입으로 선언)");
+            }
+            ReflectionUtils.setField(field, target, bean);
+        }
+        return bean;
+    }
+
+    private Field[] fields(Class<?> targetClass) {
+        Field[] fields = fieldsCache.get(targetClass);
+        if (fields != null) {
+            return fields;
+        }
+        return fieldsCache.computeIfAbsent(targetClass, this::resolve);
+    }
+
+    private Field[] resolve(Class<?> targetClass) {
+        List<Field> fields = new ArrayList<>();
+        ReflectionUtils.doWithFields(targetClass, field -> {
+            if (Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers())) {
+                throw new IllegalStateException("@SelfProxy field must be non-static, non-final: " + field);
+            }
+            ReflectionUtils.makeAccessible(field);
+            fields.add(field);
+        }, field -> field.isAnnotationPresent(SelfProxy.class));
+        return fields.isEmpty() ? NO_FIELDS : fields.toArray(NO_FIELDS);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,16 @@
+package hello.aop.selfproxy.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 자기 자신의 프록시를 필드에 주입 (SelfProxyPostProcessor)
+ * 내부 호출도 self.internal() 로 호출하면 어드바이스가 적용된다.
+ * 순환 참조 설정(spring.main.allow-circular-references) 없이 동작
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SelfProxy {
+}
@@ -0,0 +1,78 @@
+package hello.aop.support;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+
+/**
+ * 인자 배열로 키 만들기 (@Memoize, @SingleFlight)
+ * - 인자 없음: 상수 키
+ * - 배열이 아닌 인자 1개: 인자 그대로 (추가 할당 없음)
+ * - 그 외: 인자 배열을 복사해서 감싼 키 (배열 인자는 내용으로 비교)
+ *   호출한 쪽이 나중에 배열을 바꿔도 키가 바뀌지 않도록 배열 인자까지 복사한다.
+ *
+ * 기본형 인자는 joinPoint.getArgs() 에서 이미 박싱되어 있다. 여기서 더 만들지 않는다.
+ */
+public final class ArgumentsKey {
+    private static final Object EMPTY = new Object();
+    private static final Object NULL = new Object();
+
+    private final Object[] args;
+    private final int hashCode;
+
+    private ArgumentsKey(Object[] args) {
+        this.args = copy(args);
+        this.hashCode = Arrays.deepHashCode(this.args);
+    }
+
+    private static Object[] copy(Object[] args) {
+        Object[] copy = args.clone();
+        for (int i = 0; i < copy.length; i++) {
+            Object arg = copy[i];
+            if (arg instanceof Object[]) {
+                copy[i] = copy((Object[]) arg);
+            } else if (arg != null && arg.getClass().isArray()) {
+                int length = Array.getLength(arg);
+                Object primitives = Array.newInstance(arg.getClass().getComponentType(), length);
+                System.arraycopy(arg, 0, primitives, 0, length);
+                copy[i] = primitives;
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * @param args 인자 배열 (joinPoint.getArgs())
+     */
+    public static Object of(Object[] args) {
+        if (args.length == 0) {
+            return EMPTY;
+        }
+        if (args.length == 1) {
+            Object arg = args[0];
+            if (arg == null) {
+                return NULL;
+            }
+            if (!arg.getClass().isArray()) {
+                return arg;
+            }
+        }
+        return new ArgumentsKey(args);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ArgumentsKey)) {
+            return false;
+        }
+        ArgumentsKey other = (ArgumentsKey) o;
+        return hashCode == other.hashCode && Arrays.deepEquals(args, other.args);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+}
@@ -0,0 +1,73 @@
+package hello.aop.support;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.BiConsumer;
+
+/**
+ * CompletionStage 를 반환하는 메서드는 "메서드 반환" != "작업 완료"
+ * 커밋/롤백/릴리즈 같은 어드바이스를 future 완료 시점에 연결한다.
+ *
+ * 한 aspect 안의 어드바이스들(@AfterReturning -> @After -> @Around)이 순서대로 이어지도록
+ * 마지막으로 연결한 stage 를 현재 MethodInvocation 의 user attribute 에 기록한다.
+ * @Around 는 whenComplete() 가 돌려준 마지막 stage 를 반환해야 호출한 쪽이 완료 순서를 그대로 본다.
+ */
+public abstract class AsyncAdvice {
+    private static final String STAGE_ATTRIBUTE = AsyncAdvice.class.getName() + ".stage";
+
+    /**
+     * @param result 반환값 (@After 처럼 반환값을 모르면 null)
+     */
+    public static boolean isAsync(Object result) {
+        return result instanceof CompletionStage || exposedStage() != null;
+    }
+
+    /**
+     * 안쪽 어드바이스가 이미 연결한 stage 가 있으면 그 뒤에, 없으면 result 뒤에 callback 연결
+     * callback 예외는 CompletionException 을 벗긴 원래 예외
+     *
+     * @return 연결된 stage (@Around 는 이 값을 반환)
+     */
+    @SuppressWarnings("unchecked")
+    public static Object whenComplete(Object result, BiConsumer<Object, Throwable> callback) {
+        CompletionStage<Object> stage = (CompletionStage<Object>) exposedStage();
+        if (stage == null) {
+            stage = (CompletionStage<Object>) result;
+        }
+        CompletionStage<Object> chained = stage.whenComplete((value, ex) -> callback.accept(value, unwrap(ex)));
+        expose(chained);
+        return chained;
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        if (ex instanceof CompletionException && ex.getCause() != null) {
+            return ex.getCause();
+        }
+        return ex;
+    }
+
+    private static Object exposedStage() {
+        ProxyMethodInvocation invocation = currentInvocation();
+        return invocation == null ? null : invocation.getUserAttribute(STAGE_ATTRIBUTE);
+    }
+
+    private static void expose(CompletionStage<?> stage) {
+        ProxyMethodInvocation invocation = currentInvocation();
+        if (invocation != null) {
+            invocation.setUserAttribute(STAGE_ATTRIBUTE, stage);
+        }
+    }
+
+    private static ProxyMethodInvocation currentInvocation() {
+        try {
+            MethodInvocation invocation = ExposeInvocationInterceptor.currentInvocation();
+            return invocation instanceof ProxyMethodInvocation ? (ProxyMethodInvocation) invocation : null;
+        } catch (IllegalStateException e) {
+            return null; //스프링 프록시 밖 (컴파일 타임 위빙 등)
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package hello.aop.support;
+
+import hello.aop.deadline.Deadline;
+import hello.aop.trace.TraceContext;
+import org.slf4j.MDC;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * 다른 쓰레드로 넘기는 호출 컨텍스트 (MDC + @Trace + Deadline)
+ * 호출한 쓰레드에서 capture(), 실행하는 쓰레드에서 wrap 된 작업을 실행한다.
+ * 작업이 끝나면 실행한 쓰레드의 컨텍스트를 원래대로 되돌린다. (풀 쓰레드 재사용 대비)
+ */
+public class ContextSnapshot {
+    private final Map<String, String> mdc;
+    private final TraceContext.Snapshot trace;
+    private final Deadline deadline;
+
+    private ContextSnapshot(Map<String, String> mdc, TraceContext.Snapshot trace, Deadline deadline) {
+        this.mdc = mdc;
+        this.trace = trace;
+        this.deadline = deadline;
+    }
+
+    public static ContextSnapshot capture() {
+        return new ContextSnapshot(MDC.getCopyOfContextMap(), TraceContext.current().capture(), Deadline.current());
+    }
+
+    public Runnable wrap(Runnable task) {
+        return () -> {
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            TraceContext context = attach();
+            try (Deadline.Scope scope = Deadline.attach(deadline)) {
+                task.run();
+            } finally {
+                context.detach();
+                restore(previous);
+            }
+        };
+    }
+
+    public <V> Callable<V> wrap(Callable<V> task) {
+        return () -> {
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            TraceContext context = attach();
+            try (Deadline.Scope scope = Deadline.attach(deadline)) {
+                return task.call();
+            } finally {
+                context.detach();
+                restore(previous);
+            }
+        };
+    }
+
+    private TraceContext attach() {
+        restore(mdc);
+        TraceContext context = TraceContext.current();
+        context.resume(trace);
+        return context;
+    }
+
+    private static void restore(Map<String, String> contextMap) {
+        if (contextMap == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(contextMap);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package hello.aop.support;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+
+/**
+ * 다른 쓰레드에서 joinPoint.proceed() 호출
+ * 뒤에 남은 @Before 등 AspectJ 어드바이스는 ExposeInvocationInterceptor 의 ThreadLocal 이 필요하다.
+ * 호출한 쓰레드의 MethodInvocation 을 잡아두고, 실행하는 쓰레드에 다시 노출한 뒤 proceed() 한다.
+ */
+public class DetachedProceed {
+    private final ProceedingJoinPoint joinPoint;
+    private final MethodInvocation exposed;
+
+    private DetachedProceed(ProceedingJoinPoint joinPoint, MethodInvocation exposed) {
+        this.joinPoint = joinPoint;
+        this.exposed = exposed;
+    }
+
+    /**
+     * 반드시 어드바이스를 호출한 쓰레드에서 호출
+     */
+    public static DetachedProceed of(ProceedingJoinPoint joinPoint) {
+        MethodInvocation exposed = null;
+        try {
+            exposed = ExposeInvocationInterceptor.currentInvocation();
+        } catch (IllegalStateException e) {
+            //스프링 프록시가 아닌 경우(컴파일 타임 위빙 등) 노출할 필요 없음
+        }
+        return new DetachedProceed(joinPoint, exposed);
+    }
+
+    public ProceedingJoinPoint getJoinPoint() {
+        return joinPoint;
+    }
+
+    public Object proceed() throws Throwable {
+        if (!(exposed instanceof ProxyMethodInvocation)) {
+            return joinPoint.proceed();
+        }
+        return ExposeInvocationInterceptor.INSTANCE.invoke(
+                new ExposedInvocation((ProxyMethodInvocation) exposed, joinPoint));
+    }
+
+    /**
+     * user attribute(포인트컷 파라미터 바인딩)는 원래 invocation 에, proceed()는 joinPoint 에 위임
+     */
+    private static class ExposedInvocation implements ProxyMethodInvocation {
+        private final ProxyMethodInvocation delegate;
+        private final ProceedingJoinPoint joinPoint;
+
+        ExposedInvocation(ProxyMethodInvocation delegate, ProceedingJoinPoint joinPoint) {
+            this.delegate = delegate;
+            this.joinPoint = joinPoint;
+        }
+
+        @Override
+        public Object proceed() throws Throwable {
+            return joinPoint.proceed();
+        }
+
+        @Override
+        public Object getProxy() {
+            return delegate.getProxy();
+        }
+
+        @Override
+        public MethodInvocation invocableClone() {
+            return delegate.invocableClone();
+        }
+
+        @Override
+        public MethodInvocation invocableClone(Object... arguments) {
+            return delegate.invocableClone(arguments);
+        }
+
+        @Override
+        public void setArguments(Object... arguments) {
+            delegate.setArguments(arguments);
+        }
+
+        @Override
+        public void setUserAttribute(String key, Object value) {
+            delegate.setUserAttribute(key, value);
+        }
+
+        @Override
+        public Object getUserAttribute(String key) {
+            return delegate.getUserAttribute(key);
+        }
+
+        @Override
+        public Method getMethod() {
+            return delegate.getMethod();
+        }
+
+        @Override
+        public Object[] getArguments() {
+            return delegate.getArguments();
+        }
+
+        @Override
+        public Object getThis() {
+            return delegate.getThis();
+        }
+
+        @Override
+        public AccessibleObject getStaticPart() {
+            return delegate.getStaticPart();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package hello.aop.support;
+
+import org.springframework.aop.support.AopUtils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 호출된 메서드 -> 대상 클래스의 실제 구현 메서드 (@RateLimit, @Retry 상태를 구현 메서드별로 두기 위한 키)
+ * JDK 동적 프록시면 인터페이스 메서드가 넘어온다. 같은 인터페이스의 구현체끼리 상태를 나눠 쓰지 않도록 구현 메서드로 바꾼다.
+ * 대상 클래스별 map 에 캐시한다. (처음 한 번만 리플렉션, 이후에는 map 조회 1번)
+ */
+public final class SpecificMethods {
+    private static final ClassValue<ConcurrentMap<Method, Method>> METHODS = new ClassValue<>() {
+        @Override
+        protected ConcurrentMap<Method, Method> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private SpecificMethods() {
+    }
+
+    public static Method of(Method method, Object target) {
+        Class<?> targetClass = AopUtils.getTargetClass(target);
+        ConcurrentMap<Method, Method> methods = METHODS.get(targetClass);
+        Method specificMethod = methods.get(method);
+        if (specificMethod != null) {
+            return specificMethod;
+        }
+        return methods.computeIfAbsent(method, key -> AopUtils.getMostSpecificMethod(key, targetClass));
+    }
+}
@@ -0,0 +1,18 @@
+package hello.aop.timeout.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 호출 시간 제한 (밀리초)
+ * - 일반 메서드: 시간이 지나면 호출한 쓰레드를 interrupt 하고 CallTimeoutException
+ *   interrupt 에 반응하지 않는 코드는 끝날 때까지 기다린 뒤 예외를 던진다. (협조적 취소)
+ * - CompletionStage 반환 메서드: 반환한 future 를 CallTimeoutException 으로 완료하고 원래 future 는 cancel
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Timeout {
+    long value();
+}
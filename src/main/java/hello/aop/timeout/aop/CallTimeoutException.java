@@ -0,0 +1,14 @@
+package hello.aop.timeout.aop;
+
+/**
+ * @Timeout 시간 안에 끝나지 않은 호출
+ */
+public class CallTimeoutException extends RuntimeException {
+    public CallTimeoutException(String message) {
+        super(message);
+    }
+
+    public CallTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
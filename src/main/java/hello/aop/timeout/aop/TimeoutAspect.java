@@ -0,0 +1,153 @@
+package hello.aop.timeout.aop;
+
+import hello.aop.deadline.Deadline;
+import hello.aop.offload.aop.OffloadExecutors;
+import hello.aop.support.SpecificMethods;
+import hello.aop.timeout.annotation.Timeout;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Timeout: 호출을 시간 제한 안에서 실행
+ * 호출한 쓰레드에서 그대로 실행하고, 공용 TimerWheel 에 만료 작업만 등록한다.
+ * - 제때 끝나면 만료 작업 취소
+ * - 만료되면 호출한 쓰레드 interrupt, 호출이 끝나면 interrupt 상태를 지우고 CallTimeoutException
+ *   (만료와 종료가 겹치면 만료 작업이 끝날 때까지 기다린 뒤 interrupt 상태를 지운다.)
+ * - CompletionStage 반환 메서드: 반환한 future 를 만료 시점에 예외로 완료 (완료는 executor 에서, 타이머 쓰레드를 막지 않도록)
+ *
+ * @Retry, @Bulkhead 보다 바깥에서 실행된다. (재시도, 대기 시간까지 포함해서 제한)
+ *
+ * Deadline: 실행하는 동안 쓰레드에 deadline 을 설정한다. 안쪽 @Retry 가 남은 시간을 보고 재시도를 멈춘다.
+ * 바깥 deadline 이 더 빠르면 바깥 deadline 까지만 기다리고, 이미 지났으면 호출하지 않는다.
+ */
+@Aspect
+@Order(Ordered.LOWEST_PRECEDENCE - 3)
+public class TimeoutAspect {
+    private final TimerWheel timer;
+    private final Executor executor;
+    private final ConcurrentMap<Method, TimeoutPolicy> policies = new ConcurrentHashMap<>();
+
+    public TimeoutAspect() {
+        this(TimerWheel.shared(), OffloadExecutors.shared());
+    }
+
+    public TimeoutAspect(TimerWheel timer, Executor executor) {
+        this.timer = timer;
+        this.executor = executor;
+    }
+
+    @Around("@annotation(hello.aop.timeout.annotation.Timeout)")
+    public Object doTimeout(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        //구현 메서드별 설정 (같은 인터페이스 메서드의 구현체끼리 나눠 쓰지 않는다.)
+        Method method = SpecificMethods.of(signature.getMethod(), joinPoint.getTarget());
+        TimeoutPolicy policy = policies.get(method);
+        if (policy == null) {
+            policy = policies.computeIfAbsent(method, TimeoutAspect::resolve);
+        }
+        long timeoutNanos = policy.nanos;
+        Deadline outer = Deadline.current();
+        if (outer != null) {
+            long remaining = outer.remainingNanos();
+            if (remaining <= 0) {
+                throw new CallTimeoutException(policy.message() + " (deadline exceeded before call)");
+            }
+            timeoutNanos = Math.min(timeoutNanos, remaining);
+        }
+
+        try (Deadline.Scope scope = Deadline.enter(Deadline.after(timeoutNanos, TimeUnit.NANOSECONDS))) {
+            if (CompletionStage.class.isAssignableFrom(signature.getReturnType())) {
+                return timeoutAsync(joinPoint, policy, timeoutNanos);
+            }
+            return timeoutBlocking(joinPoint, policy, timeoutNanos);
+        }
+    }
+
+    private Object timeoutBlocking(ProceedingJoinPoint joinPoint, TimeoutPolicy policy, long timeoutNanos) throws Throwable {
+        Thread caller = Thread.currentThread();
+        TimerWheel.Entry entry = timer.schedule(caller::interrupt, timeoutNanos, TimeUnit.NANOSECONDS);
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            if (!entry.cancel()) {
+                throw expired(entry, policy, e);
+            }
+            throw e;
+        }
+        if (!entry.cancel()) {
+            throw expired(entry, policy, null);
+        }
+        return result;
+    }
+
+    private Object timeoutAsync(ProceedingJoinPoint joinPoint, TimeoutPolicy policy, long timeoutNanos) throws Throwable {
+        Object stage = joinPoint.proceed();
+        if (stage == null) {
+            return null;
+        }
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        TimerWheel.Entry entry = timer.schedule(() -> executor.execute(() -> {
+            if (result.completeExceptionally(new CallTimeoutException(policy.message()))) {
+                ((CompletionStage<?>) stage).toCompletableFuture().cancel(true);
+            }
+        }), timeoutNanos, TimeUnit.NANOSECONDS);
+        ((CompletionStage<?>) stage).whenComplete((value, ex) -> {
+            entry.cancel();
+            if (ex != null) {
+                result.completeExceptionally(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+            } else {
+                result.complete(value);
+            }
+        });
+        return result;
+    }
+
+    //만료 작업(interrupt)이 끝난 뒤 interrupt 상태를 지운다. (쓰레드 재사용 대비)
+    private static CallTimeoutException expired(TimerWheel.Entry entry, TimeoutPolicy policy, Throwable cause) {
+        entry.awaitExpired();
+        Thread.interrupted();
+        return new CallTimeoutException(policy.message(), cause);
+    }
+
+    private static TimeoutPolicy resolve(Method specificMethod) {
+        Timeout timeout = AnnotatedElementUtils.findMergedAnnotation(specificMethod, Timeout.class);
+        if (timeout == null) {
+            throw new IllegalStateException("@Timeout not found: " + specificMethod);
+        }
+        if (timeout.value() <= 0) {
+            throw new IllegalArgumentException("@Timeout must be positive: " + specificMethod);
+        }
+        return new TimeoutPolicy(specificMethod.getDeclaringClass().getSimpleName() + "." + specificMethod.getName(), timeout.value());
+    }
+
+    private static class TimeoutPolicy {
+        private final String name;
+        private final long millis;
+        private final long nanos;
+
+        TimeoutPolicy(String name, long millis) {
+            this.name = name;
+            this.millis = millis;
+            this.nanos = TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+
+        String message() {
+            return "timeout: " + name + " " + millis + "ms";
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package hello.aop.timeout.aop;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 해시 타이머 휠: 쓰레드 하나가 tick 마다 칸 하나의 만료된 작업을 실행한다.
+ * 호출마다 ScheduledFuture 를 만들지 않는다. 등록은 큐에 넣기만 하고, 휠은 타이머 쓰레드만 만진다.
+ * 취소는 상태만 바꾸고, 타이머 쓰레드가 그 칸을 지나갈 때 지운다.
+ *
+ * 정밀도는 tick (기본 10ms, aop.timeout.tick-millis), 작업은 타이머 쓰레드에서 실행되므로 짧아야 한다.
+ */
+@Slf4j
+public class TimerWheel {
+    private static final TimerWheel SHARED = new TimerWheel(
+            TimeUnit.MILLISECONDS.toNanos(Long.getLong("aop.timeout.tick-millis", 10)), 512);
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Entry> added = new ConcurrentLinkedQueue<>();
+    private final long startTime = System.nanoTime();
+
+    public TimerWheel(long tickNanos, int wheelSize) {
+        if (tickNanos <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("tickNanos=" + tickNanos + " wheelSize=" + wheelSize);
+        }
+        this.tickNanos = tickNanos;
+        this.wheel = new Bucket[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = wheelSize - 1;
+        Thread worker = new Thread(this::run, "timeout-wheel");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public static TimerWheel shared() {
+        return SHARED;
+    }
+
+    /**
+     * @param task 타이머 쓰레드에서 실행 (짧게)
+     */
+    public Entry schedule(Runnable task, long delay, TimeUnit unit) {
+        Entry entry = new Entry(task, System.nanoTime() + unit.toNanos(delay));
+        added.add(entry);
+        return entry;
+    }
+
+    private void run() {
+        long tick = 0;
+        while (true) {
+            long deadline = startTime + (tick + 1) * tickNanos;
+            long sleep;
+            while ((sleep = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(sleep);
+            }
+            transferAdded(tick);
+            wheel[(int) (tick & mask)].expire();
+            tick++;
+        }
+    }
+
+    private void transferAdded(long tick) {
+        Entry entry;
+        while ((entry = added.poll()) != null) {
+            if (entry.state.get() != Entry.PENDING) {
+                continue;
+            }
+            long expireTick = Math.max(tick, (entry.deadline - startTime) / tickNanos);
+            entry.rounds = (expireTick - tick) / wheel.length;
+            wheel[(int) (expireTick & mask)].add(entry);
+        }
+    }
+
+    /**
+     * 등록된 작업 하나
+     * 상태: PENDING -> CANCELLED (cancel) 또는 PENDING -> EXPIRED -> DONE (타이머가 실행 완료)
+     */
+    public static class Entry {
+        static final int PENDING = 0;
+        static final int CANCELLED = 1;
+        static final int EXPIRED = 2;
+        static final int DONE = 3;
+
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private long rounds; //타이머 쓰레드만 사용
+        private Entry prev;
+        private Entry next;
+
+        Entry(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * @return false: 이미 만료되어 작업이 실행됐거나 실행 중
+         */
+        public boolean cancel() {
+            return state.compareAndSet(PENDING, CANCELLED);
+        }
+
+        /**
+         * cancel() 이 false 를 반환한 뒤, 작업 실행이 끝날 때까지 기다린다.
+         */
+        public void awaitExpired() {
+            while (state.get() == EXPIRED) {
+                Thread.onSpinWait();
+            }
+        }
+
+        private void expire() {
+            if (state.compareAndSet(PENDING, EXPIRED)) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log.warn("[timeout] timer task failed", e); //타이머 쓰레드는 계속 실행
+                } finally {
+                    state.set(DONE);
+                }
+            }
+        }
+    }
+
+    //타이머 쓰레드만 사용
+    private static class Bucket {
+        private Entry head;
+
+        void add(Entry entry) {
+            entry.prev = null;
+            entry.next = head;
+            if (head != null) {
+                head.prev = entry;
+            }
+            head = entry;
+        }
+
+        void expire() {
+            Entry entry = head;
+            while (entry != null) {
+                Entry next = entry.next;
+                if (entry.state.get() != Entry.PENDING) {
+                    remove(entry);
+                } else if (entry.rounds <= 0) {
+                    remove(entry);
+                    entry.expire();
+                } else {
+                    entry.rounds--;
+                }
+                entry = next;
+            }
+        }
+
+        private void remove(Entry entry) {
+            if (entry.prev == null) {
+                head = entry.next;
+            } else {
+                entry.prev.next = entry.next;
+            }
+            if (entry.next != null) {
+                entry.next.prev = entry.prev;
+            }
+            entry.prev = null;
+            entry.next = null;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package hello.aop.trace;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.Signature;
+import org.aspectj.lang.reflect.MethodSignature;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * span 이름: ExamRepository.save(..) - 메서드별로 한 번만 만든다.
+ */
+public abstract class SpanNames {
+    private static final ConcurrentMap<Method, String> NAMES = new ConcurrentHashMap<>();
+
+    public static String of(JoinPoint joinPoint) {
+        Signature signature = joinPoint.getSignature();
+        if (!(signature instanceof MethodSignature)) {
+            return signature.toShortString();
+        }
+        Method method = ((MethodSignature) signature).getMethod();
+        String name = NAMES.get(method);
+        if (name == null) {
+            name = signature.toShortString();
+            NAMES.putIfAbsent(method, name);
+        }
+        return name;
+    }
+}
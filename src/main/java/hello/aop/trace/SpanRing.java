@@ -0,0 +1,106 @@
+package hello.aop.trace;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 쓰레드 1개가 쓰는 고정 크기 span 저장소 (할당 없이 재사용)
+ * span 은 시작 순서(seq)로 저장되므로 그대로 출력하면 호출 트리 순서가 된다.
+ * 루트 하나에서 capacity 보다 많은 span 이 생기면 오래된 span 부터 덮어쓴다. (dropped)
+ */
+class SpanRing {
+    private final int mask;
+    private final long[] seqs;
+    private final long[] parents;
+    private final long[] starts;
+    private final long[] ends;
+    private final int[] depths;
+    private final String[] names;
+    private final Object[] details; //출력할 때만 렌더링 (ex. 인자)
+    private final boolean[] errors;
+    private long next;
+
+    SpanRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1) << 1);
+        this.mask = size - 1;
+        this.seqs = new long[size];
+        this.parents = new long[size];
+        this.starts = new long[size];
+        this.ends = new long[size];
+        this.depths = new int[size];
+        this.names = new String[size];
+        this.details = new Object[size];
+        this.errors = new boolean[size];
+    }
+
+    long start(String name, Object detail, long parent, int depth) {
+        long seq = next++;
+        int slot = (int) (seq & mask);
+        seqs[slot] = seq;
+        parents[slot] = parent;
+        starts[slot] = System.nanoTime();
+        ends[slot] = 0;
+        depths[slot] = depth;
+        names[slot] = name;
+        details[slot] = detail;
+        errors[slot] = false;
+        return seq;
+    }
+
+    //이미 덮어쓴 span 이면 무시
+    void end(long seq, boolean error) {
+        int slot = (int) (seq & mask);
+        if (seqs[slot] == seq) {
+            ends[slot] = System.nanoTime();
+            errors[slot] = error;
+        }
+    }
+
+    void clear() {
+        for (int i = 0; i < names.length; i++) {
+            names[i] = null;
+            details[i] = null;
+        }
+        next = 0;
+    }
+
+    /**
+     * [trace] traceId=... (parentSpanId=...) spans=3 dropped=0
+     * |-->ExamService.request(..) args=[data0] 1.234ms
+     * |   |-->ExamRepository.save(..) args=[data0] 0.100ms
+     */
+    String render(String traceId, long remoteParentId) {
+        int size = mask + 1;
+        long first = Math.max(0, next - size);
+        StringBuilder sb = new StringBuilder(64 * (int) (next - first) + 64)
+                .append("[trace] traceId=").append(traceId);
+        if (remoteParentId > 0) {
+            sb.append(" parentSpanId=").append(remoteParentId); //다른 쓰레드의 부모 span
+        }
+        sb.append(" spans=").append(next)
+                .append(" dropped=").append(first);
+        for (long seq = first; seq < next; seq++) {
+            int slot = (int) (seq & mask);
+            sb.append('\n');
+            for (int i = 0; i < depths[slot]; i++) {
+                sb.append("|   ");
+            }
+            sb.append("|-->").append(names[slot]);
+            if (details[slot] != null) {
+                sb.append(" args=").append(details[slot]);
+            }
+            sb.append(" spanId=").append(seq + 1)
+                    .append(" parentId=").append(parents[slot] + 1)
+                    .append(' ');
+            if (ends[slot] == 0) {
+                sb.append("(running)");
+            } else {
+                long micros = TimeUnit.NANOSECONDS.toMicros(ends[slot] - starts[slot]);
+                sb.append(micros / 1000).append('.').append(String.format("%03d", micros % 1000)).append("ms");
+            }
+            if (errors[slot]) {
+                sb.append(" ex");
+            }
+        }
+        return sb.toString();
+    }
+}
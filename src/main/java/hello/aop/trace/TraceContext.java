@@ -0,0 +1,170 @@
+package hello.aop.trace;
+
+import org.slf4j.MDC;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 쓰레드별 호출 트리 추적 상태
+ * - 루트(depth 0) 호출에서 샘플링 여부를 정한다. (head-based)
+ * - 샘플링 된 트리만 span 을 기록하고, 루트가 끝나면 트리 전체를 한 번에 반환한다.
+ * - 샘플링 안된 트리는 depth 만 센다. (할당 없음)
+ *
+ * long span = context.enter(name);
+ * try { ... } finally { String tree = context.exit(span, error); }
+ *
+ * 다른 쓰레드로 넘길 때: capture() -> (새 쓰레드) resume(snapshot) ... detach()
+ * 새 쓰레드의 span 은 같은 traceId, 부모 span 을 가진 별도 트리로 남는다.
+ */
+public class TraceContext {
+    public static final long NOT_SAMPLED = -1;
+    public static final String MDC_TRACE_ID = "traceId";
+
+    private static final int BUFFER_SIZE = Integer.getInteger("aop.trace.buffer-size", 128);
+    private static final ThreadLocal<TraceContext> CURRENT = ThreadLocal.withInitial(TraceContext::new);
+
+    private final SpanRing ring = new SpanRing(BUFFER_SIZE);
+    private long[] stack = new long[16]; //열려있는 span seq (depth 별)
+    private int depth;
+    private boolean sampled;
+    private String traceId;
+    private boolean resumed; //다른 쓰레드에서 이어받은 trace
+    private long remoteParentId;
+
+    public static TraceContext current() {
+        return CURRENT.get();
+    }
+
+    public boolean isIdle() {
+        return depth == 0 && !resumed;
+    }
+
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    /**
+     * 루트 호출에서만 호출
+     */
+    public void begin(boolean sampled) {
+        this.sampled = sampled;
+        if (sampled) {
+            traceId = Long.toHexString(ThreadLocalRandom.current().nextLong());
+            MDC.put(MDC_TRACE_ID, traceId);
+        }
+    }
+
+    /**
+     * @param name 샘플링 안된 트리면 무시 (null 가능)
+     * @return span seq, 샘플링 안됐으면 NOT_SAMPLED
+     */
+    public long enter(String name) {
+        return enter(name, null);
+    }
+
+    /**
+     * @param detail 트리를 출력할 때 span 이름 뒤에 args= 로 렌더링 (null 가능)
+     */
+    public long enter(String name, Object detail) {
+        int current = depth++;
+        if (!sampled) {
+            return NOT_SAMPLED;
+        }
+        long parent = current == 0 ? -1 : stack[current - 1];
+        long span = ring.start(name, detail, parent, current);
+        if (current == stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[current] = span;
+        return span;
+    }
+
+    /**
+     * @return 샘플링 된 루트가 끝나면 렌더링 된 호출 트리, 아니면 null
+     */
+    public String exit(long span, Throwable error) {
+        depth--;
+        if (span != NOT_SAMPLED) {
+            ring.end(span, error != null);
+        }
+        if (depth > 0 || !sampled) {
+            if (depth == 0 && !resumed) {
+                sampled = false;
+            }
+            return null;
+        }
+        String tree = ring.render(traceId, remoteParentId);
+        ring.clear();
+        if (!resumed) {
+            reset();
+        }
+        return tree;
+    }
+
+    /**
+     * 진행 중인 trace 가 없으면 null
+     */
+    public Snapshot capture() {
+        if (isIdle()) {
+            return null;
+        }
+        long spanId = depth > 0 && sampled ? stack[depth - 1] + 1 : remoteParentId;
+        return new Snapshot(sampled, traceId, spanId);
+    }
+
+    /**
+     * 새 쓰레드에서 작업 시작 전 (이미 trace 가 진행 중이면 무시)
+     */
+    public void resume(Snapshot snapshot) {
+        if (snapshot == null || !isIdle()) {
+            return;
+        }
+        resumed = true;
+        sampled = snapshot.sampled;
+        traceId = snapshot.traceId;
+        remoteParentId = snapshot.spanId;
+        if (sampled) {
+            MDC.put(MDC_TRACE_ID, traceId);
+        }
+    }
+
+    /**
+     * 새 쓰레드에서 작업이 끝난 뒤 (쓰레드 재사용 대비)
+     */
+    public void detach() {
+        if (!resumed) {
+            return;
+        }
+        ring.clear();
+        depth = 0;
+        resumed = false;
+        reset();
+    }
+
+    private void reset() {
+        sampled = false;
+        traceId = null;
+        remoteParentId = 0;
+        MDC.remove(MDC_TRACE_ID);
+    }
+
+    /**
+     * 다른 쓰레드로 넘기는 trace 정보 (불변)
+     */
+    public static class Snapshot {
+        private final boolean sampled;
+        private final String traceId;
+        private final long spanId;
+
+        Snapshot(boolean sampled, String traceId, long spanId) {
+            this.sampled = sampled;
+            this.traceId = traceId;
+            this.spanId = spanId;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package hello.aop.weaving;
+
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.DeclarePrecedence;
+
+/**
+ * 위빙 모드(-Paop.mode=ajc, ltw)의 aspect 순서
+ * AspectJ 위버는 @Order 를 보지 않는다. 프록시 모드의 @Order 와 같은 순서를 선언한다. (앞쪽이 바깥)
+ * - RetryAspect(LOWEST_PRECEDENCE - 1) -> TraceAspect(LOWEST_PRECEDENCE)
+ * - AspectV5Order: TxAspect(@Order(1)) -> LogAspect(@Order(2))
+ *
+ * 프록시 모드에서는 빈으로 등록하지 않으므로 사용되지 않는다.
+ */
+@Aspect
+@DeclarePrecedence("hello.aop.exam.aop.RetryAspect, hello.aop.exam.aop.TraceAspect, "
+        + "hello.aop.order.aop.AspectV5Order*TxAspect, hello.aop.order.aop.AspectV5Order*LogAspect")
+public class AjcPrecedence {
+}
@@ -0,0 +1,21 @@
+package hello.aop.weaving;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableLoadTimeWeaving;
+import org.springframework.context.annotation.Profile;
+
+import static org.springframework.context.annotation.EnableLoadTimeWeaving.AspectJWeaving.ENABLED;
+
+/**
+ * 로드 타임 위빙 모드 (./gradlew bootRun -Paop.mode=ltw)
+ * 클래스를 로딩할 때 META-INF/aop.xml 의 aspect 를 위빙한다. (프록시 없음, 내부 호출도 적용 - CallServiceV0)
+ * - 실행시 -javaagent:spring-instrument.jar 필요
+ * - 컨텍스트 시작 전에 로딩된 클래스(AopApplication 등)는 위빙되지 않는다.
+ * - 스프링 자동 프록시는 그대로 둔다. 위버가 aop.xml 의 aspect 에 aspectOf() 를 추가하므로 스프링은 프록시로 다시 적용하지 않는다.
+ * - 시작 시간, 호출 지연 비교: ./gradlew weavingDriver -Paop.mode=ltw (프록시 모드와 한 번씩)
+ */
+@Configuration
+@Profile("ltw")
+@EnableLoadTimeWeaving(aspectjWeaving = ENABLED)
+public class LoadTimeWeavingConfig {
+}
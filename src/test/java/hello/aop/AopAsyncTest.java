@@ -0,0 +1,58 @@
+package hello.aop;
+
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.AspectV6Advice;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.annotation.Import;
+
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * CompletableFuture 반환 메서드: 커밋/롤백/릴리즈가 저장(다른 쓰레드)이 끝난 뒤에 실행되어야 한다.
+ */
+@ExtendWith(OutputCaptureExtension.class)
+@SpringBootTest
+@Import(AspectV6Advice.class)
+class AopAsyncTest {
+    @Autowired
+    OrderService orderService;
+
+    @Test
+    void commitAfterCompletion(CapturedOutput output) {
+        assertThat(orderService.orderItemAsync("itemA").join()).isEqualTo("ok");
+
+        String out = output.getOut();
+        int saved = out.indexOf("[orderRepository] 실행");
+        int returned = out.indexOf("[return]");
+        int after = out.indexOf("[after]");
+        int commit = out.indexOf("[트랜잭션 커밋]");
+        int release = out.indexOf("[리소스 릴리즈]");
+
+        assertThat(saved).isNotNegative();
+        assertThat(returned).isGreaterThan(saved);
+        assertThat(after).isGreaterThan(returned);
+        assertThat(commit).isGreaterThan(after);
+        assertThat(release).isGreaterThan(commit);
+    }
+
+    @Test
+    void rollbackAfterFailure(CapturedOutput output) {
+        assertThatThrownBy(() -> orderService.orderItemAsync("ex").join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+
+        String out = output.getOut();
+        assertThat(out).contains("[ex]");
+        assertThat(out).contains("[트랜잭션 롤백]");
+        assertThat(out).doesNotContain("[트랜잭션 커밋]");
+        assertThat(out.indexOf("[리소스 릴리즈]")).isGreaterThan(out.indexOf("[트랜잭션 롤백]"));
+    }
+}
@@ -0,0 +1,291 @@
+package hello.aop.batch;
+
+import hello.aop.batch.annotation.Batched;
+import hello.aop.batch.aop.BatchPolicy;
+import hello.aop.batch.aop.BatchedAspect;
+import hello.aop.batch.aop.PartialBatchException;
+import hello.aop.bulkhead.aop.BulkheadFullException;
+import hello.aop.metrics.MetricsRegistry;
+import hello.aop.metrics.annotation.Timed;
+import hello.aop.metrics.aop.TimedAspect;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BatchedAspectTest {
+    BatchedAspect batchedAspect;
+    BatchTarget target;
+
+    @BeforeEach
+    void init() {
+        batchedAspect = new BatchedAspect();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new BatchTarget());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(batchedAspect);
+        target = proxyFactory.getProxy();
+    }
+
+    /**
+     * maxSize 만큼 동시에 호출하면 saveAll 한 번, 호출자마다 자기 결과
+     */
+    @Test
+    void coalesceConcurrentCalls() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            String item = "item" + i;
+            results.add(executor.submit(() -> target.save(item)));
+        }
+        for (int i = 0; i < 4; i++) {
+            assertThat(results.get(i).get(5, TimeUnit.SECONDS)).isEqualTo("saved:item" + i);
+        }
+        executor.shutdown();
+
+        BatchPolicy policy = batchedAspect.getPolicies().get(0);
+        assertThat(policy.getBatches()).isEqualTo(1);
+        assertThat(policy.getItems()).isEqualTo(4);
+        assertThat(target.batchCalls()).isEqualTo(1);
+    }
+
+    /**
+     * maxSize 를 못 채워도 maxWait 후 처리
+     */
+    @Test
+    void flushAfterMaxWait() throws Exception {
+        CompletableFuture<String> result = target.saveAsync("item");
+        assertThat(result.isDone()).isFalse();
+        assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("saved:item");
+    }
+
+    /**
+     * saveAll 실패 시 하나씩 다시 호출, 실패한 호출자만 예외
+     */
+    @Test
+    void fallbackOneByOne() throws Exception {
+        CompletableFuture<String> ok = target.saveAsync("item");
+        CompletableFuture<String> ex = target.saveAsync("ex");
+
+        assertThat(ok.get(5, TimeUnit.SECONDS)).isEqualTo("one:item");
+        assertThatThrownBy(() -> ex.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(batchedAspect.getPolicies().get(0).getFallbacks()).isEqualTo(1);
+    }
+
+    /**
+     * 일부만 실패(PartialBatchException): 성공한 항목은 다시 호출하지 않고, 실패한 항목만 하나씩
+     */
+    @Test
+    void fallbackOnlyFailedItems() throws Exception {
+        CompletableFuture<String> ok = target.savePartial("item");
+        CompletableFuture<String> ex = target.savePartial("ex");
+
+        assertThat(ok.get(5, TimeUnit.SECONDS)).isEqualTo("saved:item");
+        assertThatThrownBy(() -> ex.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(target.singleCalls()).isEqualTo(1);
+    }
+
+    /**
+     * 거절(BulkheadFullException)은 하나씩 다시 호출하지 않고 모든 호출자에게 전달
+     */
+    @Test
+    void rejectionIsNotRetriedOneByOne() {
+        CompletableFuture<String> first = target.saveOverloaded("a");
+        CompletableFuture<String> second = target.saveOverloaded("b");
+
+        for (CompletableFuture<String> result : List.of(first, second)) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(BulkheadFullException.class);
+        }
+        assertThat(target.singleCalls()).isZero();
+    }
+
+    /**
+     * 하나씩 다시 호출할 때도 프록시로: 바깥 어드바이스(@Timed)가 호출자 2번 + 다시 호출 2번 적용
+     */
+    @Test
+    void fallbackThroughProxy() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new BatchTarget());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new TimedAspect(registry));
+        proxyFactory.addAspect(batchedAspect);
+        BatchTarget timedTarget = proxyFactory.getProxy();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<String> first = executor.submit(() -> timedTarget.saveTimed("a"));
+        Future<String> second = executor.submit(() -> timedTarget.saveTimed("b"));
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("one:a");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("one:b");
+        executor.shutdown();
+
+        assertThat(timedTarget.singleCalls()).isEqualTo(2);
+        assertThat(registry.snapshot())
+                .anyMatch(snapshot -> snapshot.getName().equals("BatchTarget.saveTimed") && snapshot.getCount() == 4);
+    }
+
+    /**
+     * 같은 인터페이스 메서드라도 구현체마다 설정, batchMethod 가 따로 (JDK 프록시)
+     */
+    @Test
+    void policyPerImplementation() {
+        Saver first = interfaceProxy(new FirstSaver());
+        Saver second = interfaceProxy(new SecondSaver());
+
+        assertThat(first.save("a")).isEqualTo("first:a");
+        assertThat(second.save("a")).isEqualTo("second:a");
+        assertThat(batchedAspect.getPolicies()).hasSize(2);
+    }
+
+    private Saver interfaceProxy(Saver saver) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(saver);
+        proxyFactory.addAspect(batchedAspect);
+        return proxyFactory.getProxy();
+    }
+
+    interface Saver {
+        String save(String itemId);
+
+        List<String> saveAll(List<String> itemIds);
+    }
+
+    static class FirstSaver implements Saver {
+        @Override
+        @Batched(maxSize = 1)
+        public String save(String itemId) {
+            return "one:" + itemId;
+        }
+
+        @Override
+        public List<String> saveAll(List<String> itemIds) {
+            List<String> results = new ArrayList<>();
+            for (String itemId : itemIds) {
+                results.add("first:" + itemId);
+            }
+            return results;
+        }
+    }
+
+    static class SecondSaver implements Saver {
+        @Override
+        @Batched(maxSize = 1)
+        public String save(String itemId) {
+            return "one:" + itemId;
+        }
+
+        @Override
+        public List<String> saveAll(List<String> itemIds) {
+            List<String> results = new ArrayList<>();
+            for (String itemId : itemIds) {
+                results.add("second:" + itemId);
+            }
+            return results;
+        }
+    }
+
+    static class BatchTarget {
+        private final AtomicInteger batchCalls = new AtomicInteger();
+        private final AtomicInteger singleCalls = new AtomicInteger();
+
+        @Batched(maxSize = 4, maxWaitMillis = 10_000)
+        public String save(String itemId) {
+            return "one:" + itemId;
+        }
+
+        @Batched(batchMethod = "saveAsyncAll", maxSize = 100, maxWaitMillis = 100)
+        public CompletableFuture<String> saveAsync(String itemId) {
+            if (itemId.equals("ex")) {
+                throw new IllegalArgumentException("ex");
+            }
+            return CompletableFuture.completedFuture("one:" + itemId);
+        }
+
+        public List<String> saveAll(List<String> itemIds) {
+            batchCalls.incrementAndGet();
+            List<String> results = new ArrayList<>();
+            for (String itemId : itemIds) {
+                results.add("saved:" + itemId);
+            }
+            return results;
+        }
+
+        public List<String> saveAsyncAll(List<String> itemIds) {
+            if (itemIds.contains("ex")) {
+                throw new IllegalArgumentException("batch");
+            }
+            return saveAll(itemIds);
+        }
+
+        @Batched(batchMethod = "savePartialAll", maxSize = 2, maxWaitMillis = 10_000)
+        public CompletableFuture<String> savePartial(String itemId) {
+            singleCalls.incrementAndGet();
+            if (itemId.equals("ex")) {
+                throw new IllegalArgumentException("ex");
+            }
+            return CompletableFuture.completedFuture("one:" + itemId);
+        }
+
+        @Batched(batchMethod = "overloadedAll", maxSize = 2, maxWaitMillis = 10_000)
+        public CompletableFuture<String> saveOverloaded(String itemId) {
+            singleCalls.incrementAndGet();
+            return CompletableFuture.completedFuture("one:" + itemId);
+        }
+
+        public List<String> overloadedAll(List<String> itemIds) {
+            throw new BulkheadFullException("full");
+        }
+
+        @Timed
+        @Batched(batchMethod = "failingAll", maxSize = 2, maxWaitMillis = 10_000)
+        public String saveTimed(String itemId) {
+            singleCalls.incrementAndGet();
+            return "one:" + itemId;
+        }
+
+        public List<String> failingAll(List<String> itemIds) {
+            throw new IllegalStateException("batch");
+        }
+
+        //"ex" 만 실패, 나머지는 저장
+        public List<String> savePartialAll(List<String> itemIds) {
+            List<String> results = new ArrayList<>();
+            Set<Integer> failed = new HashSet<>();
+            for (int i = 0; i < itemIds.size(); i++) {
+                if (itemIds.get(i).equals("ex")) {
+                    failed.add(i);
+                }
+                results.add("saved:" + itemIds.get(i));
+            }
+            if (!failed.isEmpty()) {
+                throw new PartialBatchException("failed=" + failed, results, failed);
+            }
+            return results;
+        }
+
+        public int batchCalls() {
+            return batchCalls.get();
+        }
+
+        public int singleCalls() {
+            return singleCalls.get();
+        }
+    }
+}
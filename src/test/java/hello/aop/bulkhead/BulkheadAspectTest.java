@@ -0,0 +1,183 @@
+package hello.aop.bulkhead;
+
+import hello.aop.bulkhead.annotation.Bulkhead;
+import hello.aop.bulkhead.annotation.BulkheadMode;
+import hello.aop.bulkhead.aop.BulkheadAspect;
+import hello.aop.bulkhead.aop.BulkheadFullException;
+import hello.aop.bulkhead.aop.BulkheadStatus;
+import hello.aop.bulkhead.aop.ConcurrencyLimit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BulkheadAspectTest {
+    BulkheadAspect bulkheadAspect;
+    BulkheadTarget target;
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @BeforeEach
+    void init() {
+        bulkheadAspect = new BulkheadAspect();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new BulkheadTarget());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(bulkheadAspect);
+        target = proxyFactory.getProxy();
+    }
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * limit 2 가 모두 사용 중이면 바로 거절
+     */
+    @Test
+    void rejectWhenFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> first = executor.submit(() -> target.hold(release));
+        Future<?> second = executor.submit(() -> target.hold(release));
+        awaitInFlight(2);
+
+        assertThatThrownBy(() -> target.hold(new CountDownLatch(0)))
+                .isInstanceOf(BulkheadFullException.class);
+
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        BulkheadStatus status = bulkheadAspect.getStatuses().get(0);
+        assertThat(status.getLimit()).isEqualTo(2);
+        assertThat(status.getInFlight()).isZero();
+        assertThat(status.getRejected()).isEqualTo(1);
+    }
+
+    /**
+     * maxWait 동안 자리가 나면 기다렸다가 실행
+     */
+    @Test
+    void queueBriefly() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> first = executor.submit(() -> target.queued(release));
+        awaitInFlight(1);
+
+        Future<?> second = executor.submit(() -> target.queued(new CountDownLatch(0)));
+        Thread.sleep(50);
+        release.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        assertThat(bulkheadAspect.getStatuses().get(0).getRejected()).isZero();
+    }
+
+    /**
+     * 빠르게 처리되면 limit 증가, 응답 시간이 늘어나면 감소
+     */
+    @Test
+    void adaptiveLimit() throws InterruptedException {
+        ConcurrencyLimit limit = new ConcurrencyLimit("test", BulkheadMode.ADAPTIVE, 4, 1, 100, 2.0, 0);
+        for (int i = 0; i < 500; i++) {
+            int current = limit.getLimit();
+            for (int j = 0; j < current; j++) {
+                assertThat(limit.acquire()).isTrue();
+            }
+            for (int j = 0; j < current; j++) {
+                limit.release(TimeUnit.MILLISECONDS.toNanos(1), false);
+            }
+        }
+        int grown = limit.getLimit();
+        assertThat(grown).isGreaterThan(4);
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(limit.acquire()).isTrue();
+            Thread.sleep(2);
+            limit.release(TimeUnit.MICROSECONDS.toNanos(1500), false); //1ms * tolerance 2 보다는 짧다.
+            assertThat(limit.acquire()).isTrue();
+            limit.release(TimeUnit.MILLISECONDS.toNanos(10), false);
+        }
+        assertThat(limit.getLimit()).isLessThan(grown);
+    }
+
+    /**
+     * 같은 인터페이스 메서드라도 구현체마다 제한이 따로 (JDK 프록시)
+     */
+    @Test
+    void limitPerImplementation() throws Exception {
+        Holder first = interfaceProxy(new FirstHolder());
+        Holder second = interfaceProxy(new SecondHolder());
+
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> held = executor.submit(() -> first.hold(release));
+        awaitInFlight(1);
+
+        second.hold(new CountDownLatch(0));
+        release.countDown();
+        held.get(5, TimeUnit.SECONDS);
+        assertThat(bulkheadAspect.getStatuses()).hasSize(2);
+    }
+
+    private Holder interfaceProxy(Holder holder) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(holder);
+        proxyFactory.addAspect(bulkheadAspect);
+        return proxyFactory.getProxy();
+    }
+
+    private void awaitInFlight(int inFlight) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            if (!bulkheadAspect.getStatuses().isEmpty() && bulkheadAspect.getStatuses().get(0).getInFlight() == inFlight) {
+                return;
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    interface Holder {
+        void hold(CountDownLatch release);
+    }
+
+    static class FirstHolder implements Holder {
+        @Override
+        @Bulkhead(limit = 1)
+        public void hold(CountDownLatch release) {
+            BulkheadTarget.await(release);
+        }
+    }
+
+    static class SecondHolder implements Holder {
+        @Override
+        @Bulkhead(limit = 1)
+        public void hold(CountDownLatch release) {
+            BulkheadTarget.await(release);
+        }
+    }
+
+    static class BulkheadTarget {
+        @Bulkhead(limit = 2)
+        public void hold(CountDownLatch release) {
+            await(release);
+        }
+
+        @Bulkhead(limit = 1, maxWaitMillis = 5_000)
+        public void queued(CountDownLatch release) {
+            await(release);
+        }
+
+        private static void await(CountDownLatch release) {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
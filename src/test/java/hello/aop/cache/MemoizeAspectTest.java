@@ -0,0 +1,159 @@
+package hello.aop.cache;
+
+import hello.aop.cache.annotation.Memoize;
+import hello.aop.cache.aop.MemoizeAspect;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemoizeAspectTest {
+    MemoizeAspect memoizeAspect;
+    LookupTarget target;
+
+    @BeforeEach
+    void init() {
+        memoizeAspect = new MemoizeAspect();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new LookupTarget());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(memoizeAspect);
+        target = proxyFactory.getProxy();
+    }
+
+    @Test
+    void memoize() {
+        assertThat(target.hello("a")).isEqualTo("hello a");
+        assertThat(target.hello("a")).isEqualTo("hello a");
+        assertThat(target.hello("b")).isEqualTo("hello b");
+        assertThat(target.calls()).isEqualTo(2);
+
+        CacheStats stats = memoizeAspect.getStats().get(0);
+        assertThat(stats.getHits()).isEqualTo(1);
+        assertThat(stats.getMisses()).isEqualTo(2);
+    }
+
+    /**
+     * 여러 인자, 배열 인자는 내용으로 비교
+     */
+    @Test
+    void compositeKey() {
+        target.sum(1, new int[]{1, 2});
+        target.sum(1, new int[]{1, 2});
+        target.sum(2, new int[]{1, 2});
+        assertThat(target.calls()).isEqualTo(2);
+    }
+
+    /**
+     * 호출 후에 배열 인자를 바꿔도 저장된 키는 바뀌지 않는다.
+     */
+    @Test
+    void keyCopiesArrayArguments() {
+        int[] values = {1, 2};
+        assertThat(target.sum(1, values)).isEqualTo(4);
+        values[0] = 10;
+        assertThat(target.sum(1, values)).isEqualTo(13);
+        assertThat(target.sum(1, new int[]{1, 2})).isEqualTo(4);
+        assertThat(target.calls()).isEqualTo(2);
+    }
+
+    @Test
+    void ttl() throws InterruptedException {
+        target.shortLived("a");
+        Thread.sleep(30);
+        target.shortLived("a");
+        assertThat(target.calls()).isEqualTo(2);
+        assertThat(memoizeAspect.getStats().get(0).getExpirations()).isEqualTo(1);
+    }
+
+    /**
+     * 자주 쓰는 키는 한 번씩만 쓰는 키에 밀려나지 않는다.
+     */
+    @Test
+    void scanResistant() {
+        TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>("test", 100, 0);
+        for (int i = 0; i < 100_000; i++) {
+            int key = i % 3 == 0 ? 1_000 + i : i % 50;
+            if (cache.get(key) == null) {
+                cache.put(key, key);
+            }
+        }
+        for (int key = 0; key < 50; key++) {
+            assertThat(cache.get(key)).isEqualTo(key);
+        }
+        assertThat(cache.size()).isEqualTo(100);
+        assertThat(cache.stats().getEvictions()).isPositive();
+    }
+
+    /**
+     * 같은 인터페이스 메서드라도 구현체마다 캐시가 따로 (JDK 프록시)
+     */
+    @Test
+    void cachePerImplementation() {
+        Greeting first = interfaceProxy(new FirstGreeting());
+        Greeting second = interfaceProxy(new SecondGreeting());
+
+        assertThat(first.greet("a")).isEqualTo("first a");
+        assertThat(second.greet("a")).isEqualTo("second a");
+        assertThat(first.greet("a")).isEqualTo("first a");
+        assertThat(memoizeAspect.getStats()).hasSize(2);
+    }
+
+    private Greeting interfaceProxy(Greeting greeting) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(greeting);
+        proxyFactory.addAspect(memoizeAspect);
+        return proxyFactory.getProxy();
+    }
+
+    interface Greeting {
+        String greet(String param);
+    }
+
+    static class FirstGreeting implements Greeting {
+        @Override
+        @Memoize
+        public String greet(String param) {
+            return "first " + param;
+        }
+    }
+
+    static class SecondGreeting implements Greeting {
+        @Override
+        @Memoize
+        public String greet(String param) {
+            return "second " + param;
+        }
+    }
+
+    static class LookupTarget {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Memoize
+        public String hello(String param) {
+            calls.incrementAndGet();
+            return "hello " + param;
+        }
+
+        @Memoize
+        public int sum(int base, int[] values) {
+            calls.incrementAndGet();
+            int sum = base;
+            for (int value : values) {
+                sum += value;
+            }
+            return sum;
+        }
+
+        @Memoize(ttlMillis = 10)
+        public String shortLived(String param) {
+            calls.incrementAndGet();
+            return param;
+        }
+
+        public int calls() {
+            return calls.get();
+        }
+    }
+}
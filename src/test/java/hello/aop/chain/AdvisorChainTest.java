@@ -0,0 +1,85 @@
+package hello.aop.chain;
+
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.AspectV5Order;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * AspectV5Order: TxAspect(@Order(1), orderAndService), LogAspect(@Order(2), allOrder)
+ * OrderService.orderItem -> Tx, Log 순서, OrderRepository.save -> Log 만
+ */
+@SpringBootTest
+@Import({AspectV5Order.LogAspect.class, AspectV5Order.TxAspect.class, AdvisorChainConfig.class})
+class AdvisorChainTest {
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    AdvisorChainRegistry registry;
+
+    @BeforeEach
+    void reset() {
+        registry.reset();
+    }
+
+    @Test
+    void resolvedChainOrder() {
+        MethodChainSnapshot orderItem = chain("orderService", "OrderService.orderItem(String)");
+        assertThat(orderItem.getEntries()).extracting(ChainEntrySnapshot::getAdvisor)
+                .containsExactly("ExposeInvocationInterceptor",
+                        "TxAspect.doTransaction [AspectJAroundAdvice]",
+                        "LogAspect.doLog [AspectJAroundAdvice]");
+
+        MethodChainSnapshot save = chain("orderRepository", "OrderRepository.save(String)");
+        assertThat(save.getEntries()).extracting(ChainEntrySnapshot::getAdvisor)
+                .containsExactly("ExposeInvocationInterceptor", "LogAspect.doLog [AspectJAroundAdvice]");
+    }
+
+    @Test
+    void countersAndSelfTime() {
+        orderService.orderItem("itemA");
+        assertThatThrownBy(() -> orderService.orderItem("ex"))
+                .isInstanceOf(IllegalStateException.class);
+
+        MethodChainSnapshot orderItem = chain("orderService", "OrderService.orderItem(String)");
+        for (ChainEntrySnapshot entry : orderItem.getEntries()) {
+            assertThat(entry.getCalls()).isEqualTo(2);
+            assertThat(entry.getErrors()).isEqualTo(1);
+            assertThat(entry.getSelfNanos()).isBetween(0L, entry.getTotalNanos());
+        }
+        //바깥 항목의 total 은 안쪽 항목의 total 이상
+        List<ChainEntrySnapshot> entries = orderItem.getEntries();
+        assertThat(entries.get(0).getTotalNanos()).isGreaterThanOrEqualTo(entries.get(1).getTotalNanos());
+
+        assertThat(registry.topSelfTime(3)).hasSizeLessThanOrEqualTo(3)
+                .allSatisfy(entry -> assertThat(entry.getCalls()).isPositive());
+    }
+
+    @Test
+    void jmxView() throws Exception {
+        orderService.orderItem("itemA");
+
+        ObjectName name = new ObjectName(AdvisorChainView.OBJECT_NAME);
+        assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(name)).isTrue();
+        String[] chains = (String[]) ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Chains");
+        assertThat(chains).anySatisfy(line -> assertThat(line).contains("OrderService.orderItem(String)", "TxAspect"));
+    }
+
+    private MethodChainSnapshot chain(String beanName, String method) {
+        return registry.snapshot(beanName).stream()
+                .filter(snapshot -> snapshot.getMethod().equals(method))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,104 @@
+package hello.aop.deadline;
+
+import hello.aop.exam.annotation.Jitter;
+import hello.aop.exam.annotation.Retry;
+import hello.aop.exam.aop.RetryAspect;
+import hello.aop.support.ContextSnapshot;
+import hello.aop.timeout.annotation.Timeout;
+import hello.aop.timeout.aop.CallTimeoutException;
+import hello.aop.timeout.aop.TimeoutAspect;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeadlineTest {
+    DeadlineTarget target;
+
+    @BeforeEach
+    void init() {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new DeadlineTarget());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new TimeoutAspect());
+        proxyFactory.addAspect(new RetryAspect());
+        target = proxyFactory.getProxy();
+    }
+
+    /**
+     * 재시도 10번 * 100ms 대기, deadline 250ms -> 남은 시간이 부족하면 재시도를 멈춘다.
+     */
+    @Test
+    void retryStopsAtDeadline() {
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> target.alwaysFail())
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(250);
+        assertThat(target.calls()).isBetween(2, 3);
+    }
+
+    /**
+     * 바깥 deadline 이 더 빠르면 안쪽 @Timeout 도 바깥 deadline 에 끝난다.
+     */
+    @Test
+    void nestedTimeoutUsesOuterDeadline() {
+        try (Deadline.Scope scope = Deadline.enter(Deadline.after(100, TimeUnit.MILLISECONDS))) {
+            long start = System.nanoTime();
+            assertThatThrownBy(() -> target.slow())
+                    .isInstanceOf(CallTimeoutException.class);
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1_000);
+        }
+        assertThat(Deadline.current()).isNull();
+    }
+
+    @Test
+    void expiredBeforeCall() {
+        try (Deadline.Scope scope = Deadline.enter(Deadline.after(0, TimeUnit.MILLISECONDS))) {
+            assertThatThrownBy(() -> target.slow())
+                    .isInstanceOf(CallTimeoutException.class);
+        }
+        assertThat(target.calls()).isZero();
+    }
+
+    /**
+     * 다른 쓰레드로 넘겨도 같은 deadline
+     */
+    @Test
+    void propagateAcrossExecutor() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (Deadline.Scope scope = Deadline.enter(Deadline.after(1, TimeUnit.SECONDS))) {
+            Deadline propagated = executor.submit(ContextSnapshot.capture().wrap(Deadline::current)).get();
+            assertThat(propagated).isSameAs(scope.getDeadline());
+        }
+        assertThat(executor.submit(Deadline::current).get()).isNull();
+        executor.shutdown();
+    }
+
+    static class DeadlineTarget {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Timeout(250)
+        @Retry(value = 10, delay = 100, multiplier = 1, jitter = Jitter.NONE)
+        public void alwaysFail() {
+            calls.incrementAndGet();
+            throw new IllegalStateException("fail");
+        }
+
+        @Timeout(10_000)
+        public void slow() throws InterruptedException {
+            calls.incrementAndGet();
+            Thread.sleep(5_000);
+        }
+
+        public int calls() {
+            return calls.get();
+        }
+    }
+}
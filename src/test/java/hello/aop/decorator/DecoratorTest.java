@@ -0,0 +1,137 @@
+package hello.aop.decorator;
+
+import hello.aop.exam.ExamRepository;
+import hello.aop.exam.ExamService;
+import hello.aop.exam.annotation.Retry;
+import hello.aop.exam.annotation.Trace;
+import hello.aop.exam.aop.RetryAspect;
+import hello.aop.exam.aop.TraceAspect;
+import hello.aop.fault.annotation.FaultInjection;
+import hello.aop.trace.TraceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Import({DecoratorConfig.class, TraceAspect.class, RetryAspect.class})
+class DecoratorTest {
+    @Autowired
+    ExamRepository examRepository;
+    @Autowired
+    ExamService examService;
+
+    @Test
+    void beanClassIsDecorator() {
+        assertThat(examService.getClass().getName()).endsWith("ExamService_Decorated");
+        //@Offload 등의 aspect 는 등록하지 않았으므로 프록시가 없다.
+        assertThat(AopUtils.isAopProxy(examService)).isFalse();
+        examService.request("data");
+    }
+
+    /**
+     * ExamRepository.save 는 @FaultInjection 이 재시도 안쪽이어야 하므로 데코레이터를 만들지 않고 프록시로 적용
+     */
+    @Test
+    void innerAdviceIsLeftToProxy() {
+        assertThat(AopUtils.isAopProxy(examRepository)).isTrue();
+        assertThat(AopUtils.getTargetClass(examRepository)).isEqualTo(ExamRepository.class);
+        assertThatThrownBy(() -> DecoratorTest_FlakyClient_Decorated.class.getDeclaredMethod("faulty"))
+                .isInstanceOf(NoSuchMethodException.class);
+    }
+
+    @Test
+    void retryUntilSuccess() {
+        FlakyClient client = new DecoratorTest_FlakyClient_Decorated();
+        assertThat(AopUtils.isAopProxy(client)).isFalse();
+
+        assertThat(client.call(3)).isEqualTo("ok");
+        assertThat(client.calls()).isEqualTo(3);
+        assertThat(TraceContext.current().isIdle()).isTrue();
+    }
+
+    @Test
+    void retryExhausted() {
+        FlakyClient client = new DecoratorTest_FlakyClient_Decorated();
+
+        assertThatThrownBy(() -> client.call(10))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(client.calls()).isEqualTo(3); //value = 전체 시도 횟수
+        assertThat(TraceContext.current().isIdle()).isTrue();
+    }
+
+    @Test
+    void noRetryFor() {
+        FlakyClient client = new DecoratorTest_FlakyClient_Decorated();
+
+        assertThatThrownBy(client::invalid)
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(client.calls()).isEqualTo(1);
+    }
+
+    @Test
+    void checkedExceptionIsNotWrapped() {
+        FlakyClient client = new DecoratorTest_FlakyClient_Decorated();
+
+        assertThatThrownBy(client::read)
+                .isInstanceOf(IOException.class);
+        assertThat(client.calls()).isEqualTo(2);
+    }
+
+    /**
+     * 비동기 @Retry 는 생성하지 않고 RetryAspect 에 맡긴다.
+     */
+    @Test
+    void asyncRetryIsNotDecorated() throws Exception {
+        assertThat(DecoratorTest_FlakyClient_Decorated.class.getDeclaredMethod("call", int.class)).isNotNull();
+        assertThatThrownBy(() -> DecoratorTest_FlakyClient_Decorated.class.getDeclaredMethod("callAsync"))
+                .isInstanceOf(NoSuchMethodException.class);
+    }
+
+    static class FlakyClient {
+        private int calls;
+
+        @Trace
+        @Retry(value = 3, failureThreshold = 0)
+        public String call(int successAt) {
+            if (++calls < successAt) {
+                throw new IllegalStateException("fail " + calls);
+            }
+            return "ok";
+        }
+
+        @Retry(noRetryFor = IllegalArgumentException.class, failureThreshold = 0)
+        public String invalid() {
+            calls++;
+            throw new IllegalArgumentException("invalid");
+        }
+
+        @Retry(value = 2, retryOn = IOException.class, failureThreshold = 0)
+        public String read() throws IOException {
+            calls++;
+            throw new IOException("read");
+        }
+
+        @Retry
+        public CompletableFuture<String> callAsync() {
+            return CompletableFuture.completedFuture("ok");
+        }
+
+        @Retry
+        @FaultInjection(failEvery = 2)
+        public String faulty() {
+            return "ok";
+        }
+
+        public int calls() {
+            return calls;
+        }
+    }
+}
@@ -2,6 +2,10 @@ package hello.aop.exam;
 
 import hello.aop.exam.aop.RetryAspect;
 import hello.aop.exam.aop.TraceAspect;
+import hello.aop.fault.aop.FaultInjectionAspect;
+import hello.aop.flight.aop.SingleFlightAspect;
+import hello.aop.offload.aop.OffloadAspect;
+import hello.aop.timeout.aop.TimeoutAspect;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,7 +14,7 @@ import org.springframework.context.annotation.Import;
 
 @Slf4j
 //@Import(TraceAspect.class)
-@Import({TraceAspect.class, RetryAspect.class})
+@Import({OffloadAspect.class, SingleFlightAspect.class, TimeoutAspect.class, TraceAspect.class, RetryAspect.class, FaultInjectionAspect.class})
 @SpringBootTest
 class ExamTest {
     @Autowired
@@ -23,5 +27,4 @@ class ExamTest {
             examService.request("data" + i);
         }
     }
-
 }
\ No newline at end of file
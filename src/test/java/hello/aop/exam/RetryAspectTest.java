@@ -0,0 +1,182 @@
+package hello.aop.exam;
+
+import hello.aop.exam.annotation.Jitter;
+import hello.aop.exam.annotation.Retry;
+import hello.aop.exam.aop.RetryAspect;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 백오프: 10ms -> 20ms (Jitter.NONE)
+ */
+@Slf4j
+class RetryAspectTest {
+    FlakyClient client;
+
+    @BeforeEach
+    void init() {
+        client = proxy(new RetryAspect());
+    }
+
+    private static FlakyClient proxy(RetryAspect retryAspect) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new FlakyClient());
+        proxyFactory.addAspect(retryAspect);
+        return proxyFactory.getProxy();
+    }
+
+    @Test
+    void blockingRetryWithBackoff() {
+        long start = System.nanoTime();
+        String result = client.call(3);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(client.calls()).isEqualTo(3);
+        assertThat(elapsedMs).isGreaterThanOrEqualTo(30);
+    }
+
+    @Test
+    void blockingRetryExhausted() {
+        assertThatThrownBy(() -> client.call(10))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(client.calls()).isEqualTo(3);
+    }
+
+    @Test
+    void noRetryFor() {
+        assertThatThrownBy(() -> client.callInvalid())
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(client.calls()).isEqualTo(1);
+    }
+
+    /**
+     * ExamRepository 와 같은 저장소: 잘못된 요청(IllegalStateException)은 한 번만, 일시 장애(IllegalArgumentException)는 재시도
+     */
+    @Test
+    void invalidRequestIsNotRetried() {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new ItemRepository());
+        proxyFactory.addAspect(new RetryAspect());
+        ItemRepository repository = proxyFactory.getProxy();
+
+        assertThatThrownBy(() -> repository.save("ex"))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(repository.calls()).isEqualTo(1);
+
+        assertThat(repository.save("itemA")).isEqualTo("ok");
+        assertThat(repository.calls()).isEqualTo(3);
+    }
+
+    /**
+     * 스케줄러를 막아두면 재시도가 실행될 수 없다. -> 호출은 완료되지 않은 future 를 반환해야 한다.
+     * 재시도는 스케줄러 쓰레드가 아니라 executor 에서 실행된다.
+     */
+    @Test
+    void asyncRetryDoesNotBlockCaller() {
+        CountDownLatch release = new CountDownLatch(1);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "retry-attempt"));
+        scheduler.execute(() -> awaitQuietly(release));
+        try {
+            FlakyClient asyncClient = proxy(new RetryAspect(scheduler, executor));
+            CompletableFuture<String> future = asyncClient.callAsync(3);
+            assertThat(future).isNotDone();
+
+            release.countDown();
+            assertThat(future.join()).isEqualTo("ok");
+            assertThat(asyncClient.calls()).isEqualTo(3);
+            assertThat(asyncClient.lastThread()).isEqualTo("retry-attempt");
+        } finally {
+            scheduler.shutdownNow();
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void asyncRetryExhausted() {
+        CompletableFuture<String> future = client.callAsync(10);
+
+        assertThatThrownBy(future::join)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(client.calls()).isEqualTo(3);
+    }
+
+    public static class FlakyClient {
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile String lastThread;
+
+        //프록시 필드가 아니라 target 필드를 읽도록 메서드로 조회
+        public int calls() {
+            return calls.get();
+        }
+
+        public String lastThread() {
+            return lastThread;
+        }
+
+        //successAt 번째 호출에 성공
+        @Retry(value = 3, delay = 10, jitter = Jitter.NONE)
+        public String call(int successAt) {
+            if (calls.incrementAndGet() < successAt) {
+                throw new IllegalStateException("fail " + calls.get());
+            }
+            return "ok";
+        }
+
+        @Retry(value = 3, noRetryFor = IllegalArgumentException.class)
+        public String callInvalid() {
+            calls.incrementAndGet();
+            throw new IllegalArgumentException("invalid");
+        }
+
+        @Retry(value = 3, delay = 10, jitter = Jitter.NONE)
+        public CompletableFuture<String> callAsync(int successAt) {
+            lastThread = Thread.currentThread().getName();
+            if (calls.incrementAndGet() < successAt) {
+                return CompletableFuture.failedFuture(new IllegalStateException("fail " + calls.get()));
+            }
+            return CompletableFuture.completedFuture("ok");
+        }
+    }
+
+    public static class ItemRepository {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        public int calls() {
+            return calls.get();
+        }
+
+        //"ex" 는 잘못된 요청, 나머지는 첫 호출만 일시 장애
+        @Retry(value = 4, delay = 10, jitter = Jitter.NONE, noRetryFor = IllegalStateException.class)
+        public String save(String itemId) {
+            int call = calls.incrementAndGet();
+            if (itemId.equals("ex")) {
+                throw new IllegalStateException("잘못된 요청");
+            }
+            if (call == 2) {
+                throw new IllegalArgumentException("일시 장애");
+            }
+            return "ok";
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package hello.aop.exam;
+
+import hello.aop.exam.aop.CircuitBreaker;
+import hello.aop.exam.aop.RetryBudget;
+import hello.aop.exam.aop.RetryGuard;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryGuardTest {
+
+    /**
+     * 토큰 2개로 시작, 성공 1번당 0.5개 적립
+     */
+    @Test
+    void retryBudget() {
+        RetryBudget budget = new RetryBudget(0.5, 2);
+
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isFalse(); //예산 소진
+        assertThat(budget.suppressed()).isEqualTo(1);
+
+        budget.onSuccess();
+        assertThat(budget.tryAcquire()).isFalse(); //0.5개
+        budget.onSuccess();
+        assertThat(budget.tryAcquire()).isTrue(); //1개
+    }
+
+    @Test
+    void circuitBreaker() throws InterruptedException {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(3, 50);
+
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        circuitBreaker.onFailure();
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(circuitBreaker.tryAcquire()).isFalse();
+
+        Thread.sleep(60);
+        assertThat(circuitBreaker.tryAcquire()).isTrue(); //시험 호출 1개
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(circuitBreaker.tryAcquire()).isFalse();
+
+        circuitBreaker.onSuccess();
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(circuitBreaker.rejected()).isEqualTo(2);
+    }
+
+    /**
+     * 서킷이 열려 있으면 예산 토큰을 쓰지 않는다.
+     */
+    @Test
+    void openCircuitKeepsBudget() {
+        RetryBudget budget = new RetryBudget(0, 1);
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, 60_000);
+        RetryGuard guard = new RetryGuard("guard", budget, circuitBreaker);
+
+        guard.onFailure();
+        assertThat(guard.tryRetry()).isFalse();
+        assertThat(budget.tokens()).isEqualTo(1);
+        assertThat(budget.suppressed()).isZero();
+    }
+
+    /**
+     * 시험 호출이 성공/실패 없이 끝나면 다음 호출이 바로 시험 호출
+     */
+    @Test
+    void releaseHalfOpenTrial() throws InterruptedException {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, 50);
+        circuitBreaker.onFailure();
+        Thread.sleep(60);
+        assertThat(circuitBreaker.tryAcquire()).isTrue();
+        assertThat(circuitBreaker.tryAcquire()).isFalse();
+
+        circuitBreaker.release();
+        assertThat(circuitBreaker.tryAcquire()).isTrue();
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+    }
+}
@@ -0,0 +1,84 @@
+package hello.aop.fault;
+
+import hello.aop.fault.annotation.FaultInjection;
+import hello.aop.fault.annotation.Latency;
+import hello.aop.fault.aop.FaultInjectionAspect;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FaultInjectionAspectTest {
+    FaultInjectionAspect faultInjectionAspect;
+    FaultTarget target;
+
+    @BeforeEach
+    void init() {
+        faultInjectionAspect = new FaultInjectionAspect();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new FaultTarget());
+        proxyFactory.addAspect(faultInjectionAspect);
+        target = proxyFactory.getProxy();
+    }
+
+    /**
+     * 여러 쓰레드에서 호출해도 정확히 5번에 1번 실패
+     */
+    @Test
+    void failEveryConcurrent() throws InterruptedException {
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(() -> {
+                try {
+                    target.everyFifth();
+                } catch (IllegalArgumentException e) {
+                    failures.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(failures.get()).isEqualTo(200);
+        assertThat(faultInjectionAspect.getPolicies().get(0).getFailures()).isEqualTo(200);
+    }
+
+    @Test
+    void failureRateOverride() {
+        faultInjectionAspect.setFailureRateOverride(1.0);
+        assertThatThrownBy(() -> target.everyFifth())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("fault");
+
+        faultInjectionAspect.setFailureRateOverride(0);
+        for (int i = 0; i < 10; i++) {
+            assertThat(target.everyFifth()).isEqualTo("ok");
+        }
+    }
+
+    @Test
+    void fixedLatency() {
+        long start = System.nanoTime();
+        target.slow();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(20);
+    }
+
+    public static class FaultTarget {
+        @FaultInjection(failEvery = 5, exception = IllegalArgumentException.class, message = "fault")
+        public String everyFifth() {
+            return "ok";
+        }
+
+        @FaultInjection(latency = Latency.FIXED, latencyMillis = 20)
+        public String slow() {
+            return "ok";
+        }
+    }
+}
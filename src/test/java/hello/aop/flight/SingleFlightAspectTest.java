@@ -0,0 +1,179 @@
+package hello.aop.flight;
+
+import hello.aop.flight.annotation.SingleFlight;
+import hello.aop.flight.aop.SingleFlightAspect;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightAspectTest {
+    SingleFlightAspect singleFlightAspect;
+    FlightTarget target;
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @BeforeEach
+    void init() {
+        singleFlightAspect = new SingleFlightAspect();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new FlightTarget());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(singleFlightAspect);
+        target = proxyFactory.getProxy();
+    }
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 같은 인자 8번 동시 호출 -> 1번 실행, 모두 같은 결과
+     */
+    @Test
+    void shareResult() throws Exception {
+        List<Future<String>> results = submit("item", 8);
+        assertThat(target.started().await(5, TimeUnit.SECONDS)).isTrue();
+        awaitWaiting(7);
+        target.release().countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("item:1");
+        }
+        assertThat(target.calls()).isEqualTo(1);
+        assertThat(singleFlightAspect.getShared()).isEqualTo(7);
+        assertThat(singleFlightAspect.inFlight()).isZero();
+
+        //끝난 뒤 호출은 다시 실행
+        assertThat(target.load("item")).isEqualTo("item:2");
+    }
+
+    @Test
+    void shareException() throws Exception {
+        List<Future<String>> results = submit("ex", 4);
+        assertThat(target.started().await(5, TimeUnit.SECONDS)).isTrue();
+        awaitWaiting(3);
+        target.release().countDown();
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+        assertThat(target.calls()).isEqualTo(1);
+        assertThat(singleFlightAspect.inFlight()).isZero();
+    }
+
+    @Test
+    void differentKeys() {
+        target.release().countDown();
+        target.load("a");
+        target.load("b");
+        assertThat(target.calls()).isEqualTo(2);
+        assertThat(singleFlightAspect.getShared()).isZero();
+    }
+
+    /**
+     * 같은 인터페이스 메서드, 같은 인자라도 구현체가 다르면 합치지 않는다. (JDK 프록시)
+     */
+    @Test
+    void flightPerImplementation() throws Exception {
+        Loader first = interfaceProxy(new FirstLoader());
+        Loader second = interfaceProxy(new SecondLoader());
+
+        Future<String> firstResult = executor.submit(() -> first.load("a"));
+        assertThat(target.started().await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(executor.submit(() -> second.load("a")).get(5, TimeUnit.SECONDS)).isEqualTo("second:a");
+        target.release().countDown();
+
+        assertThat(firstResult.get(5, TimeUnit.SECONDS)).isEqualTo("first:a");
+        assertThat(singleFlightAspect.getShared()).isZero();
+        assertThat(singleFlightAspect.getExecutions()).isEqualTo(2);
+    }
+
+    private Loader interfaceProxy(Loader loader) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(loader);
+        proxyFactory.addAspect(singleFlightAspect);
+        return proxyFactory.getProxy();
+    }
+
+    private List<Future<String>> submit(String itemId, int count) {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            results.add(executor.submit(() -> target.load(itemId)));
+        }
+        return results;
+    }
+
+    //leader 가 실행 중일 때 나머지가 모두 합류할 때까지
+    private void awaitWaiting(long followers) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlightAspect.getShared() < followers && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    interface Loader {
+        String load(String itemId) throws InterruptedException;
+    }
+
+    //target 의 latch 로 실행 중인 상태를 유지
+    class FirstLoader implements Loader {
+        @Override
+        @SingleFlight
+        public String load(String itemId) throws InterruptedException {
+            target.started().countDown();
+            target.release().await();
+            return "first:" + itemId;
+        }
+    }
+
+    static class SecondLoader implements Loader {
+        @Override
+        @SingleFlight
+        public String load(String itemId) {
+            return "second:" + itemId;
+        }
+    }
+
+    static class FlightTarget {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @SingleFlight
+        public String load(String itemId) throws InterruptedException {
+            int call = calls.incrementAndGet();
+            started.countDown();
+            release.await();
+            if (itemId.equals("ex")) {
+                throw new IllegalStateException("ex");
+            }
+            return itemId + ":" + call;
+        }
+
+        public int calls() {
+            return calls.get();
+        }
+
+        public CountDownLatch started() {
+            return started;
+        }
+
+        public CountDownLatch release() {
+            return release;
+        }
+    }
+}
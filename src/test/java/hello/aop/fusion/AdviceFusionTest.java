@@ -0,0 +1,189 @@
+package hello.aop.fusion;
+
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.AspectV6Advice;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.After;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.AfterThrowing;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 합친 인터셉터와 스프링 인터셉터 체인의 어드바이스 실행 순서가 같아야 한다.
+ */
+@ExtendWith(OutputCaptureExtension.class)
+@SpringBootTest
+@Import({AspectV6Advice.class, AdviceFusionConfig.class})
+class AdviceFusionTest {
+    @Autowired
+    OrderService orderService;
+
+    @Test
+    void sameOrderOnSuccess() {
+        FusionTarget plain = proxy(false);
+        FusionTarget fused = proxy(true);
+
+        assertThat(fused.call("a")).isEqualTo(plain.call("a"));
+        assertThat(fused.events()).containsExactlyElementsOf(plain.events());
+        assertThat(fused.events()).containsExactly(
+                "around start", "before", "target a", "returning=ok a", "after", "around end");
+    }
+
+    @Test
+    void sameOrderOnFailure() {
+        FusionTarget plain = proxy(false);
+        FusionTarget fused = proxy(true);
+
+        assertThatThrownBy(() -> plain.call("ex")).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> fused.call("ex")).isInstanceOf(IllegalStateException.class);
+        assertThat(fused.events()).containsExactlyElementsOf(plain.events());
+        assertThat(fused.events()).containsExactly(
+                "around start", "before", "target ex", "throwing=fail ex", "after", "around ex");
+    }
+
+    @Test
+    void fusedIntoOneAdvisor() {
+        FusionTarget fused = proxy(true);
+
+        //ExposeInvocationInterceptor + 합친 인터셉터
+        Advisor[] advisors = ((Advised) fused).getAdvisors();
+        assertThat(advisors).hasSize(2);
+        assertThat(advisors[1].getAdvice()).isInstanceOf(FusedAdviceInterceptor.class);
+        assertThat(((FusedAdviceInterceptor) advisors[1].getAdvice()).size()).isEqualTo(5);
+    }
+
+    //대상 메서드까지의 스택 깊이: 어드바이스마다 있던 MethodInvocation.proceed(), 인터셉터 프레임이 줄어든다.
+    @Test
+    void fusedCallIsShallower() {
+        FusionTarget plain = proxy(false);
+        FusionTarget fused = proxy(true);
+
+        plain.call("a");
+        fused.call("a");
+        assertThat(fused.depth()).isLessThan(plain.depth());
+    }
+
+    @Test
+    void autoProxyCreatorFusesAspectV6Advice() {
+        Advisor[] advisors = ((Advised) orderService).getAdvisors();
+        assertThat(advisors).anySatisfy(advisor ->
+                assertThat(advisor.getAdvice()).isInstanceOf(FusedAdviceInterceptor.class));
+
+        orderService.orderItem("itemA");
+        assertThatThrownBy(() -> orderService.orderItem("ex"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    /**
+     * AopAsyncTest 와 같은 순서: 비동기 완료 후 [return] -> [after] -> 커밋 -> 릴리즈
+     */
+    @Test
+    void asyncOrderIsKept(CapturedOutput output) {
+        assertThat(orderService.orderItemAsync("itemA").join()).isEqualTo("ok");
+
+        String out = output.getOut();
+        int returned = out.indexOf("[return]");
+        int after = out.indexOf("[after]");
+        int commit = out.indexOf("[트랜잭션 커밋]");
+        int release = out.indexOf("[리소스 릴리즈]");
+
+        assertThat(returned).isNotNegative();
+        assertThat(after).isGreaterThan(returned);
+        assertThat(commit).isGreaterThan(after);
+        assertThat(release).isGreaterThan(commit);
+    }
+
+    private static FusionTarget proxy(boolean fuse) {
+        FusionTarget target = new FusionTarget();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new RecordingAspect());
+        if (fuse) {
+            assertThat(AdviceFusion.fuse(proxyFactory)).isTrue();
+        }
+        return proxyFactory.getProxy();
+    }
+
+    static class FusionTarget {
+        private final List<String> events = new ArrayList<>();
+        private int depth;
+
+        public String call(String itemId) {
+            depth = StackWalker.getInstance().walk(frames -> (int) frames.count());
+            events.add("target " + itemId);
+            if (itemId.equals("ex")) {
+                throw new IllegalStateException("fail " + itemId);
+            }
+            return "ok " + itemId;
+        }
+
+        public List<String> events() {
+            return events;
+        }
+
+        public int depth() {
+            return depth;
+        }
+    }
+
+    @Aspect
+    static class RecordingAspect {
+
+        @Around("execution(* hello.aop.fusion.AdviceFusionTest.FusionTarget.call(..))")
+        public Object doAround(ProceedingJoinPoint joinPoint) throws Throwable {
+            List<String> events = events(joinPoint);
+            events.add("around start");
+            try {
+                Object result = joinPoint.proceed();
+                events.add("around end");
+                return result;
+            } catch (Exception e) {
+                events.add("around ex");
+                throw e;
+            }
+        }
+
+        @Before("execution(* hello.aop.fusion.AdviceFusionTest.FusionTarget.call(..))")
+        public void doBefore(JoinPoint joinPoint) {
+            events(joinPoint).add("before");
+        }
+
+        @AfterReturning(value = "execution(* hello.aop.fusion.AdviceFusionTest.FusionTarget.call(..))", returning = "result")
+        public void doReturn(JoinPoint joinPoint, Object result) {
+            events(joinPoint).add("returning=" + result);
+        }
+
+        @AfterThrowing(value = "execution(* hello.aop.fusion.AdviceFusionTest.FusionTarget.call(..))", throwing = "ex")
+        public void doThrowing(JoinPoint joinPoint, Exception ex) {
+            events(joinPoint).add("throwing=" + ex.getMessage());
+        }
+
+        @After("execution(* hello.aop.fusion.AdviceFusionTest.FusionTarget.call(..))")
+        public void doAfter(JoinPoint joinPoint) {
+            events(joinPoint).add("after");
+        }
+
+        private static List<String> events(JoinPoint joinPoint) {
+            return ((FusionTarget) joinPoint.getTarget()).events();
+        }
+    }
+}
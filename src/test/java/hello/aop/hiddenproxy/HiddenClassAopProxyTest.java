@@ -0,0 +1,130 @@
+package hello.aop.hiddenproxy;
+
+import hello.aop.member.MemberService;
+import hello.aop.member.MemberServiceImpl;
+import hello.aop.proxyvs.code.ProxyDIAspect;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.NameMatchMethodPointcutAdvisor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * ProxyCastingTest, ProxyDITest 와 같은 결과가 나와야 한다.
+ */
+@SpringBootTest
+@Import({ProxyDIAspect.class, HiddenProxyConfig.class})
+class HiddenClassAopProxyTest {
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    MemberServiceImpl memberServiceImpl;
+
+    @Test
+    void interfaceProxy() {
+        AtomicInteger advised = new AtomicInteger();
+        MemberService proxy = (MemberService) proxyFactory(false, advised).getProxy();
+
+        assertThat(proxy.getClass().isHidden()).isTrue();
+        assertThat(AopUtils.isAopProxy(proxy)).isTrue();
+        assertThat(proxy.hello("a")).isEqualTo("ok");
+        assertThat(advised.get()).isEqualTo(1);
+
+        //JDK 동적 프록시처럼 구현 클래스로 캐스팅 실패
+        assertThrows(ClassCastException.class, () -> {
+            MemberServiceImpl castingMemberService = (MemberServiceImpl) proxy;
+        });
+    }
+
+    @Test
+    void classProxy() {
+        AtomicInteger advised = new AtomicInteger();
+        MemberService proxy = (MemberService) proxyFactory(true, advised).getProxy();
+
+        assertThat(proxy.getClass().isHidden()).isTrue();
+        assertThat(proxy.hello("a")).isEqualTo("ok");
+
+        //CGLIB 프록시처럼 구현 클래스로 캐스팅 성공
+        MemberServiceImpl castingMemberService = (MemberServiceImpl) proxy;
+        assertThat(castingMemberService.internal("a")).isEqualTo("ok"); //어드바이스 없음, 대상 직접 호출
+        assertThat(advised.get()).isEqualTo(1);
+    }
+
+    @Test
+    void advisedAndEquality() {
+        ProxyFactory proxyFactory = proxyFactory(true, new AtomicInteger());
+        Object proxy = proxyFactory.getProxy();
+        Object other = proxyFactory.getProxy();
+
+        assertThat(((Advised) proxy).isFrozen()).isTrue();
+        assertThat(AopProxyUtils.getSingletonTarget(proxy)).isInstanceOf(MemberServiceImpl.class);
+        assertThat(AopUtils.getTargetClass(proxy)).isEqualTo(MemberServiceImpl.class);
+        assertThat(proxy).isEqualTo(other).hasSameHashCodeAs(other);
+    }
+
+    //대상, 인터페이스, 어드바이스 있는 메서드가 같으면 프록시 클래스를 다시 정의하지 않는다.
+    @Test
+    void proxyClassIsReused() {
+        AtomicInteger advised = new AtomicInteger();
+        MemberService proxy = (MemberService) proxyFactory(true, advised).getProxy();
+        MemberService other = (MemberService) proxyFactory(true, advised).getProxy();
+        assertThat(other.getClass()).isSameAs(proxy.getClass());
+        assertThat(AopProxyUtils.getSingletonTarget(other)).isNotSameAs(AopProxyUtils.getSingletonTarget(proxy));
+
+        other.hello("a");
+        assertThat(advised.get()).isEqualTo(1);
+
+        MemberService internalProxy = (MemberService) proxyFactory(true, advised, "internal").getProxy();
+        assertThat(internalProxy.getClass()).isNotSameAs(proxy.getClass());
+        assertThat(internalProxy.hello("a")).isEqualTo("ok");
+        assertThat(advised.get()).isEqualTo(1);
+    }
+
+    @Test
+    void notSupportedFallback() {
+        ProxyFactory proxyFactory = proxyFactory(true, new AtomicInteger());
+        proxyFactory.setFrozen(false);
+
+        Object proxy = proxyFactory.getProxy();
+        assertThat(proxy.getClass().isHidden()).isFalse();
+        assertThat(AopUtils.isCglibProxy(proxy)).isTrue();
+    }
+
+    @Test
+    void dependencyInjection() {
+        //CGLIB 처럼 인터페이스, 구현 클래스 모두 주입
+        assertThat(memberService.getClass().isHidden()).isTrue();
+        assertThat(memberServiceImpl).isSameAs(memberService);
+        assertThat(memberServiceImpl.hello("hello")).isEqualTo("ok");
+    }
+
+    private static ProxyFactory proxyFactory(boolean proxyTargetClass, AtomicInteger advised) {
+        return proxyFactory(proxyTargetClass, advised, "hello");
+    }
+
+    private static ProxyFactory proxyFactory(boolean proxyTargetClass, AtomicInteger advised, String mappedName) {
+        ProxyFactory proxyFactory = new ProxyFactory(new MemberServiceImpl());
+        proxyFactory.setProxyTargetClass(proxyTargetClass);
+        proxyFactory.setAopProxyFactory(new HiddenClassAopProxyFactory());
+        NameMatchMethodPointcutAdvisor advisor = new NameMatchMethodPointcutAdvisor((MethodInterceptor) invocation -> {
+            advised.incrementAndGet();
+            return invocation.proceed();
+        });
+        advisor.setMappedName(mappedName);
+        proxyFactory.addAdvisor(advisor);
+        proxyFactory.setFrozen(true);
+        return proxyFactory;
+    }
+}
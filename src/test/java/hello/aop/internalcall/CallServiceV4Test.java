@@ -0,0 +1,56 @@
+package hello.aop.internalcall;
+
+import hello.aop.internalcall.aop.CallLogAspect;
+import hello.aop.selfproxy.SelfProxyPostProcessor;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Import(CallLogAspect.class)
+@SpringBootTest
+class CallServiceV4Test {
+
+    @Autowired
+    CallServiceV4 callServiceV4;
+
+    @Test
+    void external() {
+        callServiceV4.external();
+    }
+
+    @Test
+    void selfProxy() {
+        assertThat(AopUtils.isAopProxy(callServiceV4)).isTrue();
+        assertThat(self(callServiceV4)).isSameAs(callServiceV4);
+    }
+
+    @Test
+    void withoutCircularReferences() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.setAllowCircularReferences(false);
+            context.register(AopConfig.class, CallLogAspect.class, SelfProxyPostProcessor.class, CallServiceV4.class);
+            context.refresh();
+
+            CallServiceV4 callService = context.getBean(CallServiceV4.class);
+            assertThat(AopUtils.isAopProxy(callService)).isTrue();
+            assertThat(self(callService)).isSameAs(callService);
+            callService.external();
+        }
+    }
+
+    private static Object self(CallServiceV4 proxy) {
+        return ReflectionTestUtils.getField(AopProxyUtils.getSingletonTarget(proxy), "self");
+    }
+
+    @EnableAspectJAutoProxy(proxyTargetClass = true)
+    static class AopConfig {
+    }
+}
@@ -0,0 +1,150 @@
+package hello.aop.killswitch;
+
+import hello.aop.internalcall.CallServiceV0;
+import hello.aop.internalcall.aop.CallLogAspect;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.annotation.Import;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * CallLogAspect 는 aop.switch.disabled 로 꺼진 상태에서 시작
+ */
+@ExtendWith(OutputCaptureExtension.class)
+@SpringBootTest(properties = "aop.switch.disabled=CallLogAspect")
+@Import({CallLogAspect.class, AspectSwitchConfig.class})
+class AspectSwitchTest {
+    @Autowired
+    CallServiceV0 callServiceV0;
+
+    @Autowired
+    AspectSwitchRegistry registry;
+
+    @Test
+    void disabledSkipsAdvice() {
+        AspectSwitchRegistry switches = new AspectSwitchRegistry(List.of());
+        SwitchTarget target = proxy(switches);
+
+        target.call();
+        assertThat(target.advised()).isEqualTo(2); //@Around + @Before
+
+        switches.setEnabled("AspectSwitchTest.CountingAspect", false);
+        target.call();
+        target.call();
+        assertThat(target.advised()).isEqualTo(2);
+        assertThat(target.calls()).isEqualTo(3);
+
+        switches.setEnabled("AspectSwitchTest.CountingAspect", true);
+        target.call();
+        assertThat(target.advised()).isEqualTo(4);
+    }
+
+    //aspect 하나의 어드바이스는 스위치 인터셉터 하나로 묶이고, 어드바이스별 포인트컷은 그대로
+    @Test
+    void oneSwitchPerAspect() {
+        SwitchTarget target = proxy(new AspectSwitchRegistry(List.of()));
+
+        Advisor[] advisors = ((Advised) target).getAdvisors();
+        assertThat(advisors).filteredOn(advisor -> advisor.getAdvice() instanceof SwitchableInterceptor).hasSize(1);
+
+        target.other();
+        assertThat(target.advised()).isEqualTo(1); //@Before(other) 만
+        target.call();
+        assertThat(target.advised()).isEqualTo(3);
+    }
+
+    @Test
+    void unknownAspect() {
+        assertThatThrownBy(() -> registry.setEnabled("NoSuchAspect", false))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void toggleByJmx(CapturedOutput output) throws Exception {
+        assertThat(registry.isEnabled("CallLogAspect")).isFalse();
+        callServiceV0.external();
+        assertThat(output.getOut()).doesNotContain("aop=");
+
+        ObjectName name = new ObjectName(AspectSwitchView.OBJECT_NAME);
+        ManagementFactory.getPlatformMBeanServer().invoke(name, "enable",
+                new Object[]{"CallLogAspect"}, new String[]{String.class.getName()});
+        try {
+            callServiceV0.external();
+            assertThat(output.getOut()).contains("aop=");
+            String[] aspects = (String[]) ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Aspects");
+            assertThat(aspects).contains("CallLogAspect=on");
+        } finally {
+            registry.setEnabled("CallLogAspect", false);
+        }
+    }
+
+    private static SwitchTarget proxy(AspectSwitchRegistry switches) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new SwitchTarget());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new CountingAspect());
+        SwitchTarget proxy = proxyFactory.getProxy();
+        return (SwitchTarget) new AspectSwitchPostProcessor(switches).postProcessAfterInitialization(proxy, "switchTarget");
+    }
+
+    static class SwitchTarget {
+        private int calls;
+        private int advised;
+
+        public void call() {
+            calls++;
+        }
+
+        public void other() {
+        }
+
+        public int calls() {
+            return calls;
+        }
+
+        public int advised() {
+            return advised;
+        }
+
+        void advise() {
+            advised++;
+        }
+    }
+
+    @Aspect
+    static class CountingAspect {
+
+        @Around("execution(* hello.aop.killswitch.AspectSwitchTest.SwitchTarget.call())")
+        public Object doAround(ProceedingJoinPoint joinPoint) throws Throwable {
+            ((SwitchTarget) joinPoint.getTarget()).advise();
+            return joinPoint.proceed();
+        }
+
+        @Before("execution(* hello.aop.killswitch.AspectSwitchTest.SwitchTarget.call())")
+        public void doBefore(JoinPoint joinPoint) {
+            ((SwitchTarget) joinPoint.getTarget()).advise();
+        }
+
+        @Before("execution(* hello.aop.killswitch.AspectSwitchTest.SwitchTarget.other())")
+        public void doBeforeOther(JoinPoint joinPoint) {
+            ((SwitchTarget) joinPoint.getTarget()).advise();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package hello.aop.log;
+
+import org.aspectj.lang.annotation.After;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogSamplerTest {
+
+    @Test
+    void perSecond() {
+        LogSampler sampler = LogSampler.perSecond(3);
+        int sampled = 0;
+        for (int i = 0; i < 100; i++) {
+            if (sampler.sample()) {
+                sampled++;
+            }
+        }
+        assertThat(sampled).isBetween(3, 6); //초 경계를 넘으면 최대 2배
+    }
+
+    @Test
+    void oneIn() {
+        assertThat(LogSampler.oneIn(1)).isSameAs(LogSampler.always());
+
+        LogSampler sampler = LogSampler.oneIn(10);
+        int sampled = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (sampler.sample()) {
+                sampled++;
+            }
+        }
+        assertThat(sampled).isBetween(700, 1300);
+    }
+
+    @Test
+    void boundedArgs() {
+        String longArg = "x".repeat(100);
+
+        assertThat(new BoundedArgs(new Object[]{"a", 1, null}, 20).toString()).isEqualTo("[a, 1, null]");
+        assertThat(new BoundedArgs(new Object[]{"a", longArg}, 10).toString()).isEqualTo("[a, xxxxxx...]");
+        //배열, 컬렉션도 남은 길이까지만
+        assertThat(new BoundedArgs(new Object[]{new int[]{1, 2}, List.of("b")}, 20).toString()).isEqualTo("[[1, 2], [b]]");
+        assertThat(new BoundedArgs(new Object[]{new long[1_000_000]}, 10).toString()).isEqualTo("[[0, 0, 0,...]");
+    }
+
+    /**
+     * 샘플러가 true/false 를 번갈아 반환해도 한 호출의 어드바이스들은 같은 결과를 본다.
+     */
+    @Test
+    void sampleOncePerInvocation() {
+        SamplingAspect aspect = new SamplingAspect();
+        aspect.log.setSampler(new LogSampler() {
+            private boolean next;
+
+            @Override
+            public boolean sample() {
+                next = !next;
+                return next;
+            }
+        });
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new SampledTarget());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(aspect);
+        SampledTarget target = proxyFactory.getProxy();
+
+        target.call();
+        target.call();
+        assertThat(aspect.decisions).containsExactly(true, true, true, false, false, false);
+    }
+
+    static class SampledTarget {
+        public void call() {
+        }
+    }
+
+    @Aspect
+    static class SamplingAspect {
+        final AopLogger log = AopLogger.of(SamplingAspect.class);
+        final List<Boolean> decisions = new ArrayList<>();
+
+        @Before("execution(* hello.aop.log.LogSamplerTest.SampledTarget.call())")
+        public void doBefore() {
+            decisions.add(log.isEnabledForInvocation());
+        }
+
+        @AfterReturning("execution(* hello.aop.log.LogSamplerTest.SampledTarget.call())")
+        public void doReturn() {
+            decisions.add(log.isEnabledForInvocation());
+        }
+
+        @After("execution(* hello.aop.log.LogSamplerTest.SampledTarget.call())")
+        public void doAfter() {
+            decisions.add(log.isEnabledForInvocation());
+        }
+    }
+}
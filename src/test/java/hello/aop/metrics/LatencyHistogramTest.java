@@ -0,0 +1,32 @@
+package hello.aop.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketBounds() {
+        for (long value : new long[]{0, 1, 31, 32, 33, 64, 1_000, 123_456, 9_999_999_999L}) {
+            int index = LatencyHistogram.index(value);
+            assertThat(LatencyHistogram.highestValue(index)).isGreaterThanOrEqualTo(value);
+            assertThat(LatencyHistogram.highestValue(index)).isLessThanOrEqualTo(value + value / 16 + 1); //상대 오차
+        }
+        assertThat(LatencyHistogram.index(Long.MAX_VALUE)).isEqualTo(LatencyHistogram.BUCKETS - 1);
+    }
+
+    @Test
+    void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000); //1us ~ 1ms
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertThat(snapshot.getTotal()).isEqualTo(1000);
+        assertThat(snapshot.valueAt(0.5)).isBetween(500_000L, 520_000L);
+        assertThat(snapshot.valueAt(0.99)).isBetween(990_000L, 1_025_000L);
+        assertThat(snapshot.valueAt(1.0)).isBetween(1_000_000L, 1_035_000L);
+    }
+}
@@ -0,0 +1,62 @@
+package hello.aop.metrics;
+
+import hello.aop.order.OrderService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Slf4j
+@Import(MetricsConfig.class)
+@SpringBootTest(properties = "aop.metrics.port=0")
+class TimedAspectTest {
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    MetricsRegistry metricsRegistry;
+
+    @Autowired
+    PrometheusExporter prometheusExporter;
+
+    @Test
+    void redMetrics() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            orderService.orderItem("itemA");
+        }
+        assertThatThrownBy(() -> orderService.orderItem("ex"))
+                .isInstanceOf(IllegalStateException.class);
+
+        MethodMetricsSnapshot orderItem = find("OrderService.orderItem");
+        MethodMetricsSnapshot save = find("OrderRepository.save");
+        log.info("{}", orderItem);
+        log.info("{}", save);
+
+        assertThat(orderItem.getCount()).isGreaterThanOrEqualTo(11);
+        assertThat(orderItem.getErrors()).isGreaterThanOrEqualTo(1);
+        assertThat(orderItem.getP99()).isGreaterThanOrEqualTo(orderItem.getP50());
+        assertThat(save.getCount()).isGreaterThanOrEqualTo(11);
+
+        URL url = new URL("http://localhost:" + prometheusExporter.getPort() + "/metrics");
+        try (InputStream in = url.openStream()) {
+            String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertThat(body).contains("aop_method_calls_total{method=\"OrderService.orderItem\"}");
+            assertThat(body).contains("aop_method_duration_seconds{method=\"OrderRepository.save\",quantile=\"0.99\"}");
+        }
+    }
+
+    private MethodMetricsSnapshot find(String name) {
+        return metricsRegistry.snapshot().stream()
+                .filter(snapshot -> snapshot.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,138 @@
+package hello.aop.offload;
+
+import hello.aop.offload.annotation.Offload;
+import hello.aop.offload.aop.OffloadAspect;
+import hello.aop.trace.TraceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OffloadAspectTest {
+    OffloadTarget target;
+
+    @BeforeEach
+    void init() {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new OffloadTarget());
+        proxyFactory.addAspect(new OffloadAspect());
+        target = proxyFactory.getProxy();
+    }
+
+    @AfterEach
+    void clear() {
+        MDC.clear();
+    }
+
+    @Test
+    void joinOnOtherThread() {
+        MDC.put("requestId", "r-1");
+        String result = target.blocking();
+
+        assertThat(result).doesNotContain(Thread.currentThread().getName() + "|");
+        assertThat(result).endsWith("|r-1");
+        assertThat(MDC.get("requestId")).isEqualTo("r-1");
+    }
+
+    @Test
+    void futureReturnsImmediately() throws Exception {
+        MDC.put("requestId", "r-2");
+        CompletableFuture<String> future = target.async();
+
+        assertThat(future.get(5, TimeUnit.SECONDS)).endsWith("|r-2");
+    }
+
+    @Test
+    void exceptionIsUnwrapped() {
+        assertThatThrownBy(() -> target.fail())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("fail");
+    }
+
+    /**
+     * 진행 중인 trace 의 traceId 를 새 쓰레드에서 이어받는다.
+     */
+    @Test
+    void tracePropagates() {
+        TraceContext context = TraceContext.current();
+        context.begin(true);
+        long span = context.enter("root");
+        try {
+            assertThat(target.traceId()).isEqualTo(context.getTraceId());
+        } finally {
+            context.exit(span, null);
+        }
+        assertThat(context.isIdle()).isTrue();
+    }
+
+    /**
+     * 쓰레드 1개 풀: 안쪽 @Offload 가 같은 풀에 넘겨서 기다리면 멈춘다. -> 같은 쓰레드에서 실행
+     */
+    @Test
+    void nestedOffloadRunsInline() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(1);
+        try {
+            OffloadTarget inner = proxy(new OffloadTarget(), pool);
+            OuterTarget outer = proxy(new OuterTarget(inner), pool);
+
+            CompletableFuture<String> threads = CompletableFuture.supplyAsync(outer::threads);
+            String[] names = threads.get(1, TimeUnit.SECONDS).split(",");
+            assertThat(names[0]).isNotEqualTo(Thread.currentThread().getName());
+            assertThat(names[1]).startsWith(names[0] + "|");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(T target, ExecutorService executor) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new OffloadAspect(executor));
+        return (T) proxyFactory.getProxy();
+    }
+
+    static class OuterTarget {
+        private final OffloadTarget inner;
+
+        OuterTarget(OffloadTarget inner) {
+            this.inner = inner;
+        }
+
+        @Offload
+        public String threads() {
+            return Thread.currentThread().getName() + "," + inner.blocking();
+        }
+    }
+
+    static class OffloadTarget {
+        @Offload
+        public String blocking() {
+            return Thread.currentThread().getName() + "|" + MDC.get("requestId");
+        }
+
+        @Offload
+        public CompletableFuture<String> async() {
+            return CompletableFuture.completedFuture(Thread.currentThread().getName() + "|" + MDC.get("requestId"));
+        }
+
+        @Offload
+        public void fail() {
+            throw new IllegalStateException("fail");
+        }
+
+        @Offload
+        public String traceId() {
+            TraceContext context = TraceContext.current();
+            return context.isIdle() ? null : context.getTraceId();
+        }
+    }
+}
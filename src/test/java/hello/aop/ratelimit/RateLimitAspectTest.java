@@ -0,0 +1,153 @@
+package hello.aop.ratelimit;
+
+import hello.aop.ratelimit.annotation.RateLimit;
+import hello.aop.ratelimit.aop.RateLimitAspect;
+import hello.aop.ratelimit.aop.RateLimitExceededException;
+import hello.aop.ratelimit.aop.RateLimitStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimitAspectTest {
+    RateLimitAspect rateLimitAspect;
+    LimitedTarget target;
+
+    @BeforeEach
+    void init() {
+        rateLimitAspect = new RateLimitAspect();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new LimitedTarget());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(rateLimitAspect);
+        target = proxyFactory.getProxy();
+    }
+
+    /**
+     * burst 만큼 바로 허용, 그 다음은 거절
+     */
+    @Test
+    void failFast() {
+        for (int i = 0; i < 3; i++) {
+            target.failFast();
+        }
+        assertThatThrownBy(() -> target.failFast())
+                .isInstanceOf(RateLimitExceededException.class);
+
+        RateLimitStatus status = rateLimitAspect.getStatuses().get(0);
+        assertThat(status.getPermitted()).isEqualTo(3);
+        assertThat(status.getRejected()).isEqualTo(1);
+    }
+
+    /**
+     * 초당 20개: 1개(burst) 이후는 50ms 씩 기다린다.
+     */
+    @Test
+    void blockingWait() {
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            target.blocking();
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(150);
+        assertThat(rateLimitAspect.getStatuses().get(0).getRejected()).isZero();
+    }
+
+    @Test
+    void perKey() {
+        target.perKey("a");
+        target.perKey("b");
+        assertThatThrownBy(() -> target.perKey("a"))
+                .isInstanceOf(RateLimitExceededException.class);
+    }
+
+    /**
+     * 키 버킷 수는 maxKeys 를 넘지 않는다. (모두 사용 중이면 나머지 키는 공용 버킷)
+     */
+    @Test
+    void boundedKeys() {
+        target.perKey("key0");
+        for (int i = 1; i < 100; i++) {
+            try {
+                target.perKey("key" + i);
+            } catch (RateLimitExceededException e) {
+                //공용 버킷은 토큰 1개
+            }
+        }
+        RateLimitStatus status = rateLimitAspect.getStatuses().get(0);
+        assertThat(status.getKeys()).isEqualTo(10);
+        assertThat(status.getOverflowCalls()).isEqualTo(90);
+        assertThat(status.getPermitted()).isEqualTo(11);
+    }
+
+    /**
+     * maxKeys + 1 개의 키가 모두 사용 중이어도 키마다 제한된다. (새 키가 정리되어 제한을 우회하지 않는다.)
+     */
+    @Test
+    void hotKeysStayLimited() {
+        for (int i = 0; i <= 10; i++) {
+            target.perKey("key" + i);
+        }
+        for (int i = 0; i <= 10; i++) {
+            String key = "key" + i;
+            assertThatThrownBy(() -> target.perKey(key))
+                    .isInstanceOf(RateLimitExceededException.class);
+        }
+        assertThat(rateLimitAspect.getStatuses().get(0).getPermitted()).isEqualTo(11);
+    }
+
+    /**
+     * JDK 동적 프록시: 같은 인터페이스 메서드라도 구현체마다 따로 제한
+     */
+    @Test
+    void limitPerImplementation() {
+        Limited first = interfaceProxy(new FirstLimited());
+        Limited second = interfaceProxy(new SecondLimited());
+
+        first.call();
+        second.call();
+        assertThatThrownBy(first::call).isInstanceOf(RateLimitExceededException.class);
+        assertThat(rateLimitAspect.getStatuses()).hasSize(2);
+    }
+
+    private Limited interfaceProxy(Limited limited) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(limited);
+        proxyFactory.addAspect(rateLimitAspect);
+        return proxyFactory.getProxy();
+    }
+
+    interface Limited {
+        void call();
+    }
+
+    static class FirstLimited implements Limited {
+        @Override
+        @RateLimit(permitsPerSecond = 1)
+        public void call() {
+        }
+    }
+
+    static class SecondLimited implements Limited {
+        @Override
+        @RateLimit(permitsPerSecond = 1)
+        public void call() {
+        }
+    }
+
+    static class LimitedTarget {
+        @RateLimit(permitsPerSecond = 1, burst = 3)
+        public void failFast() {
+        }
+
+        @RateLimit(permitsPerSecond = 20, maxWaitMillis = 1_000)
+        public void blocking() {
+        }
+
+        @RateLimit(permitsPerSecond = 1, perKey = true, maxKeys = 10)
+        public void perKey(String key) {
+        }
+    }
+}
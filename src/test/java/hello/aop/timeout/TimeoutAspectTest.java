@@ -0,0 +1,115 @@
+package hello.aop.timeout;
+
+import hello.aop.timeout.annotation.Timeout;
+import hello.aop.timeout.aop.CallTimeoutException;
+import hello.aop.timeout.aop.TimeoutAspect;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimeoutAspectTest {
+    TimeoutAspect timeoutAspect;
+    SlowTarget target;
+
+    @BeforeEach
+    void init() {
+        timeoutAspect = new TimeoutAspect();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new SlowTarget());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(timeoutAspect);
+        target = proxyFactory.getProxy();
+    }
+
+    @Test
+    void withinTimeout() {
+        assertThat(target.sleep(0)).isEqualTo("ok");
+        assertThat(Thread.currentThread().isInterrupted()).isFalse();
+    }
+
+    /**
+     * 시간이 지나면 interrupt, interrupt 상태는 지워진다.
+     */
+    @Test
+    void interruptOnTimeout() {
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> target.sleep(5_000))
+                .isInstanceOf(CallTimeoutException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2_000);
+        assertThat(Thread.currentThread().isInterrupted()).isFalse();
+    }
+
+    @Test
+    void asyncTimeout() {
+        CompletableFuture<String> never = target.never();
+        assertThatThrownBy(() -> never.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(CallTimeoutException.class);
+    }
+
+    /**
+     * 같은 인터페이스 메서드라도 구현체마다 자기 제한 시간 (JDK 프록시)
+     */
+    @Test
+    void timeoutPerImplementation() {
+        Sleeper strict = interfaceProxy(new StrictSleeper());
+        Sleeper lenient = interfaceProxy(new LenientSleeper());
+
+        assertThatThrownBy(() -> strict.sleep(300)).isInstanceOf(CallTimeoutException.class);
+        assertThat(lenient.sleep(300)).isEqualTo("ok");
+    }
+
+    private Sleeper interfaceProxy(Sleeper sleeper) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(sleeper);
+        proxyFactory.addAspect(timeoutAspect);
+        return proxyFactory.getProxy();
+    }
+
+    interface Sleeper {
+        String sleep(long millis);
+    }
+
+    static class StrictSleeper implements Sleeper {
+        @Override
+        @Timeout(100)
+        public String sleep(long millis) {
+            return SlowTarget.sleepFor(millis);
+        }
+    }
+
+    static class LenientSleeper implements Sleeper {
+        @Override
+        @Timeout(5_000)
+        public String sleep(long millis) {
+            return SlowTarget.sleepFor(millis);
+        }
+    }
+
+    static class SlowTarget {
+        @Timeout(100)
+        public String sleep(long millis) {
+            return sleepFor(millis);
+        }
+
+        @Timeout(100)
+        public CompletableFuture<String> never() {
+            return new CompletableFuture<>();
+        }
+
+        private static String sleepFor(long millis) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException("interrupted", e);
+            }
+            return "ok";
+        }
+    }
+}
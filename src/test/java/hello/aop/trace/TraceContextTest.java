@@ -0,0 +1,67 @@
+package hello.aop.trace;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+class TraceContextTest {
+
+    @Test
+    void sampledTree() {
+        TraceContext context = new TraceContext();
+        context.begin(true);
+
+        long root = context.enter("ExamService.request(..)");
+        long child = context.enter("ExamRepository.save(..)");
+        assertThat(context.exit(child, new IllegalStateException())).isNull();
+        String tree = context.exit(root, null);
+        log.info("{}", tree);
+
+        assertThat(tree).contains("spans=2 dropped=0");
+        assertThat(tree).contains("\n|-->ExamService.request(..) spanId=1 parentId=0");
+        assertThat(tree).contains("\n|   |-->ExamRepository.save(..) spanId=2 parentId=1");
+        assertThat(tree).endsWith(" ex");
+        assertThat(context.isIdle()).isTrue();
+    }
+
+    @Test
+    void spanDetail() {
+        TraceContext context = new TraceContext();
+        context.begin(true);
+
+        String tree = context.exit(context.enter("ExamService.request(..)", "[data0]"), null);
+        assertThat(tree).contains("\n|-->ExamService.request(..) args=[data0] spanId=1 parentId=0");
+    }
+
+    @Test
+    void notSampled() {
+        TraceContext context = new TraceContext();
+        context.begin(false);
+
+        long root = context.enter(null);
+        long child = context.enter(null);
+        assertThat(child).isEqualTo(TraceContext.NOT_SAMPLED);
+        assertThat(context.exit(child, null)).isNull();
+        assertThat(context.exit(root, null)).isNull();
+        assertThat(context.isIdle()).isTrue();
+    }
+
+    /**
+     * 버퍼보다 span 이 많으면 오래된 span 부터 버린다.
+     */
+    @Test
+    void ringOverflow() {
+        TraceContext context = new TraceContext();
+        context.begin(true);
+
+        long root = context.enter("root");
+        for (int i = 0; i < 200; i++) {
+            context.exit(context.enter("child"), null);
+        }
+        String tree = context.exit(root, null);
+
+        assertThat(tree).contains("spans=201 dropped=73");
+    }
+}
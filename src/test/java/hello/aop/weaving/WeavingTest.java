@@ -0,0 +1,60 @@
+package hello.aop.weaving;
+
+import hello.aop.exam.ExamService;
+import hello.aop.internalcall.CallServiceV0;
+import hello.aop.metrics.MetricsConfig;
+import hello.aop.metrics.MetricsRegistry;
+import hello.aop.order.OrderService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.util.StringUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 위빙 모드 전용 테스트 (./gradlew test -Paop.mode=ajc 또는 ltw, 프록시 모드에서는 실행하지 않는다.)
+ * - config/aop-ajc.xml 의 aspect 는 클래스에 위빙된다. (프록시 없음, 내부 호출도 적용)
+ * - 어드바이스는 메서드 실행 1번에 한 번만 적용된다. (호출하는 쪽에 다시 위빙되지 않는다.)
+ * - 위빙하지 않는 aspect(@Timed)는 스프링 프록시로 적용된다.
+ * ltw: 컨텍스트 시작 전에 로딩된 클래스는 위빙되지 않으므로 대상 빈은 필드 타입으로 두지 않고 테스트 안에서 조회한다.
+ */
+@Tag("weaving")
+@ExtendWith(OutputCaptureExtension.class)
+@Import(MetricsConfig.class)
+@SpringBootTest
+class WeavingTest {
+    @Autowired
+    ApplicationContext context;
+
+    @Test
+    void internalCallIsAdvised(CapturedOutput output) {
+        CallServiceV0 callServiceV0 = context.getBean(CallServiceV0.class);
+        assertThat(AopUtils.isAopProxy(callServiceV0)).isFalse();
+        callServiceV0.external();
+        assertThat(output.getOut()).contains("aop=void hello.aop.internalcall.CallServiceV0.internal()");
+    }
+
+    //ExamService.request -> ExamRepository.save: save 의 span 은 1개 (call + execution 으로 두 번 위빙되면 2개)
+    @Test
+    void advisedOncePerCall(CapturedOutput output) {
+        context.getBean(ExamService.class).request("itemA");
+        assertThat(StringUtils.countOccurrencesOf(output.getOut(), "|-->ExamRepository.save(..)")).isEqualTo(1);
+    }
+
+    @Test
+    void proxyAspectStillApplies() {
+        OrderService orderService = context.getBean(OrderService.class);
+        orderService.orderItem("itemA");
+        assertThat(AopUtils.isAopProxy(orderService)).isTrue();
+        assertThat(context.getBean(MetricsRegistry.class).snapshot())
+                .anyMatch(snapshot -> snapshot.getName().equals("OrderService.orderItem") && snapshot.getCount() > 0);
+    }
+}